@@ -0,0 +1,119 @@
+package com.cjs.widgets.scrollverifyengine.benchmark;
+
+import com.cjs.widgets.scrollverifyengine.PuzzleDragModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述:拖拽计算和验证计算的基准测试
+ * <p>
+ * 拖拽测试回放一段预先生成的触摸位移，其中一部分会把滑块推到边界外，走到边界限制的分支，结果按单个触摸事件统计。
+ * <p>
+ * 创建时间:2026年10月18日 17:05
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PuzzleDragBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 540;
+    private static final int PADDING = 15;
+    private static final int BLOCK = 180;
+    /**
+     * 一次拖拽包含的移动事件数，约等于120Hz屏幕上1秒的拖拽
+     */
+    private static final int EVENTS = 120;
+    /**
+     * 验证测试中预先生成的目标位置数量，避免JIT把固定的输入常量折叠
+     */
+    private static final int TARGETS = 1024;
+
+    @Param({"1", "3"})
+    public int scrollMode;
+
+    private PuzzleDragModel mModel;
+    /**
+     * 每个移动事件相对上一个事件的位移
+     */
+    private final float[] mDeltaX = new float[EVENTS];
+    private final float[] mDeltaY = new float[EVENTS];
+    private final float[] mTargetX = new float[TARGETS];
+    private final float[] mTargetY = new float[TARGETS];
+    private int mTargetIndex;
+
+    @Setup
+    public void setUp() {
+        mModel = new PuzzleDragModel();
+        mModel.setBounds(WIDTH, HEIGHT, PADDING);
+        mModel.setBlockSize(BLOCK, BLOCK);
+        mModel.setScrollMode(scrollMode);
+        Random random = new Random(20261018L);
+        //先向右下拖过边界，再拖回来
+        for (int i = 0; i < EVENTS; i++) {
+            float direction = i < EVENTS / 2 ? 1 : -1;
+            mDeltaX[i] = direction * (10 + random.nextFloat() * 10);
+            mDeltaY[i] = direction * random.nextFloat() * 6;
+        }
+        for (int i = 0; i < TARGETS; i++) {
+            mTargetX[i] = PADDING + random.nextFloat() * (WIDTH - BLOCK - PADDING * 2);
+            mTargetY[i] = PADDING + random.nextFloat() * (HEIGHT - BLOCK - PADDING * 2);
+        }
+    }
+
+    /**
+     * 完整的一次拖拽：按下、移动、抬起，结果按移动事件数折算
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void drag(Blackhole blackhole) {
+        mModel.setBlockPosition(PADDING, PADDING);
+        float x = PADDING + BLOCK / 2;
+        float y = PADDING + BLOCK / 2;
+        mModel.onDown(x, y);
+        for (int i = 0; i < EVENTS; i++) {
+            blackhole.consume(mModel.onMove(x + mDeltaX[i], y + mDeltaY[i]));
+            //手指跟着滑块，保证下一个事件仍在滑块内部
+            x = mModel.getBlockX() + BLOCK / 2;
+            y = mModel.getBlockY() + BLOCK / 2;
+        }
+        mModel.onUp(x, y);
+    }
+
+    /**
+     * 单独测量边界限制
+     */
+    @Benchmark
+    public float makeBlockInsideBounds() {
+        int index = mTargetIndex++ & (TARGETS - 1);
+        mModel.setBlockPosition(mTargetX[index] * 2 - WIDTH / 2, mTargetY[index] * 2 - HEIGHT / 2);
+        mModel.makeBlockInsideBounds();
+        return mModel.getBlockX() + mModel.getBlockY();
+    }
+
+    @Benchmark
+    public boolean verify() {
+        int index = mTargetIndex++ & (TARGETS - 1);
+        mModel.setBlockPosition(mTargetX[index], mTargetY[index]);
+        return mModel.verify(mTargetX[(index + 1) & (TARGETS - 1)], mTargetY[index], 3);
+    }
+}
@@ -0,0 +1,78 @@
+package com.cjs.widgets.scrollverifyengine.benchmark;
+
+import com.cjs.widgets.scrollverifyengine.PuzzleLayout;
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述:拼图布局生成的基准测试
+ * <p>
+ * 覆盖全部五种滑动模式，以及几种常见的控件尺寸和滑块比例，滑块比例与ScrollVerifyView的blockWidthDivide/blockHeightDivide含义相同。
+ * <p>
+ * 创建时间:2026年10月18日 17:05
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PuzzleLayoutBenchmark {
+    private static final int PADDING = 15;
+
+    @Param({"1", "2", "3", "4", "5"})
+    public int scrollMode;
+    /**
+     * 控件尺寸，宽x高
+     */
+    @Param({"540x270", "1080x540", "1440x720"})
+    public String viewSize;
+    /**
+     * 滑块宽高占控件宽高的比例系数，宽x高
+     */
+    @Param({"6x4", "3x2"})
+    public String blockDivide;
+    @Param({"false", "true"})
+    public boolean avoidTooClose;
+
+    private PuzzleLayoutEngine mEngine;
+    private PuzzleLayout mLayout;
+    private int mWidth;
+    private int mHeight;
+
+    @Setup
+    public void setUp() {
+        String[] size = viewSize.split("x");
+        String[] divide = blockDivide.split("x");
+        mWidth = Integer.parseInt(size[0]);
+        mHeight = Integer.parseInt(size[1]);
+        mEngine = new PuzzleLayoutEngine(new Random(20261018L));
+        mEngine.setBlockSize(mWidth / Integer.parseInt(divide[0]), mHeight / Integer.parseInt(divide[1]));
+        mEngine.setPadding(PADDING);
+        mEngine.setScrollMode(scrollMode);
+        mEngine.setAvoidTooClose(avoidTooClose);
+        mLayout = new PuzzleLayout();
+    }
+
+    @Benchmark
+    public PuzzleLayout layout() {
+        mEngine.layout(mWidth, mHeight, mLayout);
+        return mLayout;
+    }
+}
@@ -0,0 +1,115 @@
+package com.cjs.widgets.scrollverifyengine.benchmark;
+
+import com.cjs.widgets.scrollverifyengine.DragTrajectory;
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+import com.cjs.widgets.scrollverifyengine.TrajectoryDecoder;
+import com.cjs.widgets.scrollverifyengine.TrajectoryEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述:拖拽轨迹编码的基准测试
+ * <p>
+ * 比较{@link TrajectoryEncoder}的紧凑编码和直接写float x、float y、long time的原始编码，结果按单个采样统计。
+ * 两种编码的字节数由TrajectoryCodecTest#muchSmallerThanRawFloats检查，这里只关心速度。
+ * <p>
+ * 创建时间:2026年10月18日 20:10
+ *
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrajectoryEncodingBenchmark {
+    /**
+     * 240Hz屏幕上2秒的拖拽
+     */
+    private static final int SAMPLES = 480;
+    private static final int RAW_SAMPLE_SIZE = 4 + 4 + 8;
+
+    private final DragTrajectory mTrajectory = new DragTrajectory(SAMPLES);
+    private final TrajectoryEncoder mEncoder = new TrajectoryEncoder();
+    private final TrajectoryDecoder mDecoder = new TrajectoryDecoder();
+    private final ByteBuffer mCompact = ByteBuffer.allocate(TrajectoryEncoder.getMaxEncodedSize(SAMPLES));
+    private final ByteBuffer mRaw = ByteBuffer.allocate(RAW_SAMPLE_SIZE * SAMPLES);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20261018L);
+        float x = 60;
+        float y = 120;
+        long time = 3600000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            mTrajectory.add(x, y, time);
+            x += random.nextFloat() * 4;
+            y += random.nextFloat() * 2 - 1;
+            time += 4 + random.nextInt(2);
+        }
+        mEncoder.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        mEncoder.setBlockSize(180, 180);
+        mEncoder.setStart(15, 120);
+        mEncoder.setTarget(700, 200);
+        //解码基准需要先有编码结果
+        encodeCompact();
+        encodeRaw();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int encodeCompact() {
+        mCompact.clear();
+        return mEncoder.encode(mTrajectory, mCompact);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int encodeRaw() {
+        mRaw.clear();
+        for (int i = 0; i < SAMPLES; i++) {
+            mRaw.putFloat(mTrajectory.getX(i));
+            mRaw.putFloat(mTrajectory.getY(i));
+            mRaw.putLong(mTrajectory.getEventTime(i));
+        }
+        return mRaw.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public float decodeCompact() {
+        mCompact.rewind();
+        mDecoder.reset(mCompact);
+        float sum = 0;
+        while (mDecoder.next()) {
+            sum += mDecoder.getX() + mDecoder.getY() + mDecoder.getEventTime();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public float decodeRaw() {
+        mRaw.rewind();
+        float sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            sum += mRaw.getFloat() + mRaw.getFloat() + mRaw.getLong();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,151 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:拖拽轨迹
+ * <p>
+ * 用预先分配的基本类型数组组成环形缓冲区，按时间顺序保存一次拖拽中的每一个触摸采样(横坐标、纵坐标、事件时间)。
+ * 记录时既不装箱也不为每个采样创建对象，240Hz的触摸采样下每一帧记录也不会产生GC压力。
+ * 超出容量后覆盖最早的采样，并通过{@link #getDroppedCount()}记录被覆盖的数量。
+ * <p>
+ * 该类不是线程安全的。
+ * <p>
+ * 创建时间:2026年10月18日 19:30
+ *
+ * @version 1.0
+ */
+public final class DragTrajectory {
+    /**
+     * 默认容量，240Hz采样下大约可以保存4秒的拖拽
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mTimes;
+    /**
+     * 最早的采样在数组中的位置
+     */
+    private int mHead;
+    private int mSize;
+    private int mDroppedCount;
+
+    public DragTrajectory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 最多保存的采样数
+     */
+    public DragTrajectory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("轨迹容量必须大于零");
+        }
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mTimes = new long[capacity];
+    }
+
+    /**
+     * 清空轨迹，开始记录新的一次拖拽
+     */
+    public void clear() {
+        mHead = 0;
+        mSize = 0;
+        mDroppedCount = 0;
+    }
+
+    /**
+     * 记录一个采样，缓冲区已满时覆盖最早的采样
+     *
+     * @param x         横坐标
+     * @param y         纵坐标
+     * @param eventTime 事件时间(毫秒)
+     */
+    public void add(float x, float y, long eventTime) {
+        int capacity = mXs.length;
+        int index;
+        if (mSize < capacity) {
+            index = mHead + mSize;
+            if (index >= capacity) {
+                index -= capacity;
+            }
+            mSize++;
+        } else {
+            index = mHead;
+            mHead = mHead + 1 == capacity ? 0 : mHead + 1;
+            mDroppedCount++;
+        }
+        mXs[index] = x;
+        mYs[index] = y;
+        mTimes[index] = eventTime;
+    }
+
+    /**
+     * 当前保存的采样数
+     *
+     * @return
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public int getCapacity() {
+        return mXs.length;
+    }
+
+    /**
+     * 因为超出容量被覆盖的采样数
+     *
+     * @return
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * @param i 按时间顺序的序号，0为保存的最早的采样
+     * @return 横坐标
+     */
+    public float getX(int i) {
+        return mXs[indexOf(i)];
+    }
+
+    /**
+     * @param i 按时间顺序的序号，0为保存的最早的采样
+     * @return 纵坐标
+     */
+    public float getY(int i) {
+        return mYs[indexOf(i)];
+    }
+
+    /**
+     * @param i 按时间顺序的序号，0为保存的最早的采样
+     * @return 事件时间(毫秒)
+     */
+    public long getEventTime(int i) {
+        return mTimes[indexOf(i)];
+    }
+
+    /**
+     * 复制一份轨迹。回调中拿到的轨迹会在下一次拖拽时被覆盖，需要保留时调用该方法
+     *
+     * @return 容量和采样数相同的新轨迹
+     */
+    public DragTrajectory copy() {
+        DragTrajectory copy = new DragTrajectory(Math.max(mSize, 1));
+        for (int i = 0; i < mSize; i++) {
+            int index = indexOf(i);
+            copy.add(mXs[index], mYs[index], mTimes[index]);
+        }
+        copy.mDroppedCount = mDroppedCount;
+        return copy;
+    }
+
+    private int indexOf(int i) {
+        if (i < 0 || i >= mSize) {
+            throw new IndexOutOfBoundsException("index:" + i + " size:" + mSize);
+        }
+        int index = mHead + i;
+        return index >= mXs.length ? index - mXs.length : index;
+    }
+}
@@ -0,0 +1,119 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:掉帧检测
+ * <p>
+ * 按顺序传入每一帧的开始时间，按显示刷新间隔换算出两帧之间经过了几个垂直同步周期，多出来的周期记为掉帧。
+ * 每累计一个窗口(默认30个周期)统计一次，窗口内掉帧比例超过阈值时{@link #onFrame(long)}返回true，
+ * 调用方据此降低绘制质量。只负责计算，不依赖Android，帧时间由调用方(例如Choreographer的回调)提供。
+ * <p>
+ * 该类不是线程安全的。
+ * <p>
+ * 创建时间:2026年10月18日 23:50
+ *
+ * @version 1.0
+ */
+public final class FrameDropDetector {
+    /**
+     * 默认的统计窗口，60Hz下大约半秒
+     */
+    public static final int DEFAULT_WINDOW_FRAMES = 30;
+    /**
+     * 默认的掉帧比例阈值
+     */
+    public static final float DEFAULT_DROP_RATIO = 0.25f;
+
+    private final long mFrameIntervalNanos;
+    private final int mWindowFrames;
+    private final float mDropRatio;
+    /**
+     * 上一帧的时间，小于0表示还没有收到第一帧
+     */
+    private long mLastFrameTimeNanos = -1;
+    private int mExpectedFrames;
+    private int mDroppedFrames;
+    /**
+     * 最近一个完整窗口的统计结果
+     */
+    private int mLastExpectedFrames;
+    private int mLastDroppedFrames;
+
+    /**
+     * @param frameIntervalNanos 显示刷新间隔(纳秒)，60Hz为16666666
+     */
+    public FrameDropDetector(long frameIntervalNanos) {
+        this(frameIntervalNanos, DEFAULT_WINDOW_FRAMES, DEFAULT_DROP_RATIO);
+    }
+
+    /**
+     * @param frameIntervalNanos 显示刷新间隔(纳秒)
+     * @param windowFrames       每个统计窗口包含的垂直同步周期数
+     * @param dropRatio          窗口内掉帧比例超过该值时认为持续掉帧
+     */
+    public FrameDropDetector(long frameIntervalNanos, int windowFrames, float dropRatio) {
+        if (frameIntervalNanos <= 0 || windowFrames <= 0) {
+            throw new IllegalArgumentException("刷新间隔和统计窗口必须大于零");
+        }
+        mFrameIntervalNanos = frameIntervalNanos;
+        mWindowFrames = windowFrames;
+        mDropRatio = dropRatio;
+    }
+
+    /**
+     * 清空统计，开始新的一次检测。下一帧只作为起点，不计入统计
+     */
+    public void reset() {
+        mLastFrameTimeNanos = -1;
+        mExpectedFrames = 0;
+        mDroppedFrames = 0;
+    }
+
+    /**
+     * 传入一帧的开始时间
+     *
+     * @param frameTimeNanos 帧时间(纳秒)，必须单调递增
+     * @return true-刚刚结束的窗口内掉帧比例超过了阈值
+     */
+    public boolean onFrame(long frameTimeNanos) {
+        long lastFrameTimeNanos = mLastFrameTimeNanos;
+        mLastFrameTimeNanos = frameTimeNanos;
+        if (lastFrameTimeNanos < 0) {
+            return false;
+        }
+        //四舍五入到整数个周期，吸收垂直同步时间戳的抖动
+        long vsyncs = (frameTimeNanos - lastFrameTimeNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos;
+        if (vsyncs < 1) {
+            vsyncs = 1;
+        }
+        //一次很长的卡顿也只按一个窗口计，避免int溢出
+        vsyncs = Math.min(vsyncs, mWindowFrames);
+        mExpectedFrames += vsyncs;
+        mDroppedFrames += vsyncs - 1;
+        if (mExpectedFrames < mWindowFrames) {
+            return false;
+        }
+        mLastExpectedFrames = mExpectedFrames;
+        mLastDroppedFrames = mDroppedFrames;
+        mExpectedFrames = 0;
+        mDroppedFrames = 0;
+        return mLastDroppedFrames > mLastExpectedFrames * mDropRatio;
+    }
+
+    /**
+     * 最近一个完整窗口内的垂直同步周期数
+     *
+     * @return
+     */
+    public int getLastExpectedFrames() {
+        return mLastExpectedFrames;
+    }
+
+    /**
+     * 最近一个完整窗口内的掉帧数
+     *
+     * @return
+     */
+    public int getLastDroppedFrames() {
+        return mLastDroppedFrames;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:一次拖拽的帧耗时摘要
+ * <p>
+ * 由{@link FrameTimeHistogram#summarize()}生成，只包含几个数值，适合直接上报。时间单位都是纳秒。
+ * <p>
+ * 创建时间:2026年10月19日 00:30
+ *
+ * @version 1.0
+ */
+public final class FrameStats {
+    private final int mFrameCount;
+    private final int mJankCount;
+    private final long mP50Nanos;
+    private final long mP90Nanos;
+    private final long mP99Nanos;
+    private final long mMaxNanos;
+    private final long mDrawNanos;
+    private final int mDrawCount;
+
+    public FrameStats(int frameCount, int jankCount, long p50Nanos, long p90Nanos, long p99Nanos,
+                      long maxNanos, long drawNanos, int drawCount) {
+        mFrameCount = frameCount;
+        mJankCount = jankCount;
+        mP50Nanos = p50Nanos;
+        mP90Nanos = p90Nanos;
+        mP99Nanos = p99Nanos;
+        mMaxNanos = maxNanos;
+        mDrawNanos = drawNanos;
+        mDrawCount = drawCount;
+    }
+
+    /**
+     * 统计的帧数
+     *
+     * @return
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * 超过卡顿阈值的帧数
+     *
+     * @return
+     */
+    public int getJankCount() {
+        return mJankCount;
+    }
+
+    public long getP50Nanos() {
+        return mP50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return mP90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return mP99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    /**
+     * 控件绘制(onDraw)的总耗时
+     *
+     * @return
+     */
+    public long getDrawNanos() {
+        return mDrawNanos;
+    }
+
+    /**
+     * 控件绘制(onDraw)的次数
+     *
+     * @return
+     */
+    public int getDrawCount() {
+        return mDrawCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{frames=" + mFrameCount
+                + ", janks=" + mJankCount
+                + ", p50=" + mP50Nanos / 1000 + "us"
+                + ", p90=" + mP90Nanos / 1000 + "us"
+                + ", p99=" + mP99Nanos / 1000 + "us"
+                + ", max=" + mMaxNanos / 1000 + "us"
+                + ", draw=" + mDrawNanos / 1000 + "us/" + mDrawCount
+                + "}";
+    }
+}
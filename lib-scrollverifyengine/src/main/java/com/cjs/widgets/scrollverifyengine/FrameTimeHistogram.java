@@ -0,0 +1,172 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:帧耗时直方图
+ * <p>
+ * 用预先分配的固定数量的桶统计帧耗时，默认每个桶0.5毫秒，覆盖0到200毫秒，更长的帧计入最后一个溢出桶。
+ * 记录一帧只是给一个int数组元素加一，不装箱也不创建对象，可以在每一帧的回调里调用而不引起GC。
+ * 百分位数按桶的上边界估算，精度为一个桶的宽度。同时统计超过卡顿阈值的帧数和绘制(onDraw)的总耗时。
+ * 耗时未知的丢失帧通过{@link #recordDroppedFrames(int)}计入总帧数和卡顿帧数，估算百分位数时视为最慢的帧。
+ * <p>
+ * 该类不是线程安全的。
+ * <p>
+ * 创建时间:2026年10月19日 00:30
+ *
+ * @version 1.0
+ */
+public final class FrameTimeHistogram {
+    /**
+     * 默认的桶宽度(纳秒)
+     */
+    public static final long DEFAULT_BUCKET_NANOS = 500_000L;
+    /**
+     * 默认的桶数量，不含溢出桶
+     */
+    public static final int DEFAULT_BUCKET_COUNT = 400;
+
+    private final long mBucketNanos;
+    /**
+     * 最后一个元素是溢出桶
+     */
+    private final int[] mCounts;
+    private long mJankThresholdNanos = Long.MAX_VALUE;
+    private int mFrameCount;
+    private int mJankCount;
+    private long mMaxFrameNanos;
+    private long mDrawNanos;
+    private int mDrawCount;
+
+    public FrameTimeHistogram() {
+        this(DEFAULT_BUCKET_NANOS, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * @param bucketNanos 每个桶的宽度(纳秒)
+     * @param bucketCount 桶的数量，超出范围的帧计入额外的溢出桶
+     */
+    public FrameTimeHistogram(long bucketNanos, int bucketCount) {
+        if (bucketNanos <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("桶宽度和桶数量必须大于零");
+        }
+        mBucketNanos = bucketNanos;
+        mCounts = new int[bucketCount + 1];
+    }
+
+    /**
+     * 清空统计，开始新的一次采集
+     *
+     * @param jankThresholdNanos 超过该耗时的帧记为卡顿
+     */
+    public void reset(long jankThresholdNanos) {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+        mJankThresholdNanos = jankThresholdNanos;
+        mFrameCount = 0;
+        mJankCount = 0;
+        mMaxFrameNanos = 0;
+        mDrawNanos = 0;
+        mDrawCount = 0;
+    }
+
+    /**
+     * 记录一帧的耗时
+     *
+     * @param frameNanos 帧耗时(纳秒)，小于0时忽略
+     */
+    public void recordFrame(long frameNanos) {
+        if (frameNanos < 0) {
+            return;
+        }
+        long bucket = frameNanos / mBucketNanos;
+        mCounts[bucket >= mCounts.length - 1 ? mCounts.length - 1 : (int) bucket]++;
+        mFrameCount++;
+        if (frameNanos > mJankThresholdNanos) {
+            mJankCount++;
+        }
+        if (frameNanos > mMaxFrameNanos) {
+            mMaxFrameNanos = frameNanos;
+        }
+    }
+
+    /**
+     * 记录耗时未知的丢失帧，例如系统来不及上报的帧。丢失帧计为卡顿帧，不进入任何桶
+     *
+     * @param count 丢失的帧数，小于等于0时忽略
+     */
+    public void recordDroppedFrames(int count) {
+        if (count <= 0) {
+            return;
+        }
+        mFrameCount += count;
+        mJankCount += count;
+    }
+
+    /**
+     * 记录一次绘制的耗时
+     *
+     * @param drawNanos 绘制耗时(纳秒)
+     */
+    public void recordDraw(long drawNanos) {
+        mDrawNanos += drawNanos;
+        mDrawCount++;
+    }
+
+    /**
+     * 估算百分位数
+     *
+     * @param percentile 百分位，取值(0, 100]
+     * @return 所在桶的上边界(纳秒)，落在溢出桶或者丢失帧上时返回已知最长的帧耗时，没有记录时返回0
+     */
+    public long getPercentileNanos(float percentile) {
+        if (mFrameCount == 0) {
+            return 0;
+        }
+        //第rank个(从1开始)最短的帧所在的桶
+        long rank = (long) Math.ceil(mFrameCount * (double) percentile / 100);
+        rank = Math.max(1, Math.min(rank, mFrameCount));
+        long seen = 0;
+        for (int i = 0; i < mCounts.length - 1; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * mBucketNanos, mMaxFrameNanos);
+            }
+        }
+        return mMaxFrameNanos;
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    public int getJankCount() {
+        return mJankCount;
+    }
+
+    public long getMaxFrameNanos() {
+        return mMaxFrameNanos;
+    }
+
+    /**
+     * 绘制的总耗时(纳秒)
+     *
+     * @return
+     */
+    public long getDrawNanos() {
+        return mDrawNanos;
+    }
+
+    public int getDrawCount() {
+        return mDrawCount;
+    }
+
+    /**
+     * 生成当前统计的摘要
+     *
+     * @return 新的摘要对象，之后继续记录不会影响它
+     */
+    public FrameStats summarize() {
+        return new FrameStats(mFrameCount, mJankCount, getPercentileNanos(50), getPercentileNanos(90),
+                getPercentileNanos(99), mMaxFrameNanos, mDrawNanos, mDrawCount);
+    }
+}
@@ -0,0 +1,66 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:按控件尺寸解码图片时的尺寸计算
+ * <p>
+ * 只负责计算，不依赖Android，解码由调用方完成。
+ * <p>
+ * 创建时间:2026年10月19日 09:30
+ *
+ * @version 1.0
+ */
+public final class ImageSampling {
+
+    private ImageSampling() {
+    }
+
+    /**
+     * 计算与控件比例相同的居中区域
+     *
+     * @param sourceWidth  图片宽度
+     * @param sourceHeight 图片高度
+     * @param width        控件宽度
+     * @param height       控件高度
+     * @param outRegion    长度至少为4，依次写入left、top、right、bottom
+     * @return false-图片比例和控件比例相同，不需要裁剪，outRegion不会被修改
+     */
+    public static boolean getCenterCropRegion(int sourceWidth, int sourceHeight, int width, int height, int[] outRegion) {
+        //比较sourceWidth/sourceHeight和width/height，用乘法避免浮点误差
+        long sourceRatio = (long) sourceWidth * height;
+        long viewRatio = (long) sourceHeight * width;
+        if (sourceRatio > viewRatio) {
+            //图片更宽，裁掉左右两边
+            int cropWidth = (int) (viewRatio / height);
+            int left = (sourceWidth - cropWidth) / 2;
+            setRegion(outRegion, left, 0, left + cropWidth, sourceHeight);
+            return true;
+        } else if (sourceRatio < viewRatio) {
+            //图片更高，裁掉上下两边
+            int cropHeight = (int) (sourceRatio / width);
+            int top = (sourceHeight - cropHeight) / 2;
+            setRegion(outRegion, 0, top, sourceWidth, top + cropHeight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 计算最大的inSampleSize，使解码后的宽高仍然不小于需要的宽高
+     *
+     * @return 2的幂
+     */
+    public static int calculateInSampleSize(int sourceWidth, int sourceHeight, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        while (sourceWidth / (inSampleSize * 2) >= reqWidth && sourceHeight / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    private static void setRegion(int[] outRegion, int left, int top, int right, int bottom) {
+        outRegion[0] = left;
+        outRegion[1] = top;
+        outRegion[2] = right;
+        outRegion[3] = bottom;
+    }
+}
@@ -0,0 +1,211 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:可移动滑块的拖拽模型
+ * <p>
+ * 保存可移动滑块的位置和触摸状态，负责每个触摸事件的位移计算、边界限制以及最终的验证计算。
+ * 该类不依赖任何Android API，可以在普通JVM上测试，且每个事件的处理过程中不创建任何对象，拖拽过程中不会产生GC压力。
+ * <p>
+ * 创建时间:2026年10月18日 11:05
+ *
+ * @version 1.0
+ */
+public final class PuzzleDragModel {
+    /**
+     * 判定为有效拖拽的最小位移(像素)
+     */
+    private static final int MIN_DRAG_DISTANCE = 1;
+    /**
+     * 滑块可移动区域的宽高和内边距
+     */
+    private int mWidth;
+    private int mHeight;
+    private int mPadding;
+    /**
+     * 滑块宽高
+     */
+    private int mBlockWidth;
+    private int mBlockHeight;
+    /**
+     * 滑动模式
+     */
+    private int mScrollMode = PuzzleLayoutEngine.MODE_SCROLL_FREE;
+    /**
+     * 可移动滑块左上角坐标
+     */
+    private float mBlockX;
+    private float mBlockY;
+    private float lastTouchX;
+    private float lastTouchY;
+    private float firstTouchX;
+    private float firstTouchY;
+    private boolean isMove;
+
+    /**
+     * 设置滑块可移动的区域
+     *
+     * @param width   区域宽度
+     * @param height  区域高度
+     * @param padding 滑块距离区域边缘的最小距离
+     */
+    public void setBounds(int width, int height, int padding) {
+        mWidth = width;
+        mHeight = height;
+        mPadding = padding;
+    }
+
+    public void setBlockSize(int blockWidth, int blockHeight) {
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+    }
+
+    public void setScrollMode(int scrollMode) {
+        mScrollMode = scrollMode;
+    }
+
+    public void setBlockPosition(float x, float y) {
+        mBlockX = x;
+        mBlockY = y;
+    }
+
+    public float getBlockX() {
+        return mBlockX;
+    }
+
+    public float getBlockY() {
+        return mBlockY;
+    }
+
+    /**
+     * 当前这次触摸是否已经被视为拖拽
+     *
+     * @return
+     */
+    public boolean isMove() {
+        return isMove;
+    }
+
+    /**
+     * 手指按下
+     */
+    public void onDown(float touchX, float touchY) {
+        isMove = false;
+        lastTouchX = touchX;
+        lastTouchY = touchY;
+        firstTouchX = touchX;
+        firstTouchY = touchY;
+    }
+
+    /**
+     * 手指移动
+     *
+     * @return true-本次事件改变了滑块位置  false-位移不满足条件、没有触摸在滑块上(视为单击)，或者滑块被边界限制在原位置
+     */
+    public boolean onMove(float touchX, float touchY) {
+        isMove = isValidDrag(touchX, touchY, lastTouchX, lastTouchY, MIN_DRAG_DISTANCE)
+                || isValidDrag(touchX, touchY, firstTouchX, firstTouchY, MIN_DRAG_DISTANCE);
+        if (!isMove || !isTouchInsideBlock(touchX, touchY)) {
+            return false;
+        }
+        float oldBlockX = mBlockX;
+        float oldBlockY = mBlockY;
+        switch (mScrollMode) {
+            case PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL:
+                mBlockX += touchX - lastTouchX;
+                break;
+            case PuzzleLayoutEngine.MODE_SCROLL_ONLY_VERTICAL:
+                mBlockY += touchY - lastTouchY;
+                break;
+            case PuzzleLayoutEngine.MODE_SCROLL_FREE:
+            case PuzzleLayoutEngine.MODE_SCROLL_FREE_HORIZONTAL:
+            case PuzzleLayoutEngine.MODE_SCROLL_FREE_VERTICAL:
+            default:
+                mBlockX += touchX - lastTouchX;
+                mBlockY += touchY - lastTouchY;
+                break;
+        }
+        makeBlockInsideBounds();
+        lastTouchX = touchX;
+        lastTouchY = touchY;
+        return mBlockX != oldBlockX || mBlockY != oldBlockY;
+    }
+
+    /**
+     * 手指抬起
+     */
+    public void onUp(float touchX, float touchY) {
+        firstTouchX = touchX;
+        firstTouchY = touchY;
+    }
+
+    /**
+     * 确保滑块在指定范围里面滑动
+     */
+    public void makeBlockInsideBounds() {
+        int xStart = mPadding;
+        int xEnd = mWidth - mPadding - mBlockWidth;
+        mBlockX = mBlockX > xEnd ? xEnd : mBlockX;
+        mBlockX = mBlockX < xStart ? xStart : mBlockX;
+        int yStart = mPadding;
+        int yEnd = mHeight - mPadding - mBlockHeight;
+        mBlockY = mBlockY > yEnd ? yEnd : mBlockY;
+        mBlockY = mBlockY < yStart ? yStart : mBlockY;
+    }
+
+    /**
+     * 手指触摸区域是否在可移动的滑块内部
+     */
+    public boolean isTouchInsideBlock(float touchX, float touchY) {
+        //与RectF#contains的判定一致：左上闭区间，右下开区间
+        return touchX >= mBlockX && touchX < mBlockX + mBlockWidth
+                && touchY >= mBlockY && touchY < mBlockY + mBlockHeight;
+    }
+
+    /**
+     * 校验是否到达目标位置
+     *
+     * @param targetX     目标滑块左上角横坐标
+     * @param targetY     目标滑块左上角纵坐标
+     * @param validOffset 容差(像素)，规则见{@link #verify(float, float, float, float, int, int, int)}
+     * @return 如果两个滑块左上角的直线距离小于等于2倍的validOffset就视为成功，反之失败
+     */
+    public boolean verify(float targetX, float targetY, int validOffset) {
+        return verify(mBlockX, mBlockY, targetX, targetY, mBlockWidth, mBlockHeight, validOffset);
+    }
+
+    /**
+     * 校验滑块是否到达目标位置，{@link #verify(float, float, int)}使用同样的规则
+     * <p>
+     * 沿用最初版本控件的算法：用(坐标 + 宽高) / 2作为"中心点"比较，而不是真正的中心点坐标 + 宽高 / 2。
+     * 两个滑块宽高相同，这样算出的距离是左上角实际距离的一半，实际容差是2倍的validOffset。
+     * 已有的应用按这个效果设置了validOffset，因此客户端保留这个算法，不改变验证的难度。
+     *
+     * @param blockX      可移动滑块左上角横坐标
+     * @param blockY      可移动滑块左上角纵坐标
+     * @param targetX     目标滑块左上角横坐标
+     * @param targetY     目标滑块左上角纵坐标
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     * @param validOffset 容差(像素)
+     * @return 如果两个滑块左上角的直线距离小于等于2倍的validOffset就视为成功，反之失败
+     */
+    public static boolean verify(float blockX, float blockY, float targetX, float targetY,
+                                 int blockWidth, int blockHeight, int validOffset) {
+        float centerStartX = (blockX + blockWidth) / 2;
+        float centerStartY = (blockY + blockHeight) / 2;
+        float centerTargetX = (targetX + blockWidth) / 2;
+        float centerTargetY = (targetY + blockHeight) / 2;
+        float dx = centerStartX - centerTargetX;
+        float dy = centerStartY - centerTargetY;
+        return dx * dx + dy * dy <= (float) validOffset * validOffset;
+    }
+
+    /**
+     * 是否是有效的拖拽，比较距离的平方，省去开方运算
+     */
+    private static boolean isValidDrag(float x1, float y1, float x2, float y2, int offset) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        return dx * dx + dy * dy >= offset * offset;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:拼图布局结果
+ * <p>
+ * 保存起始滑块和目标滑块左上角的坐标，以及两者之间的真实距离。该对象可以反复传给{@link PuzzleLayoutEngine#layout}复用。
+ * <p>
+ * 创建时间:2026年10月18日 16:20
+ *
+ * @version 1.0
+ */
+public class PuzzleLayout {
+    /**
+     * 起始滑块左上角坐标
+     */
+    private float mStartX;
+    private float mStartY;
+    /**
+     * 目标滑块左上角坐标
+     */
+    private float mTargetX;
+    private float mTargetY;
+    /**
+     * 两个滑块之间的真实距离
+     */
+    private int mRealScrollDistance;
+
+    public float getStartX() {
+        return mStartX;
+    }
+
+    public float getStartY() {
+        return mStartY;
+    }
+
+    /**
+     * 设置起始滑块的位置。关闭随机位置时{@link PuzzleLayoutEngine}以该位置为基准生成布局
+     *
+     * @param startX 左上角横坐标
+     * @param startY 左上角纵坐标
+     */
+    public void setStart(float startX, float startY) {
+        mStartX = startX;
+        mStartY = startY;
+    }
+
+    public float getTargetX() {
+        return mTargetX;
+    }
+
+    public float getTargetY() {
+        return mTargetY;
+    }
+
+    public void setTarget(float targetX, float targetY) {
+        mTargetX = targetX;
+        mTargetY = targetY;
+    }
+
+    public int getRealScrollDistance() {
+        return mRealScrollDistance;
+    }
+
+    public void setRealScrollDistance(int realScrollDistance) {
+        mRealScrollDistance = realScrollDistance;
+    }
+}
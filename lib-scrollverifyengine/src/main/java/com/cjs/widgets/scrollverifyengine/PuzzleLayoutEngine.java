@@ -0,0 +1,348 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import java.util.Random;
+
+/**
+ * 描述:拼图布局引擎
+ * <p>
+ * 根据背景尺寸、滑块尺寸、内边距和滑动模式生成起始滑块和目标滑块的位置，不依赖任何Android API。
+ * 所有模式都在常数时间内完成：自由模式不再反复随机直到满足条件，而是先把允许目标滑块出现的区域
+ * 切分成最多{@link #MAX_CELLS}个矩形，再按面积加权直接在其中取点。
+ * <p>
+ * 该类不是线程安全的，每个线程应使用各自的实例。
+ * <p>
+ * 创建时间:2026年10月18日 16:20
+ *
+ * @version 1.0
+ */
+public final class PuzzleLayoutEngine {
+    /**
+     * 水平滑动模式
+     */
+    public static final int MODE_SCROLL_ONLY_HORIZONTAL = 1;
+    /**
+     * 垂直滑动模式
+     */
+    public static final int MODE_SCROLL_ONLY_VERTICAL = 2;
+    /**
+     * 自由滑动模式
+     */
+    public static final int MODE_SCROLL_FREE = 3;
+    /**
+     * 水平方向生成，自由滑动
+     */
+    public static final int MODE_SCROLL_FREE_HORIZONTAL = 4;
+    /**
+     * 垂直方向生成，自由滑动
+     */
+    public static final int MODE_SCROLL_FREE_VERTICAL = 5;
+    /**
+     * 禁止区域最多两个：与起始滑块相交的区域，以及开启避免过近时距离起始滑块过近的区域
+     */
+    private static final int MAX_FORBIDDEN = 2;
+    /**
+     * 禁止区域的左右边界把横向切成最多5段，每段最多上下两个矩形
+     */
+    private static final int MAX_CELLS = (MAX_FORBIDDEN * 2 + 1) * 2;
+
+    private final Random mRandom;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private int mPadding;
+    private int mScrollMode = MODE_SCROLL_FREE;
+    private int mMaxScrollDistance = Integer.MAX_VALUE;
+    private boolean isAvoidTooClose;
+    private boolean isRandomLocation = true;
+
+    /**
+     * 以下为自由模式取点时复用的数组，布局过程中不创建任何对象
+     */
+    private final float[] mForbiddenRangeX = new float[MAX_FORBIDDEN];
+    private final float[] mForbiddenRangeY = new float[MAX_FORBIDDEN];
+    private int mForbiddenCount;
+    private final float[] mBreaks = new float[MAX_FORBIDDEN * 2 + 2];
+    private final float[] mCells = new float[MAX_CELLS * 4];
+    private final float[] mCellWeights = new float[MAX_CELLS];
+    private int mCellCount;
+    private float mTotalWeight;
+
+    public PuzzleLayoutEngine() {
+        this(new Random());
+    }
+
+    /**
+     * @param random 随机数来源，传入固定种子的Random可以得到可重复的布局
+     */
+    public PuzzleLayoutEngine(Random random) {
+        mRandom = random;
+    }
+
+    public void setBlockSize(int blockWidth, int blockHeight) {
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+    }
+
+    /**
+     * 设置滑块距离背景边缘的最小距离
+     *
+     * @param padding 像素
+     */
+    public void setPadding(int padding) {
+        mPadding = padding;
+    }
+
+    public void setScrollMode(int scrollMode) {
+        mScrollMode = scrollMode;
+    }
+
+    /**
+     * 设置水平和垂直模式下理论的最大滑动距离
+     *
+     * @param maxScrollDistance 像素
+     */
+    public void setMaxScrollDistance(int maxScrollDistance) {
+        mMaxScrollDistance = maxScrollDistance;
+    }
+
+    public void setAvoidTooClose(boolean avoidTooClose) {
+        isAvoidTooClose = avoidTooClose;
+    }
+
+    /**
+     * 设置是否随机生成起始滑块的位置。关闭后以传入的{@link PuzzleLayout}中的起始位置为基准
+     *
+     * @param randomLocation
+     */
+    public void setRandomLocation(boolean randomLocation) {
+        isRandomLocation = randomLocation;
+    }
+
+    /**
+     * 生成布局
+     *
+     * @param totalWidth  背景宽度
+     * @param totalHeight 背景高度
+     * @param layout      布局结果，关闭随机位置时其中的起始位置作为输入
+     * @return false-滑块尺寸超过背景大小，此时layout不会被修改
+     */
+    public boolean layout(int totalWidth, int totalHeight, PuzzleLayout layout) {
+        if (totalWidth < (mBlockWidth * 2 + mPadding * 2) || totalHeight < (mBlockHeight + mPadding * 2)) {
+            return false;
+        }
+        int validScrollDistance = totalWidth - mBlockWidth - mPadding * 2;
+        int scrollDistance = Math.min(mMaxScrollDistance, validScrollDistance);
+        switch (mScrollMode) {
+            case MODE_SCROLL_ONLY_HORIZONTAL:
+            case MODE_SCROLL_FREE_HORIZONTAL:
+                layoutHorizontal(totalWidth, totalHeight, scrollDistance, layout);
+                break;
+            case MODE_SCROLL_ONLY_VERTICAL:
+            case MODE_SCROLL_FREE_VERTICAL:
+                layoutVertical(totalWidth, totalHeight, scrollDistance, layout);
+                break;
+            case MODE_SCROLL_FREE:
+            default:
+                layoutFree(totalWidth, totalHeight, layout);
+                break;
+        }
+        float dx = layout.getStartX() - layout.getTargetX();
+        float dy = layout.getStartY() - layout.getTargetY();
+        layout.setRealScrollDistance((int) Math.sqrt(dx * dx + dy * dy));
+        return true;
+    }
+
+    /**
+     * 水平模式：目标滑块在起始滑块的右侧
+     */
+    private void layoutHorizontal(int totalWidth, int totalHeight, int scrollDistance, PuzzleLayout layout) {
+        int validStartXRangeStart = mPadding;
+        int validStartXRangeEnd = totalWidth - mBlockWidth * 2 - mPadding;
+        int validStartYRangeStart = mPadding;
+        int validStartYRangeEnd = totalHeight - mBlockHeight - mPadding;
+        float startX;
+        float startY;
+        if (isRandomLocation) {
+            startX = mRandom.nextFloat() * validStartXRangeEnd;
+            startY = mRandom.nextFloat() * validStartYRangeEnd;
+        } else {
+            startX = Math.min(layout.getStartX(), validStartXRangeEnd);
+            startY = Math.min(layout.getStartY(), validStartYRangeEnd);
+        }
+        if (isAvoidTooClose) {
+            int suitableDistance = (totalWidth - mBlockWidth * 2 - mPadding * 2) / 5;
+            if (totalWidth - (startX + mBlockWidth) <= mBlockWidth + mPadding + suitableDistance) {
+                startX = totalWidth - (mBlockWidth + mPadding + suitableDistance) - mBlockWidth;
+            }
+        }
+        startX = Math.max(startX, validStartXRangeStart);
+        startY = Math.max(startY, validStartYRangeStart);
+        //横轴方向确定目标滑块没有超出范围，纵轴方向无需修改
+        int validTargetRangeEnd = totalWidth - mBlockWidth - mPadding;
+        layout.setStart(startX, startY);
+        layout.setTarget(Math.min(startX + scrollDistance + mBlockWidth, validTargetRangeEnd), startY);
+    }
+
+    /**
+     * 垂直模式：目标滑块在起始滑块的下方
+     */
+    private void layoutVertical(int totalWidth, int totalHeight, int scrollDistance, PuzzleLayout layout) {
+        int validStartXRangeStart = mPadding;
+        int validStartXRangeEnd = totalWidth - mBlockWidth - mPadding;
+        int validStartYRangeStart = mPadding;
+        int validStartYRangeEnd = totalHeight - mBlockHeight * 2 - mPadding;
+        float startX;
+        float startY;
+        if (isRandomLocation) {
+            startX = mRandom.nextFloat() * validStartXRangeEnd;
+            startY = mRandom.nextFloat() * validStartYRangeEnd;
+        } else {
+            startX = Math.min(layout.getStartX(), validStartXRangeEnd);
+            startY = Math.min(layout.getStartY(), validStartYRangeEnd);
+        }
+        if (isAvoidTooClose) {
+            int suitableDistance = (totalHeight - mBlockHeight * 2 - mPadding * 2) / 5;
+            if (totalHeight - (startY + mBlockHeight) <= mBlockHeight + mPadding + suitableDistance) {
+                startY = totalHeight - (mBlockHeight + mPadding + suitableDistance) - mBlockHeight;
+            }
+        }
+        startX = Math.max(startX, validStartXRangeStart);
+        startY = Math.max(startY, validStartYRangeStart);
+        //纵轴方向确定目标滑块没有超出范围，横轴方向无需修改
+        int validTargetRangeEnd = totalHeight - mBlockHeight - mPadding;
+        layout.setStart(startX, startY);
+        layout.setTarget(startX, Math.min(startY + scrollDistance + mBlockHeight, validTargetRangeEnd));
+    }
+
+    /**
+     * 自由模式：目标滑块在任意不与起始滑块相交(开启避免过近时还要足够远)的位置
+     */
+    private void layoutFree(int totalWidth, int totalHeight, PuzzleLayout layout) {
+        int xStart = mPadding;
+        int xEnd = totalWidth - mBlockWidth - mPadding;
+        int yStart = mPadding;
+        int yEnd = totalHeight - mBlockHeight - mPadding;
+        float startX;
+        float startY;
+        if (isRandomLocation) {
+            startX = mRandom.nextFloat() * xEnd;
+            startY = mRandom.nextFloat() * yEnd;
+        } else {
+            startX = Math.min(layout.getStartX(), xEnd);
+            startY = Math.min(layout.getStartY(), yEnd);
+        }
+        startX = Math.max(startX, xStart);
+        startY = Math.max(startY, yStart);
+        layout.setStart(startX, startY);
+
+        //两个滑块尺寸相同，左上角坐标的差值就是中心点的差值，相交即|dx|<滑块宽且|dy|<滑块高
+        mForbiddenCount = 0;
+        addForbidden(mBlockWidth, mBlockHeight);
+        if (isAvoidTooClose) {
+            addForbidden(totalWidth / 5, totalHeight / 5);
+        }
+        if (!buildCells(xStart, xEnd, yStart, yEnd, startX, startY) && isAvoidTooClose) {
+            //背景太小无法满足避免过近的要求，退一步只保证不相交
+            mForbiddenCount = 0;
+            addForbidden(mBlockWidth, mBlockHeight);
+            buildCells(xStart, xEnd, yStart, yEnd, startX, startY);
+        }
+        if (mCellCount == 0) {
+            //连不相交都无法满足，取离起始滑块最远的角落
+            float targetX = startX - xStart > xEnd - startX ? xStart : xEnd;
+            float targetY = startY - yStart > yEnd - startY ? yStart : yEnd;
+            layout.setTarget(targetX, targetY);
+            return;
+        }
+        float r = mRandom.nextFloat() * mTotalWeight;
+        int cell = 0;
+        while (cell < mCellCount - 1 && r >= mCellWeights[cell]) {
+            r -= mCellWeights[cell];
+            cell++;
+        }
+        int offset = cell * 4;
+        float x0 = mCells[offset];
+        float x1 = mCells[offset + 1];
+        float y0 = mCells[offset + 2];
+        float y1 = mCells[offset + 3];
+        layout.setTarget(x0 + mRandom.nextFloat() * (x1 - x0), y0 + mRandom.nextFloat() * (y1 - y0));
+    }
+
+    /**
+     * 添加一个以起始滑块为中心的禁止区域：|dx|&lt;rangeX且|dy|&lt;rangeY
+     */
+    private void addForbidden(float rangeX, float rangeY) {
+        mForbiddenRangeX[mForbiddenCount] = rangeX;
+        mForbiddenRangeY[mForbiddenCount] = rangeY;
+        mForbiddenCount++;
+    }
+
+    /**
+     * 把[xStart,xEnd]x[yStart,yEnd]中去掉禁止区域后的部分切分成矩形
+     *
+     * @return true-存在可用的区域
+     */
+    private boolean buildCells(int xStart, int xEnd, int yStart, int yEnd, float startX, float startY) {
+        int breakCount = 0;
+        mBreaks[breakCount++] = xStart;
+        mBreaks[breakCount++] = xEnd;
+        for (int i = 0; i < mForbiddenCount; i++) {
+            float left = startX - mForbiddenRangeX[i];
+            float right = startX + mForbiddenRangeX[i];
+            if (left > xStart && left < xEnd) {
+                mBreaks[breakCount++] = left;
+            }
+            if (right > xStart && right < xEnd) {
+                mBreaks[breakCount++] = right;
+            }
+        }
+        //最多6个数，插入排序即可
+        for (int i = 1; i < breakCount; i++) {
+            float value = mBreaks[i];
+            int j = i - 1;
+            while (j >= 0 && mBreaks[j] > value) {
+                mBreaks[j + 1] = mBreaks[j];
+                j--;
+            }
+            mBreaks[j + 1] = value;
+        }
+        mCellCount = 0;
+        mTotalWeight = 0;
+        for (int i = 0; i < breakCount - 1; i++) {
+            float x0 = mBreaks[i];
+            float x1 = mBreaks[i + 1];
+            if (x1 <= x0) {
+                continue;
+            }
+            //同一段内被覆盖的禁止区域相同，取其中纵向范围最大的
+            float middle = (x0 + x1) / 2;
+            float rangeY = 0;
+            for (int j = 0; j < mForbiddenCount; j++) {
+                if (Math.abs(middle - startX) < mForbiddenRangeX[j]) {
+                    rangeY = Math.max(rangeY, mForbiddenRangeY[j]);
+                }
+            }
+            if (rangeY == 0) {
+                addCell(x0, x1, yStart, yEnd);
+            } else {
+                addCell(x0, x1, yStart, Math.min(yEnd, startY - rangeY));
+                addCell(x0, x1, Math.max(yStart, startY + rangeY), yEnd);
+            }
+        }
+        return mCellCount > 0;
+    }
+
+    private void addCell(float x0, float x1, float y0, float y1) {
+        if (y1 < y0) {
+            return;
+        }
+        int offset = mCellCount * 4;
+        mCells[offset] = x0;
+        mCells[offset + 1] = x1;
+        mCells[offset + 2] = y0;
+        mCells[offset + 3] = y1;
+        //按像素数加权，边长加一使高度恰好等于一行时也有权重
+        mCellWeights[mCellCount] = (x1 - x0 + 1) * (y1 - y0 + 1);
+        mTotalWeight += mCellWeights[mCellCount];
+        mCellCount++;
+    }
+}
@@ -0,0 +1,162 @@
+package com.cjs.widgets.scrollverifyengine;
+
+/**
+ * 描述:触摸采样的单生产者单消费者无锁队列
+ * <p>
+ * 用于把主线程收到的触摸采样交给绘制线程。采样保存在预先分配的几个数组中，写入和读取都不创建对象，也不加锁：
+ * 写入方先写数组元素，再更新volatile的写入序号发布采样；读取方先读写入序号，再读数组元素，读完后更新volatile的读取序号归还空间。
+ * 两个序号只增不减，各自只由一方修改，因此不需要CAS。
+ * <p>
+ * 队列满时丢弃可丢弃的采样(通常是移动)，并且为不可丢弃的采样(按下、抬起、取消)预留一部分空间，
+ * 绘制线程短暂阻塞时移动采样会先被丢弃，一次拖拽的开始和结束不会丢失。
+ * <p>
+ * 只能有一个线程调用{@link #offer(int, float, float, long, boolean)}，一个线程调用{@link #poll()}和读取当前采样的方法。
+ * <p>
+ * 创建时间:2026年10月19日 01:20
+ *
+ * @version 1.0
+ */
+public final class TouchHandoff {
+    /**
+     * 默认容量
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * 默认为不可丢弃的采样预留的空间
+     */
+    public static final int DEFAULT_RESERVED = 8;
+
+    private final int mMask;
+    private final int mReserved;
+    private final int[] mActions;
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mTimes;
+    /**
+     * 下一个写入位置的序号，只由写入方修改
+     */
+    private volatile long mWriteIndex;
+    /**
+     * 下一个读取位置的序号，只由读取方修改
+     */
+    private volatile long mReadIndex;
+    /**
+     * 因为队列满而丢弃的采样数，只由写入方修改
+     */
+    private volatile int mDroppedCount;
+    /**
+     * 读取方最近一次{@link #poll()}取出的采样
+     */
+    private int mAction;
+    private float mX;
+    private float mY;
+    private long mTime;
+
+    public TouchHandoff() {
+        this(DEFAULT_CAPACITY, DEFAULT_RESERVED);
+    }
+
+    /**
+     * @param capacity 容量，必须是2的整数次幂
+     * @param reserved 为不可丢弃的采样预留的空间，取值[0, capacity)
+     */
+    public TouchHandoff(int capacity, int reserved) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("容量必须是2的整数次幂");
+        }
+        if (reserved < 0 || reserved >= capacity) {
+            throw new IllegalArgumentException("预留空间必须在[0, capacity)之间");
+        }
+        mMask = capacity - 1;
+        mReserved = reserved;
+        mActions = new int[capacity];
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mTimes = new long[capacity];
+    }
+
+    /**
+     * 写入一个采样，只能在写入线程调用
+     *
+     * @param action    动作，含义由调用方定义
+     * @param x         横坐标
+     * @param y         纵坐标
+     * @param time      采样时间
+     * @param droppable 是否可以丢弃。可丢弃的采样不会占用预留空间
+     * @return false-队列已满，采样被丢弃
+     */
+    public boolean offer(int action, float x, float y, long time, boolean droppable) {
+        long writeIndex = mWriteIndex;
+        long free = mActions.length - (writeIndex - mReadIndex);
+        if (free <= 0 || (droppable && free <= mReserved)) {
+            mDroppedCount++;
+            return false;
+        }
+        int slot = (int) (writeIndex & mMask);
+        mActions[slot] = action;
+        mXs[slot] = x;
+        mYs[slot] = y;
+        mTimes[slot] = time;
+        //volatile写入保证读取方看到新序号时一定能看到上面写入的数组元素
+        mWriteIndex = writeIndex + 1;
+        return true;
+    }
+
+    /**
+     * 取出最早的一个采样，之后通过{@link #getAction()}等方法读取，只能在读取线程调用
+     *
+     * @return false-队列为空
+     */
+    public boolean poll() {
+        long readIndex = mReadIndex;
+        if (readIndex == mWriteIndex) {
+            return false;
+        }
+        int slot = (int) (readIndex & mMask);
+        mAction = mActions[slot];
+        mX = mXs[slot];
+        mY = mYs[slot];
+        mTime = mTimes[slot];
+        //元素读完后才归还空间，写入方不会覆盖正在读取的元素
+        mReadIndex = readIndex + 1;
+        return true;
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * 队列中的采样数，另一方同时在读写时只是一个近似值
+     *
+     * @return
+     */
+    public int size() {
+        return (int) (mWriteIndex - mReadIndex);
+    }
+
+    public int getCapacity() {
+        return mActions.length;
+    }
+
+    /**
+     * 因为队列满而丢弃的采样总数
+     *
+     * @return
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+}
@@ -0,0 +1,171 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 描述:拖拽轨迹的流式解码
+ * <p>
+ * 解码{@link TrajectoryEncoder}的输出。{@link #reset(ByteBuffer)}读取头部之后，每调用一次{@link #next()}
+ * 解出一个采样，不需要把整条轨迹解码到内存中，过程中不创建任何对象，一个实例可以反复解码多条轨迹。
+ * 该类不是线程安全的。
+ * <p>
+ * 创建时间:2026年10月18日 20:10
+ *
+ * @version 1.0
+ */
+public final class TrajectoryDecoder {
+    private ByteBuffer mIn;
+    private int mScale;
+    private int mScrollMode;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private float mStartX;
+    private float mStartY;
+    private float mTargetX;
+    private float mTargetY;
+    private int mDroppedCount;
+    private int mSampleCount;
+    /**
+     * 已经解出的采样数
+     */
+    private int mIndex;
+    private int mX;
+    private int mY;
+    private long mTime;
+
+    /**
+     * 从缓冲区当前位置读取头部，之后用{@link #next()}逐个读取采样
+     *
+     * @param in 输入缓冲区
+     * @throws IllegalArgumentException 数据不是轨迹编码或者版本不支持
+     * @throws BufferUnderflowException 数据不完整
+     */
+    public void reset(ByteBuffer in) {
+        if (in.get() != TrajectoryEncoder.MAGIC) {
+            throw new IllegalArgumentException("不是拖拽轨迹数据");
+        }
+        byte version = in.get();
+        if (version != TrajectoryEncoder.VERSION) {
+            throw new IllegalArgumentException("不支持的轨迹版本:" + version);
+        }
+        int scale = in.get();
+        if (scale < 1) {
+            throw new IllegalArgumentException("量化倍数错误:" + scale);
+        }
+        mIn = in;
+        mScale = scale;
+        mScrollMode = VarInts.readUnsignedInt(in);
+        mBlockWidth = VarInts.readUnsignedInt(in);
+        mBlockHeight = VarInts.readUnsignedInt(in);
+        mStartX = dequantize(VarInts.readSignedInt(in));
+        mStartY = dequantize(VarInts.readSignedInt(in));
+        mTargetX = dequantize(VarInts.readSignedInt(in));
+        mTargetY = dequantize(VarInts.readSignedInt(in));
+        mDroppedCount = VarInts.readUnsignedInt(in);
+        mSampleCount = VarInts.readUnsignedInt(in);
+        mTime = VarInts.readUnsigned(in);
+        mIndex = 0;
+        mX = 0;
+        mY = 0;
+    }
+
+    /**
+     * 解出下一个采样
+     *
+     * @return 已经没有采样时返回false
+     * @throws BufferUnderflowException 数据不完整
+     */
+    public boolean next() {
+        if (mIndex >= mSampleCount) {
+            return false;
+        }
+        mX += VarInts.readSignedInt(mIn);
+        mY += VarInts.readSignedInt(mIn);
+        mTime += VarInts.readSigned(mIn);
+        mIndex++;
+        return true;
+    }
+
+    /**
+     * 解出剩下的全部采样并追加到轨迹中
+     *
+     * @param trajectory
+     */
+    public void decodeInto(DragTrajectory trajectory) {
+        while (next()) {
+            trajectory.add(getX(), getY(), getEventTime());
+        }
+    }
+
+    /**
+     * 当前采样的横坐标
+     */
+    public float getX() {
+        return dequantize(mX);
+    }
+
+    /**
+     * 当前采样的纵坐标
+     */
+    public float getY() {
+        return dequantize(mY);
+    }
+
+    /**
+     * 当前采样的事件时间(毫秒)
+     */
+    public long getEventTime() {
+        return mTime;
+    }
+
+    public int getScale() {
+        return mScale;
+    }
+
+    public int getScrollMode() {
+        return mScrollMode;
+    }
+
+    public int getBlockWidth() {
+        return mBlockWidth;
+    }
+
+    public int getBlockHeight() {
+        return mBlockHeight;
+    }
+
+    public float getStartX() {
+        return mStartX;
+    }
+
+    public float getStartY() {
+        return mStartY;
+    }
+
+    public float getTargetX() {
+        return mTargetX;
+    }
+
+    public float getTargetY() {
+        return mTargetY;
+    }
+
+    /**
+     * 编码前因为超出轨迹容量被覆盖的采样数
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * 轨迹中的采样总数
+     */
+    public int getSampleCount() {
+        return mSampleCount;
+    }
+
+    private float dequantize(int value) {
+        return value / (float) mScale;
+    }
+}
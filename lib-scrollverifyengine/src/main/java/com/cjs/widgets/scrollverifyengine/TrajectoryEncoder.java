@@ -0,0 +1,165 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 描述:拖拽轨迹的紧凑二进制编码
+ * <p>
+ * 用于把一次拖拽上传给服务端。格式为一个小的头部加上逐个采样的增量：
+ * <pre>
+ * 头部: 魔数(1字节) 版本(1字节) 量化倍数(1字节)
+ *       滑动模式 滑块宽 滑块高 (无符号变长整数)
+ *       起始滑块x y 目标滑块x y (量化后的有符号变长整数)
+ *       被覆盖的采样数 采样数 首个采样的时间 (无符号变长整数)
+ * 采样: 与上一个采样的x差 y差 时间差 (量化后的有符号变长整数)
+ * </pre>
+ * 坐标乘以量化倍数后取整，默认精度为1/4像素。相邻采样之间的位移通常只有几个像素，
+ * 每个采样一般只占3到5个字节，而直接写float和long需要16个字节。
+ * <p>
+ * 编码直接写入调用方提供的{@link ByteBuffer}，过程中不创建任何对象，配置好之后可以反复使用。该类不是线程安全的。
+ * <p>
+ * 创建时间:2026年10月18日 20:10
+ *
+ * @version 1.0
+ */
+public final class TrajectoryEncoder {
+    static final byte MAGIC = 0x53;
+    static final byte VERSION = 1;
+    /**
+     * 默认量化倍数，坐标精度为1/4像素
+     */
+    public static final int DEFAULT_SCALE = 4;
+    /**
+     * 头部最多占用的字节数
+     */
+    public static final int MAX_HEADER_SIZE = 3 + VarInts.MAX_INT_BYTES * 9 + VarInts.MAX_LONG_BYTES;
+    /**
+     * 每个采样最多占用的字节数
+     */
+    public static final int MAX_SAMPLE_SIZE = VarInts.MAX_INT_BYTES * 2 + VarInts.MAX_LONG_BYTES;
+
+    private int mScale = DEFAULT_SCALE;
+    private int mScrollMode = PuzzleLayoutEngine.MODE_SCROLL_FREE;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private float mStartX;
+    private float mStartY;
+    private float mTargetX;
+    private float mTargetY;
+
+    /**
+     * 计算编码指定数量的采样最多需要的字节数，可以用来分配缓冲区
+     *
+     * @param sampleCount 采样数
+     * @return
+     */
+    public static int getMaxEncodedSize(int sampleCount) {
+        return MAX_HEADER_SIZE + MAX_SAMPLE_SIZE * sampleCount;
+    }
+
+    public int getScale() {
+        return mScale;
+    }
+
+    /**
+     * 设置量化倍数，坐标乘以该值后取整。越大越精确，编码结果也越大
+     *
+     * @param scale 1到127
+     */
+    public void setScale(int scale) {
+        if (scale < 1 || scale > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("量化倍数必须在1到127之间");
+        }
+        mScale = scale;
+    }
+
+    public void setScrollMode(int scrollMode) {
+        mScrollMode = scrollMode;
+    }
+
+    public void setBlockSize(int blockWidth, int blockHeight) {
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+    }
+
+    /**
+     * 设置起始滑块左上角坐标
+     */
+    public void setStart(float x, float y) {
+        mStartX = x;
+        mStartY = y;
+    }
+
+    /**
+     * 设置目标滑块左上角坐标
+     */
+    public void setTarget(float x, float y) {
+        mTargetX = x;
+        mTargetY = y;
+    }
+
+    /**
+     * 从布局结果中读取起始滑块和目标滑块的位置
+     *
+     * @param layout
+     */
+    public void setLayout(PuzzleLayout layout) {
+        setStart(layout.getStartX(), layout.getStartY());
+        setTarget(layout.getTargetX(), layout.getTargetY());
+    }
+
+    /**
+     * 把轨迹编码到缓冲区当前位置，编码完成后缓冲区的位置移动到数据末尾
+     *
+     * @param trajectory 轨迹
+     * @param out        输出缓冲区，剩余空间不少于{@link #getMaxEncodedSize(int)}时一定能写下
+     * @return 写入的字节数
+     * @throws BufferOverflowException 剩余空间不足，此时缓冲区的位置不变
+     */
+    public int encode(DragTrajectory trajectory, ByteBuffer out) {
+        int start = out.position();
+        try {
+            writeHeader(trajectory, out);
+            int size = trajectory.size();
+            int lastX = 0;
+            int lastY = 0;
+            long lastTime = size > 0 ? trajectory.getEventTime(0) : 0;
+            for (int i = 0; i < size; i++) {
+                int x = quantize(trajectory.getX(i));
+                int y = quantize(trajectory.getY(i));
+                long time = trajectory.getEventTime(i);
+                VarInts.writeSigned(out, x - lastX);
+                VarInts.writeSigned(out, y - lastY);
+                VarInts.writeSigned(out, time - lastTime);
+                lastX = x;
+                lastY = y;
+                lastTime = time;
+            }
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+        return out.position() - start;
+    }
+
+    private void writeHeader(DragTrajectory trajectory, ByteBuffer out) {
+        out.put(MAGIC);
+        out.put(VERSION);
+        out.put((byte) mScale);
+        VarInts.writeUnsigned(out, mScrollMode);
+        VarInts.writeUnsigned(out, mBlockWidth);
+        VarInts.writeUnsigned(out, mBlockHeight);
+        VarInts.writeSigned(out, quantize(mStartX));
+        VarInts.writeSigned(out, quantize(mStartY));
+        VarInts.writeSigned(out, quantize(mTargetX));
+        VarInts.writeSigned(out, quantize(mTargetY));
+        VarInts.writeUnsigned(out, trajectory.getDroppedCount());
+        VarInts.writeUnsigned(out, trajectory.size());
+        VarInts.writeUnsigned(out, trajectory.size() > 0 ? trajectory.getEventTime(0) : 0);
+    }
+
+    private int quantize(float value) {
+        return Math.round(value * mScale);
+    }
+}
@@ -0,0 +1,72 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 描述:变长整数的读写
+ * <p>
+ * 每个字节的低7位保存数据，最高位表示后面还有字节，小的数只占一个字节。有符号数先做zigzag变换，
+ * 让绝对值小的负数也只占很少的字节。
+ * <p>
+ * 创建时间:2026年10月18日 20:10
+ *
+ * @version 1.0
+ */
+final class VarInts {
+    /**
+     * 一个long最多占用的字节数
+     */
+    static final int MAX_LONG_BYTES = 10;
+    /**
+     * 一个int最多占用的字节数
+     */
+    static final int MAX_INT_BYTES = 5;
+
+    private VarInts() {
+    }
+
+    static void writeUnsigned(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void writeSigned(ByteBuffer out, long value) {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readUnsigned(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    static long readSigned(ByteBuffer in) {
+        long value = readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int readUnsignedInt(ByteBuffer in) {
+        long value = readUnsigned(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("数值超出范围:" + value);
+        }
+        return (int) value;
+    }
+
+    static int readSignedInt(ByteBuffer in) {
+        long value = readSigned(in);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("数值超出范围:" + value);
+        }
+        return (int) value;
+    }
+}
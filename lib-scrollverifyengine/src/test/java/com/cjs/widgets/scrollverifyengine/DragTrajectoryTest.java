@@ -0,0 +1,59 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link DragTrajectory}的本地单元测试
+ */
+public class DragTrajectoryTest {
+
+    @Test
+    public void keepsSamplesInOrder() {
+        DragTrajectory trajectory = new DragTrajectory(8);
+        for (int i = 0; i < 5; i++) {
+            trajectory.add(i, i * 2, 100 + i);
+        }
+        assertEquals(5, trajectory.size());
+        assertEquals(0, trajectory.getDroppedCount());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, trajectory.getX(i), 0f);
+            assertEquals(i * 2, trajectory.getY(i), 0f);
+            assertEquals(100 + i, trajectory.getEventTime(i));
+        }
+    }
+
+    @Test
+    public void overwritesOldestWhenFull() {
+        DragTrajectory trajectory = new DragTrajectory(4);
+        for (int i = 0; i < 10; i++) {
+            trajectory.add(i, 0, i);
+        }
+        assertEquals(4, trajectory.size());
+        assertEquals(6, trajectory.getDroppedCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, trajectory.getX(i), 0f);
+        }
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        DragTrajectory trajectory = new DragTrajectory(4);
+        for (int i = 0; i < 6; i++) {
+            trajectory.add(i, 0, i);
+        }
+        DragTrajectory copy = trajectory.copy();
+        trajectory.clear();
+        trajectory.add(99, 99, 99);
+        assertEquals(4, copy.size());
+        assertEquals(2, copy.getX(0), 0f);
+        assertEquals(5, copy.getX(3), 0f);
+        assertEquals(2, copy.getDroppedCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexOutOfRange() {
+        new DragTrajectory(4).getX(0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FrameDropDetector}的本地单元测试
+ */
+public class FrameDropDetectorTest {
+    private static final long INTERVAL = 16_666_666L;
+
+    @Test
+    public void smoothFramesNeverTrigger() {
+        FrameDropDetector detector = new FrameDropDetector(INTERVAL, 10, 0.25f);
+        long time = 0;
+        for (int i = 0; i <= 100; i++) {
+            //带一点时间戳抖动
+            assertFalse(detector.onFrame(time + (i % 2) * 500_000L));
+            time += INTERVAL;
+        }
+        assertEquals(10, detector.getLastExpectedFrames());
+        assertEquals(0, detector.getLastDroppedFrames());
+    }
+
+    @Test
+    public void sustainedDropsTriggerAtWindowEnd() {
+        FrameDropDetector detector = new FrameDropDetector(INTERVAL, 10, 0.25f);
+        long time = 0;
+        detector.onFrame(time);
+        boolean isTriggered = false;
+        //每一帧都跨过两个周期，掉帧比例为一半
+        for (int i = 0; i < 5; i++) {
+            time += INTERVAL * 2;
+            isTriggered = detector.onFrame(time);
+        }
+        assertTrue(isTriggered);
+        assertEquals(10, detector.getLastExpectedFrames());
+        assertEquals(5, detector.getLastDroppedFrames());
+    }
+
+    @Test
+    public void resetStartsFromNextFrame() {
+        FrameDropDetector detector = new FrameDropDetector(INTERVAL, 10, 0.25f);
+        detector.onFrame(0);
+        detector.onFrame(INTERVAL * 3);
+        detector.reset();
+        //重置后第一帧只作为起点，和重置前相隔很久也不算掉帧
+        assertFalse(detector.onFrame(INTERVAL * 1000));
+        long time = INTERVAL * 1000;
+        for (int i = 0; i < 10; i++) {
+            time += INTERVAL;
+            assertFalse(detector.onFrame(time));
+        }
+        assertEquals(0, detector.getLastDroppedFrames());
+    }
+}
@@ -0,0 +1,74 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FrameTimeHistogram}的本地单元测试
+ */
+public class FrameTimeHistogramTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void percentilesUseBucketUpperBound() {
+        FrameTimeHistogram histogram = new FrameTimeHistogram();
+        histogram.reset(17 * MS);
+        //90帧8ms，9帧20ms，1帧40ms
+        for (int i = 0; i < 90; i++) {
+            histogram.recordFrame(8 * MS + 100_000L);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.recordFrame(20 * MS + 100_000L);
+        }
+        histogram.recordFrame(40 * MS + 100_000L);
+        FrameStats stats = histogram.summarize();
+        assertEquals(100, stats.getFrameCount());
+        assertEquals(10, stats.getJankCount());
+        assertEquals(8 * MS + 500_000L, stats.getP50Nanos());
+        assertEquals(8 * MS + 500_000L, stats.getP90Nanos());
+        assertEquals(20 * MS + 500_000L, stats.getP99Nanos());
+        assertEquals(40 * MS + 100_000L, stats.getMaxNanos());
+    }
+
+    @Test
+    public void overflowReportsLongestFrame() {
+        FrameTimeHistogram histogram = new FrameTimeHistogram(MS, 10);
+        histogram.reset(16 * MS);
+        histogram.recordFrame(5 * MS);
+        histogram.recordFrame(250 * MS);
+        assertEquals(250 * MS, histogram.getPercentileNanos(99));
+        assertEquals(6 * MS, histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    public void droppedFramesCountAsSlowestJank() {
+        FrameTimeHistogram histogram = new FrameTimeHistogram();
+        histogram.reset(17 * MS);
+        for (int i = 0; i < 8; i++) {
+            histogram.recordFrame(8 * MS + 100_000L);
+        }
+        histogram.recordFrame(30 * MS);
+        histogram.recordDroppedFrames(0);
+        histogram.recordDroppedFrames(1);
+        FrameStats stats = histogram.summarize();
+        assertEquals(10, stats.getFrameCount());
+        assertEquals(2, stats.getJankCount());
+        assertEquals(8 * MS + 500_000L, stats.getP50Nanos());
+        assertEquals(30 * MS, stats.getP99Nanos());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        FrameTimeHistogram histogram = new FrameTimeHistogram();
+        histogram.reset(16 * MS);
+        histogram.recordFrame(30 * MS);
+        histogram.recordDraw(2 * MS);
+        histogram.reset(16 * MS);
+        assertEquals(0, histogram.getFrameCount());
+        assertEquals(0, histogram.getJankCount());
+        assertEquals(0, histogram.getDrawCount());
+        assertEquals(0, histogram.getDrawNanos());
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+}
@@ -0,0 +1,57 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ImageSampling}的本地单元测试
+ */
+public class ImageSamplingTest {
+
+    @Test
+    public void sampleSizeKeepsDecodedSizeAtLeastRequested() {
+        assertEquals(1, ImageSampling.calculateInSampleSize(600, 400, 600, 400));
+        assertEquals(1, ImageSampling.calculateInSampleSize(1199, 800, 600, 400));
+        assertEquals(2, ImageSampling.calculateInSampleSize(1200, 800, 600, 400));
+        assertEquals(4, ImageSampling.calculateInSampleSize(4000, 3000, 600, 400));
+        //较小的一边决定缩小倍数
+        assertEquals(2, ImageSampling.calculateInSampleSize(4000, 800, 600, 400));
+    }
+
+    @Test
+    public void sourceSmallerThanViewIsNotSampled() {
+        assertEquals(1, ImageSampling.calculateInSampleSize(100, 100, 600, 400));
+    }
+
+    @Test
+    public void wideSourceIsCroppedLeftAndRight() {
+        int[] region = new int[4];
+        assertTrue(ImageSampling.getCenterCropRegion(4000, 1000, 600, 300, region));
+        assertArrayEquals(new int[]{1000, 0, 3000, 1000}, region);
+    }
+
+    @Test
+    public void tallSourceIsCroppedTopAndBottom() {
+        int[] region = new int[4];
+        assertTrue(ImageSampling.getCenterCropRegion(1000, 3000, 600, 300, region));
+        assertArrayEquals(new int[]{0, 1250, 1000, 1750}, region);
+    }
+
+    @Test
+    public void sameRatioIsNotCropped() {
+        int[] region = {-1, -1, -1, -1};
+        assertFalse(ImageSampling.getCenterCropRegion(1200, 600, 600, 300, region));
+        assertArrayEquals(new int[]{-1, -1, -1, -1}, region);
+    }
+
+    @Test
+    public void largeSizesDoNotOverflow() {
+        int[] region = new int[4];
+        assertTrue(ImageSampling.getCenterCropRegion(60000, 40000, 50000, 40000, region));
+        assertArrayEquals(new int[]{5000, 0, 55000, 40000}, region);
+    }
+}
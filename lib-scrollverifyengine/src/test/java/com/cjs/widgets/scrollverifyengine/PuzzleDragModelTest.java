@@ -0,0 +1,144 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PuzzleDragModel}的本地单元测试，重点保证拖拽过程中不产生任何内存分配
+ */
+public class PuzzleDragModelTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 540;
+    private static final int PADDING = 15;
+    private static final int BLOCK = 120;
+    private static final int SHORT_DRAG_EVENTS = 20000;
+    /**
+     * 与事件数无关的测量噪声的容差。180000个多出来的事件每个哪怕分配16字节也有近3MB
+     */
+    private static final long ALLOCATION_SLACK_BYTES = 1024;
+
+    private PuzzleDragModel model;
+
+    @Before
+    public void setUp() {
+        model = new PuzzleDragModel();
+        model.setBounds(WIDTH, HEIGHT, PADDING);
+        model.setBlockSize(BLOCK, BLOCK);
+        model.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        model.setBlockPosition(PADDING, PADDING);
+    }
+
+    @Test
+    public void move_staysInsideBounds() {
+        model.onDown(PADDING + 10, PADDING + 10);
+        float x = PADDING + 10;
+        for (int i = 0; i < 100; i++) {
+            x += 50;
+            model.onMove(x, PADDING + 10);
+        }
+        assertEquals(WIDTH - PADDING - BLOCK, model.getBlockX(), 0f);
+        assertEquals(PADDING, model.getBlockY(), 0f);
+    }
+
+    @Test
+    public void move_againstEdgeReportsNoChange() {
+        model.onDown(PADDING + 10, PADDING + 10);
+        assertFalse(model.onMove(PADDING - 20, PADDING - 20));
+        assertEquals(PADDING, model.getBlockX(), 0f);
+        assertEquals(PADDING, model.getBlockY(), 0f);
+    }
+
+    @Test
+    public void move_outsideBlockIsIgnored() {
+        model.onDown(WIDTH - 1, HEIGHT - 1);
+        assertFalse(model.onMove(WIDTH - 20, HEIGHT - 20));
+        assertEquals(PADDING, model.getBlockX(), 0f);
+    }
+
+    @Test
+    public void onlyHorizontal_ignoresVerticalDelta() {
+        model.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL);
+        model.onDown(PADDING + 10, PADDING + 10);
+        assertTrue(model.onMove(PADDING + 40, PADDING + 50));
+        assertEquals(PADDING + 30, model.getBlockX(), 0f);
+        assertEquals(PADDING, model.getBlockY(), 0f);
+    }
+
+    @Test
+    public void verify_usesValidOffset() {
+        model.setBlockPosition(300, 200);
+        assertTrue(model.verify(300, 200, 1));
+        //沿用最初版本的算法，距离按一半计算，实际容差是2倍的validOffset
+        assertTrue(model.verify(302, 200, 1));
+        assertFalse(model.verify(303, 200, 1));
+    }
+
+    @Test
+    public void longDrag_allocatesNothing() throws Exception {
+        Method allocatedBytes = allocatedBytesMethod();
+        Object threadMXBean = threadMXBean();
+        long threadId = Thread.currentThread().getId();
+        //预热，排除类加载和JIT编译带来的分配
+        for (int i = 0; i < 20; i++) {
+            drag(10000);
+        }
+        //分配计数里混有JIT、TLAB等与事件数无关的噪声，不能要求精确相等；
+        //比较N次和10N次事件的分配量，每个事件哪怕只分配一个对象，差值也会远超容差
+        long shortDrag = measure(allocatedBytes, threadMXBean, threadId, SHORT_DRAG_EVENTS);
+        long longDrag = measure(allocatedBytes, threadMXBean, threadId, SHORT_DRAG_EVENTS * 10);
+        assertTrue("拖拽过程中产生了内存分配: " + shortDrag + " -> " + longDrag,
+                longDrag - shortDrag <= ALLOCATION_SLACK_BYTES);
+    }
+
+    /**
+     * 多测几次取最小值，过滤偶发的后台分配
+     */
+    private long measure(Method allocatedBytes, Object threadMXBean, long threadId, int events) throws Exception {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long before = (Long) allocatedBytes.invoke(threadMXBean, threadId);
+            drag(events);
+            long after = (Long) allocatedBytes.invoke(threadMXBean, threadId);
+            min = Math.min(min, after - before);
+        }
+        return min;
+    }
+
+    /**
+     * 模拟一次完整的拖拽：按下、来回移动若干次、抬起并验证
+     */
+    private void drag(int events) {
+        model.setBlockPosition(PADDING, PADDING);
+        float x = PADDING + 10;
+        float y = PADDING + 10;
+        model.onDown(x, y);
+        for (int i = 0; i < events; i++) {
+            //超出边界后往回拖，覆盖边界限制的分支
+            float step = (i / 200) % 2 == 0 ? 7.5f : -7.5f;
+            x += step;
+            y += step / 3;
+            model.onMove(x, y);
+            x = model.getBlockX() + 10;
+            y = model.getBlockY() + 10;
+        }
+        model.onUp(x, y);
+        model.verify(WIDTH / 2, HEIGHT / 2, 3);
+    }
+
+    /**
+     * 通过反射获取当前线程的内存分配计数，com.sun.management不是所有JVM都有
+     */
+    private static Object threadMXBean() throws Exception {
+        return Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+    }
+
+    private static Method allocatedBytesMethod() throws Exception {
+        return Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PuzzleLayoutEngine}的本地单元测试
+ */
+public class PuzzleLayoutEngineTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 540;
+    private static final int PADDING = 15;
+    private static final int BLOCK = 120;
+    private static final int ROUNDS = 10000;
+
+    private PuzzleLayoutEngine engine;
+    private PuzzleLayout layout;
+
+    @Before
+    public void setUp() {
+        engine = new PuzzleLayoutEngine(new Random(20261018L));
+        engine.setBlockSize(BLOCK, BLOCK);
+        engine.setPadding(PADDING);
+        layout = new PuzzleLayout();
+    }
+
+    @Test
+    public void allModes_stayInsideBounds() {
+        int[] modes = {
+                PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL,
+                PuzzleLayoutEngine.MODE_SCROLL_ONLY_VERTICAL,
+                PuzzleLayoutEngine.MODE_SCROLL_FREE,
+                PuzzleLayoutEngine.MODE_SCROLL_FREE_HORIZONTAL,
+                PuzzleLayoutEngine.MODE_SCROLL_FREE_VERTICAL};
+        for (int mode : modes) {
+            engine.setScrollMode(mode);
+            for (int i = 0; i < ROUNDS; i++) {
+                engine.setAvoidTooClose(i % 2 == 0);
+                assertTrue(engine.layout(WIDTH, HEIGHT, layout));
+                assertInside(layout.getStartX(), layout.getStartY());
+                assertInside(layout.getTargetX(), layout.getTargetY());
+            }
+        }
+    }
+
+    @Test
+    public void horizontal_keepsSameRow() {
+        engine.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL);
+        for (int i = 0; i < ROUNDS; i++) {
+            engine.layout(WIDTH, HEIGHT, layout);
+            assertEquals(layout.getStartY(), layout.getTargetY(), 0f);
+            assertTrue(layout.getTargetX() > layout.getStartX());
+        }
+    }
+
+    @Test
+    public void free_neverOverlaps() {
+        engine.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        for (int i = 0; i < ROUNDS; i++) {
+            engine.layout(WIDTH, HEIGHT, layout);
+            float dx = Math.abs(layout.getTargetX() - layout.getStartX());
+            float dy = Math.abs(layout.getTargetY() - layout.getStartY());
+            assertTrue(dx >= BLOCK || dy >= BLOCK);
+        }
+    }
+
+    @Test
+    public void free_avoidTooClose() {
+        engine.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        engine.setAvoidTooClose(true);
+        for (int i = 0; i < ROUNDS; i++) {
+            engine.layout(WIDTH, HEIGHT, layout);
+            float dx = Math.abs(layout.getTargetX() - layout.getStartX());
+            float dy = Math.abs(layout.getTargetY() - layout.getStartY());
+            assertTrue(dx >= BLOCK || dy >= BLOCK);
+            assertTrue(dx >= WIDTH / 5 || dy >= HEIGHT / 5);
+        }
+    }
+
+    @Test
+    public void free_narrowViewFinishes() {
+        //起始滑块在中间时左右都放不下目标滑块，旧的随机重试在这里会一直循环
+        engine.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        engine.setAvoidTooClose(true);
+        engine.setRandomLocation(false);
+        int width = BLOCK * 2 + PADDING * 2;
+        int height = BLOCK + PADDING * 2;
+        layout.setStart(PADDING + BLOCK / 2, PADDING);
+        assertTrue(engine.layout(width, height, layout));
+        assertInside(layout.getTargetX(), layout.getTargetY(), width, height);
+    }
+
+    @Test
+    public void fixedStart_isKept() {
+        engine.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_FREE);
+        engine.setRandomLocation(false);
+        layout.setStart(200, 100);
+        engine.layout(WIDTH, HEIGHT, layout);
+        assertEquals(200, layout.getStartX(), 0f);
+        assertEquals(100, layout.getStartY(), 0f);
+    }
+
+    @Test
+    public void tooSmall_leavesLayoutUntouched() {
+        layout.setStart(1, 2);
+        layout.setTarget(3, 4);
+        assertFalse(engine.layout(BLOCK, BLOCK, layout));
+        assertEquals(1, layout.getStartX(), 0f);
+        assertEquals(3, layout.getTargetX(), 0f);
+    }
+
+    private void assertInside(float x, float y) {
+        assertInside(x, y, WIDTH, HEIGHT);
+    }
+
+    private void assertInside(float x, float y, int width, int height) {
+        assertTrue("x:" + x, x >= PADDING && x <= width - BLOCK - PADDING);
+        assertTrue("y:" + y, y >= PADDING && y <= height - BLOCK - PADDING);
+    }
+}
@@ -0,0 +1,82 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TouchHandoff}的本地单元测试
+ */
+public class TouchHandoffTest {
+
+    @Test
+    public void pollsInOfferOrder() {
+        TouchHandoff handoff = new TouchHandoff(4, 0);
+        assertTrue(handoff.offer(0, 1f, 2f, 10L, false));
+        assertTrue(handoff.offer(2, 3f, 4f, 20L, true));
+        assertTrue(handoff.poll());
+        assertEquals(0, handoff.getAction());
+        assertEquals(1f, handoff.getX(), 0f);
+        assertEquals(2f, handoff.getY(), 0f);
+        assertEquals(10L, handoff.getTime());
+        assertTrue(handoff.poll());
+        assertEquals(2, handoff.getAction());
+        assertEquals(20L, handoff.getTime());
+        assertFalse(handoff.poll());
+    }
+
+    @Test
+    public void droppableSamplesLeaveReservedSpace() {
+        TouchHandoff handoff = new TouchHandoff(4, 2);
+        assertTrue(handoff.offer(2, 0f, 0f, 0L, true));
+        assertTrue(handoff.offer(2, 0f, 0f, 1L, true));
+        //只剩预留空间，移动被丢弃，抬起仍然可以写入
+        assertFalse(handoff.offer(2, 0f, 0f, 2L, true));
+        assertTrue(handoff.offer(1, 0f, 0f, 3L, false));
+        assertTrue(handoff.offer(3, 0f, 0f, 4L, false));
+        assertFalse(handoff.offer(1, 0f, 0f, 5L, false));
+        assertEquals(2, handoff.getDroppedCount());
+        assertEquals(4, handoff.size());
+        //读出一个后空间可以继续使用
+        assertTrue(handoff.poll());
+        assertTrue(handoff.offer(1, 0f, 0f, 6L, false));
+    }
+
+    @Test
+    public void handsOffAcrossThreadsInOrder() throws InterruptedException {
+        final int count = 200000;
+        final TouchHandoff handoff = new TouchHandoff(64, 0);
+        final AtomicReference<String> error = new AtomicReference<>();
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int expected = 0;
+                while (expected < count) {
+                    if (!handoff.poll()) {
+                        Thread.yield();
+                        continue;
+                    }
+                    if (handoff.getTime() != expected || handoff.getX() != expected % 1000 || handoff.getAction() != expected % 4) {
+                        error.set("第" + expected + "个采样不一致:" + handoff.getTime());
+                        return;
+                    }
+                    expected++;
+                }
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            while (!handoff.offer(i % 4, i % 1000, 0f, i, false)) {
+                Thread.yield();
+            }
+        }
+        consumer.join(30000);
+        assertFalse(consumer.isAlive());
+        assertNull(error.get());
+    }
+}
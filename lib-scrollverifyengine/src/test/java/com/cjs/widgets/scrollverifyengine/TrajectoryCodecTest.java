@@ -0,0 +1,100 @@
+package com.cjs.widgets.scrollverifyengine;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TrajectoryEncoder}和{@link TrajectoryDecoder}的本地单元测试
+ */
+public class TrajectoryCodecTest {
+    private static final int SAMPLES = 480;
+
+    /**
+     * 模拟240Hz屏幕上2秒的拖拽
+     */
+    private static DragTrajectory createDrag() {
+        DragTrajectory trajectory = new DragTrajectory();
+        Random random = new Random(20261018L);
+        float x = 60;
+        float y = 120;
+        long time = 3_600_000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            trajectory.add(x, y, time);
+            x += random.nextFloat() * 4;
+            y += random.nextFloat() * 2 - 1;
+            time += 4 + random.nextInt(2);
+        }
+        return trajectory;
+    }
+
+    private static TrajectoryEncoder createEncoder() {
+        TrajectoryEncoder encoder = new TrajectoryEncoder();
+        encoder.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL);
+        encoder.setBlockSize(180, 160);
+        encoder.setStart(15, 100.3f);
+        encoder.setTarget(700.5f, 100.3f);
+        return encoder;
+    }
+
+    @Test
+    public void roundTrip() {
+        DragTrajectory trajectory = createDrag();
+        ByteBuffer buffer = ByteBuffer.allocate(TrajectoryEncoder.getMaxEncodedSize(trajectory.size()));
+        int size = createEncoder().encode(trajectory, buffer);
+        assertEquals(size, buffer.position());
+        buffer.flip();
+
+        TrajectoryDecoder decoder = new TrajectoryDecoder();
+        decoder.reset(buffer);
+        assertEquals(PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL, decoder.getScrollMode());
+        assertEquals(180, decoder.getBlockWidth());
+        assertEquals(160, decoder.getBlockHeight());
+        assertEquals(15, decoder.getStartX(), 0f);
+        assertEquals(700.5f, decoder.getTargetX(), 0f);
+        assertEquals(100.3f, decoder.getTargetY(), 0.125f);
+        assertEquals(SAMPLES, decoder.getSampleCount());
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(decoder.next());
+            assertEquals(trajectory.getX(i), decoder.getX(), 0.125f);
+            assertEquals(trajectory.getY(i), decoder.getY(), 0.125f);
+            assertEquals(trajectory.getEventTime(i), decoder.getEventTime());
+        }
+        assertFalse(decoder.next());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void muchSmallerThanRawFloats() {
+        DragTrajectory trajectory = createDrag();
+        ByteBuffer buffer = ByteBuffer.allocate(TrajectoryEncoder.getMaxEncodedSize(trajectory.size()));
+        int size = createEncoder().encode(trajectory, buffer);
+        //直接写float x, float y, long time每个采样16字节
+        assertTrue("encoded size " + size, size * 3 < SAMPLES * 16);
+    }
+
+    @Test
+    public void overflowKeepsPosition() {
+        DragTrajectory trajectory = createDrag();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 1);
+        try {
+            createEncoder().encode(trajectory, buffer);
+        } catch (BufferOverflowException e) {
+            assertEquals(1, buffer.position());
+            return;
+        }
+        throw new AssertionError("expected BufferOverflowException");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownData() {
+        new TrajectoryDecoder().reset(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}));
+    }
+}
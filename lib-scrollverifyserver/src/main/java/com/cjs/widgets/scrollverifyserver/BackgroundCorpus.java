@@ -0,0 +1,106 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * 描述:拼图背景图库
+ * <p>
+ * 加载时就把所有图片拉伸到验证码尺寸并保存在内存中，生成验证码时不再解码和缩放原图。
+ * 加载完成后只读，可以被多个线程同时使用。
+ * <p>
+ * 创建时间:2026年10月18日 20:50
+ *
+ * @version 1.0
+ */
+public final class BackgroundCorpus {
+    private final BufferedImage[] mImages;
+    private final int mWidth;
+    private final int mHeight;
+
+    private BackgroundCorpus(BufferedImage[] images, int width, int height) {
+        if (images.length == 0) {
+            throw new IllegalArgumentException("背景图库不能为空");
+        }
+        mImages = images;
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * 加载目录下所有ImageIO能解码的图片，不能解码的文件会被跳过
+     *
+     * @param dir    图片目录
+     * @param width  验证码宽度
+     * @param height 验证码高度
+     * @return
+     * @throws IOException 目录无法读取，或者目录下没有可用的图片
+     */
+    public static BackgroundCorpus fromDirectory(File dir, int width, int height) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException("无法读取目录" + dir);
+        }
+        //按文件名排序，保证同一个目录每次加载的顺序相同
+        Arrays.sort(files);
+        List<BufferedImage> images = new ArrayList<>();
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            BufferedImage image = ImageIO.read(file);
+            if (image != null) {
+                images.add(image);
+            }
+        }
+        if (images.isEmpty()) {
+            throw new IOException("目录下没有可用的图片" + dir);
+        }
+        return fromImages(images, width, height);
+    }
+
+    /**
+     * 使用已经解码的图片
+     *
+     * @param images 图片
+     * @param width  验证码宽度
+     * @param height 验证码高度
+     * @return
+     */
+    public static BackgroundCorpus fromImages(List<BufferedImage> images, int width, int height) {
+        BufferedImage[] scaled = new BufferedImage[images.size()];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = ChallengeImages.scale(images.get(i), width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return new BackgroundCorpus(scaled, width, height);
+    }
+
+    /**
+     * 随机取一张背景图，返回的图片是共享的，不能修改
+     *
+     * @param random
+     * @return
+     */
+    BufferedImage pick(Random random) {
+        return mImages[random.nextInt(mImages.length)];
+    }
+
+    public int size() {
+        return mImages.length;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+}
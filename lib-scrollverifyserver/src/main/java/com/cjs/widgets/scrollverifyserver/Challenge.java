@@ -0,0 +1,145 @@
+package com.cjs.widgets.scrollverifyserver;
+
+/**
+ * 描述:一个已经生成好的拼图验证码
+ * <p>
+ * 包括挖好目标位置的背景图、可移动滑块图和只保存在服务端的目标位置。背景图和滑块图下发给客户端，
+ * {@link #getTargetX()}和{@link #getTargetY()}不能下发，否则验证没有意义。
+ * <p>
+ * 该类不可变，可以在线程之间自由传递。为了避免复制，图片数据直接返回内部数组，调用方不能修改。
+ * <p>
+ * 创建时间:2026年10月18日 20:50
+ *
+ * @version 1.0
+ */
+public final class Challenge {
+    private final String mId;
+    private final byte[] mBackgroundImage;
+    private final byte[] mPieceImage;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mBlockWidth;
+    private final int mBlockHeight;
+    private final int mScrollMode;
+    private final float mStartX;
+    private final float mStartY;
+    private final float mTargetX;
+    private final float mTargetY;
+    private final float mRotateDegree;
+    private final long mCreateTime;
+
+    Challenge(String id, byte[] backgroundImage, byte[] pieceImage, int width, int height,
+              int blockWidth, int blockHeight, int scrollMode, float startX, float startY,
+              float targetX, float targetY, float rotateDegree, long createTime) {
+        mId = id;
+        mBackgroundImage = backgroundImage;
+        mPieceImage = pieceImage;
+        mWidth = width;
+        mHeight = height;
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+        mScrollMode = scrollMode;
+        mStartX = startX;
+        mStartY = startY;
+        mTargetX = targetX;
+        mTargetY = targetY;
+        mRotateDegree = rotateDegree;
+        mCreateTime = createTime;
+    }
+
+    /**
+     * 随机生成的唯一标识，客户端提交答案时带上
+     *
+     * @return
+     */
+    public String getId() {
+        return mId;
+    }
+
+    /**
+     * 已经绘制了目标滑块的背景图，格式见{@link ChallengeGenerator#setBackgroundFormat(String)}
+     *
+     * @return
+     */
+    public byte[] getBackgroundImage() {
+        return mBackgroundImage;
+    }
+
+    /**
+     * 可移动滑块图，PNG格式，带透明通道
+     *
+     * @return
+     */
+    public byte[] getPieceImage() {
+        return mPieceImage;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getBlockWidth() {
+        return mBlockWidth;
+    }
+
+    public int getBlockHeight() {
+        return mBlockHeight;
+    }
+
+    /**
+     * 滑动模式，取值同{@link com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine}的MODE_*常量
+     *
+     * @return
+     */
+    public int getScrollMode() {
+        return mScrollMode;
+    }
+
+    /**
+     * 可移动滑块初始位置的左上角横坐标
+     *
+     * @return
+     */
+    public float getStartX() {
+        return mStartX;
+    }
+
+    public float getStartY() {
+        return mStartY;
+    }
+
+    /**
+     * 目标滑块左上角横坐标，只能在服务端使用
+     *
+     * @return
+     */
+    public float getTargetX() {
+        return mTargetX;
+    }
+
+    /**
+     * 目标滑块左上角纵坐标，只能在服务端使用
+     *
+     * @return
+     */
+    public float getTargetY() {
+        return mTargetY;
+    }
+
+    public float getRotateDegree() {
+        return mRotateDegree;
+    }
+
+    /**
+     * 生成时间，{@link System#currentTimeMillis()}
+     *
+     * @return
+     */
+    public long getCreateTime() {
+        return mCreateTime;
+    }
+}
@@ -0,0 +1,195 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import com.cjs.widgets.scrollverifyengine.PuzzleLayout;
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.security.SecureRandom;
+
+/**
+ * 描述:服务端拼图验证码生成器
+ * <p>
+ * 与客户端ScrollVerifyView使用同一个{@link PuzzleLayoutEngine}和同样的参数(滑块尺寸、内边距、五种滑动模式、避免过近、旋转)，
+ * 但目标位置由服务端用{@link SecureRandom}生成，客户端拿不到答案，也就无法直接用脚本通过验证。
+ * <p>
+ * 配置完成后该类可以被多个线程同时使用，每次生成都使用独立的布局引擎。
+ * <p>
+ * 创建时间:2026年10月18日 20:50
+ *
+ * @version 1.0
+ */
+public final class ChallengeGenerator {
+    /**
+     * 未设置滑块尺寸时，滑块宽度为背景宽度的1/6，高度为背景高度的1/4，与客户端的默认值一致
+     */
+    private static final int DEFAULT_BLOCK_WIDTH_DIVIDE = 6;
+    private static final int DEFAULT_BLOCK_HEIGHT_DIVIDE = 4;
+
+    private final SecureRandom mRandom = new SecureRandom();
+    private volatile int mBlockWidth;
+    private volatile int mBlockHeight;
+    private volatile int mPadding = 15;
+    private volatile int mScrollMode = PuzzleLayoutEngine.MODE_SCROLL_FREE;
+    private volatile boolean isAvoidTooClose = true;
+    private volatile boolean isRandomRotate;
+    private volatile float mRotateDegree;
+    private volatile BufferedImage mMovableMask = ChallengeImages.loadResource("svv_default_puzzle_shade.png");
+    private volatile BufferedImage mTargetMask = ChallengeImages.loadResource("svv_default_puzzle_show.png");
+    private volatile String mBackgroundFormat = "jpg";
+
+    /**
+     * 设置滑块尺寸，为0时按背景尺寸计算
+     *
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     */
+    public void setBlockSize(int blockWidth, int blockHeight) {
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+    }
+
+    /**
+     * 设置滑块与背景边缘的最小距离
+     *
+     * @param padding
+     */
+    public void setPadding(int padding) {
+        mPadding = padding;
+    }
+
+    /**
+     * 设置滑动模式
+     *
+     * @param scrollMode {@link PuzzleLayoutEngine}的MODE_*常量
+     */
+    public void setScrollMode(int scrollMode) {
+        mScrollMode = scrollMode;
+    }
+
+    /**
+     * 设置自由模式下是否避免目标滑块离起始滑块太近
+     *
+     * @param avoidTooClose
+     */
+    public void setAvoidTooClose(boolean avoidTooClose) {
+        isAvoidTooClose = avoidTooClose;
+    }
+
+    /**
+     * 设置是否随机旋转滑块形状，开启后忽略{@link #setRotateDegree(float)}
+     *
+     * @param randomRotate
+     */
+    public void setRandomRotate(boolean randomRotate) {
+        isRandomRotate = randomRotate;
+    }
+
+    /**
+     * 设置滑块形状的固定旋转角度
+     *
+     * @param rotateDegree
+     */
+    public void setRotateDegree(float rotateDegree) {
+        mRotateDegree = rotateDegree;
+    }
+
+    /**
+     * 设置可移动滑块的形状图片，与客户端的movableBlockDrawable相同，以正片叠底的方式与背景块叠加
+     *
+     * @param movableMask
+     */
+    public void setMovableMask(BufferedImage movableMask) {
+        mMovableMask = movableMask;
+    }
+
+    /**
+     * 设置目标滑块的形状图片，与客户端的targetBlockDrawable相同，直接绘制在背景图的目标位置上
+     *
+     * @param targetMask
+     */
+    public void setTargetMask(BufferedImage targetMask) {
+        mTargetMask = targetMask;
+    }
+
+    /**
+     * 设置背景图的压缩格式，默认jpg。滑块图需要透明通道，总是png
+     *
+     * @param backgroundFormat ImageIO支持的格式名
+     */
+    public void setBackgroundFormat(String backgroundFormat) {
+        mBackgroundFormat = backgroundFormat;
+    }
+
+    /**
+     * 从图库中随机取一张背景生成验证码
+     *
+     * @param corpus 背景图库
+     * @return
+     * @throws IOException 图片压缩失败
+     */
+    public Challenge generate(BackgroundCorpus corpus) throws IOException {
+        return generate(corpus.pick(mRandom));
+    }
+
+    /**
+     * 用指定的背景生成验证码，背景图本身不会被修改
+     *
+     * @param background 背景图，尺寸即验证码尺寸
+     * @return
+     * @throws IOException              图片压缩失败
+     * @throws IllegalArgumentException 背景图太小，放不下滑块
+     */
+    public Challenge generate(BufferedImage background) throws IOException {
+        int width = background.getWidth();
+        int height = background.getHeight();
+        int blockWidth = mBlockWidth == 0 ? width / DEFAULT_BLOCK_WIDTH_DIVIDE : mBlockWidth;
+        int blockHeight = mBlockHeight == 0 ? height / DEFAULT_BLOCK_HEIGHT_DIVIDE : mBlockHeight;
+        int scrollMode = mScrollMode;
+
+        PuzzleLayoutEngine engine = new PuzzleLayoutEngine(mRandom);
+        engine.setBlockSize(blockWidth, blockHeight);
+        engine.setPadding(mPadding);
+        engine.setScrollMode(scrollMode);
+        engine.setAvoidTooClose(isAvoidTooClose);
+        PuzzleLayout layout = new PuzzleLayout();
+        if (blockWidth <= 0 || blockHeight <= 0 || !engine.layout(width, height, layout)) {
+            throw new IllegalArgumentException("背景图太小，放不下滑块:" + width + "x" + height);
+        }
+        float rotateDegree = isRandomRotate ? mRandom.nextFloat() * 3 * 90 : mRotateDegree;
+        int targetX = Math.round(layout.getTargetX());
+        int targetY = Math.round(layout.getTargetY());
+
+        //先从原背景中截出可移动滑块，再在背景上绘制目标滑块
+        BufferedImage movable = ChallengeImages.scaleRotate(mMovableMask, rotateDegree, blockWidth, blockHeight);
+        ChallengeImages.multiply(movable, background, targetX, targetY);
+        BufferedImage target = ChallengeImages.scaleRotate(mTargetMask, rotateDegree, blockWidth, blockHeight);
+        BufferedImage hole = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = hole.createGraphics();
+        try {
+            g.drawImage(background, 0, 0, null);
+            g.drawImage(target, targetX, targetY, null);
+        } finally {
+            g.dispose();
+        }
+
+        return new Challenge(nextId(), ChallengeImages.encode(hole, mBackgroundFormat), ChallengeImages.encode(movable, "png"),
+                width, height, blockWidth, blockHeight, scrollMode, layout.getStartX(), layout.getStartY(),
+                targetX, targetY, rotateDegree, System.currentTimeMillis());
+    }
+
+    /**
+     * 128位随机数的十六进制字符串
+     */
+    private String nextId() {
+        byte[] bytes = new byte[16];
+        mRandom.nextBytes(bytes);
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            chars[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,151 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * 描述:服务端生成拼图时使用的图片工具，与客户端GraphicTools中的变换保持一致
+ * <p>
+ * 创建时间:2026年10月18日 20:50
+ *
+ * @version 1.0
+ */
+final class ChallengeImages {
+
+    private ChallengeImages() {
+    }
+
+    /**
+     * 读取模块内置的滑块形状图片
+     *
+     * @param name 资源文件名
+     * @return
+     */
+    static BufferedImage loadResource(String name) {
+        InputStream in = ChallengeImages.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IllegalStateException("缺少资源文件" + name);
+        }
+        try {
+            try {
+                return ImageIO.read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("无法读取资源文件" + name, e);
+        }
+    }
+
+    /**
+     * 将图片拉伸到指定尺寸
+     *
+     * @param src    原图
+     * @param width  宽度
+     * @param height 高度
+     * @param type   结果的{@link BufferedImage}类型
+     * @return
+     */
+    static BufferedImage scale(BufferedImage src, int width, int height, int type) {
+        BufferedImage dst = new BufferedImage(width, height, type);
+        Graphics2D g = createGraphics(dst);
+        try {
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    /**
+     * 将形状图片缩放到滑块尺寸并旋转，旋转后的外接矩形再缩放回滑块尺寸，与客户端的scaleRotateBitmapInto一致
+     *
+     * @param mask   形状图片
+     * @param degree 旋转角度
+     * @param width  滑块宽度
+     * @param height 滑块高度
+     * @return
+     */
+    static BufferedImage scaleRotate(BufferedImage mask, float degree, int width, int height) {
+        AffineTransform transform = AffineTransform.getScaleInstance(
+                (double) width / mask.getWidth(), (double) height / mask.getHeight());
+        if (degree != 0) {
+            AffineTransform rotate = AffineTransform.getRotateInstance(Math.toRadians(degree), width / 2, height / 2);
+            rotate.concatenate(transform);
+            transform = rotate;
+            //旋转后的外接矩形重新对齐到左上角并缩放回原大小
+            Rectangle2D bounds = transform.createTransformedShape(new Rectangle2D.Float(0, 0, mask.getWidth(), mask.getHeight())).getBounds2D();
+            AffineTransform fit = AffineTransform.getScaleInstance(width / bounds.getWidth(), height / bounds.getHeight());
+            fit.translate(-bounds.getX(), -bounds.getY());
+            fit.concatenate(transform);
+            transform = fit;
+        }
+        BufferedImage dst = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = createGraphics(dst);
+        try {
+            g.drawImage(mask, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    /**
+     * 在形状遮罩上以正片叠底叠加背景块，得到可移动滑块，与客户端PorterDuff.Mode.MULTIPLY的结果一致。
+     * 背景不透明时，结果的透明度等于遮罩的透明度，颜色等于两者颜色相乘
+     *
+     * @param mask       已缩放到滑块尺寸的形状遮罩，结果直接写回该图片
+     * @param background 背景图
+     * @param x          背景块左上角横坐标
+     * @param y          背景块左上角纵坐标
+     * @return mask
+     */
+    static BufferedImage multiply(BufferedImage mask, BufferedImage background, int x, int y) {
+        int width = mask.getWidth();
+        int height = mask.getHeight();
+        int[] maskPixels = mask.getRGB(0, 0, width, height, null, 0, width);
+        int[] srcPixels = background.getRGB(x, y, width, height, null, 0, width);
+        for (int i = 0; i < maskPixels.length; i++) {
+            int m = maskPixels[i];
+            int s = srcPixels[i];
+            int r = ((m >> 16) & 0xFF) * ((s >> 16) & 0xFF) / 255;
+            int g = ((m >> 8) & 0xFF) * ((s >> 8) & 0xFF) / 255;
+            int b = (m & 0xFF) * (s & 0xFF) / 255;
+            maskPixels[i] = (m & 0xFF000000) | (r << 16) | (g << 8) | b;
+        }
+        mask.setRGB(0, 0, width, height, maskPixels, 0, width);
+        return mask;
+    }
+
+    /**
+     * 把图片压缩成指定格式
+     *
+     * @param image  图片
+     * @param format ImageIO支持的格式名，比如png、jpg
+     * @return
+     * @throws IOException 不支持该格式或者压缩失败
+     */
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+        if (!ImageIO.write(image, format, out)) {
+            throw new IOException("不支持的图片格式:" + format);
+        }
+        return out.toByteArray();
+    }
+
+    private static Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g;
+    }
+}
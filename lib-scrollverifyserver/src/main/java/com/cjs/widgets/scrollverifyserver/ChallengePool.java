@@ -0,0 +1,191 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 描述:预生成的验证码池
+ * <p>
+ * 后台工作线程(默认每个CPU核心一个)不断生成验证码放进有界队列，队列满时阻塞等待。
+ * 下发验证码只是一次出队操作，不在请求线程中做任何图片处理。
+ * <p>
+ * 该类是线程安全的。
+ * <p>
+ * 创建时间:2026年10月18日 20:50
+ *
+ * @version 1.0
+ */
+public final class ChallengePool {
+    private static final Logger LOGGER = Logger.getLogger(ChallengePool.class.getName());
+    /**
+     * 生成失败后等待一段时间再重试，避免图库或配置有问题时空转占满CPU
+     */
+    private static final long FAILURE_BACKOFF_MILLIS = 100;
+
+    private final ChallengeGenerator mGenerator;
+    private final BackgroundCorpus mCorpus;
+    private final ArrayBlockingQueue<Challenge> mQueue;
+    private final int mWorkerCount;
+    private final AtomicLong mGeneratedCount = new AtomicLong();
+    private final AtomicLong mFailedCount = new AtomicLong();
+    private ExecutorService mWorkers;
+
+    /**
+     * 每个CPU核心一个工作线程
+     *
+     * @param generator 验证码生成器
+     * @param corpus    背景图库
+     * @param capacity  池中最多保存的验证码数量
+     */
+    public ChallengePool(ChallengeGenerator generator, BackgroundCorpus corpus, int capacity) {
+        this(generator, corpus, capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param generator   验证码生成器
+     * @param corpus      背景图库
+     * @param capacity    池中最多保存的验证码数量
+     * @param workerCount 工作线程数
+     */
+    public ChallengePool(ChallengeGenerator generator, BackgroundCorpus corpus, int capacity, int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("工作线程数必须大于零");
+        }
+        mGenerator = generator;
+        mCorpus = corpus;
+        mQueue = new ArrayBlockingQueue<>(capacity);
+        mWorkerCount = workerCount;
+    }
+
+    /**
+     * 启动工作线程开始填充，重复调用无效
+     */
+    public synchronized void start() {
+        if (mWorkers != null) {
+            return;
+        }
+        mWorkers = Executors.newFixedThreadPool(mWorkerCount, new WorkerThreadFactory());
+        for (int i = 0; i < mWorkerCount; i++) {
+            mWorkers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    fill();
+                }
+            });
+        }
+    }
+
+    /**
+     * 停止工作线程，池中已有的验证码仍然可以取出
+     */
+    public synchronized void shutdown() {
+        if (mWorkers != null) {
+            mWorkers.shutdownNow();
+        }
+    }
+
+    /**
+     * 等待工作线程退出
+     *
+     * @return 在超时之前全部退出时返回true
+     * @throws InterruptedException
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        ExecutorService workers;
+        synchronized (this) {
+            workers = mWorkers;
+        }
+        return workers == null || workers.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 取出一个验证码，不等待
+     *
+     * @return 池为空时返回null
+     */
+    public Challenge poll() {
+        return mQueue.poll();
+    }
+
+    /**
+     * 取出一个验证码，池为空时最多等待指定时间
+     *
+     * @return 超时返回null
+     * @throws InterruptedException
+     */
+    public Challenge poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return mQueue.poll(timeout, unit);
+    }
+
+    /**
+     * 池中当前可用的验证码数量
+     *
+     * @return
+     */
+    public int size() {
+        return mQueue.size();
+    }
+
+    public int getCapacity() {
+        return mQueue.size() + mQueue.remainingCapacity();
+    }
+
+    /**
+     * 获取累计生成成功的数量
+     *
+     * @return
+     */
+    public long getGeneratedCount() {
+        return mGeneratedCount.get();
+    }
+
+    /**
+     * 获取累计生成失败的数量
+     *
+     * @return
+     */
+    public long getFailedCount() {
+        return mFailedCount.get();
+    }
+
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Challenge challenge;
+                try {
+                    challenge = mGenerator.generate(mCorpus);
+                } catch (IOException | RuntimeException e) {
+                    mFailedCount.incrementAndGet();
+                    LOGGER.log(Level.WARNING, "生成验证码失败", e);
+                    Thread.sleep(FAILURE_BACKOFF_MILLIS);
+                    continue;
+                }
+                mGeneratedCount.incrementAndGet();
+                mQueue.put(challenge);
+            }
+        } catch (InterruptedException e) {
+            //shutdown时中断，直接退出
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+        private final int mPoolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger mThreadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ChallengePool-" + mPoolNumber + "-" + mThreadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 描述:服务端验证器
+ * <p>
+ * 保存已下发验证码的目标位置，校验客户端提交的滑块位置与目标位置的直线距离不超过容差。
+ * 客户端的verify()沿用最初版本的算法，实际容差是validOffset的2倍，服务端按真实距离比较，不继承这个放宽。
+ * <ul>
+ * <li>目标位置保存在{@link ConcurrentHashMap}中，以验证码的id作为令牌，读写都不需要全局锁</li>
+ * <li>每个令牌只能使用一次，验证时直接从表中移除，并发提交同一个令牌时只有一个请求能拿到目标位置</li>
+ * <li>令牌的过期由后台线程推进的时间轮回收，时间轮只负责释放内存，是否过期以验证时的时间为准</li>
+ * <li>同一个客户端在一个时间窗口内的验证次数有上限，超出后直接拒绝，不消耗令牌</li>
+ * </ul>
+ * 该类是线程安全的，使用完毕后需要调用{@link #close()}停止后台线程。
+ * <p>
+ * 创建时间:2026年10月18日 21:30
+ *
+ * @version 1.0
+ */
+public final class ChallengeVerifier implements Closeable {
+    /**
+     * 时间轮一个刻度的时长
+     */
+    private static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SLOTS = 1024;
+
+    /**
+     * 验证结果
+     */
+    public enum Result {
+        /**
+         * 验证成功
+         */
+        SUCCESS,
+        /**
+         * 位置不对
+         */
+        FAILED,
+        /**
+         * 令牌不存在、已经使用过或者已经过期
+         */
+        INVALID_TOKEN,
+        /**
+         * 该客户端验证次数过多
+         */
+        TOO_MANY_ATTEMPTS
+    }
+
+    private final ConcurrentHashMap<String, Target> mTargets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AttemptWindow> mAttempts = new ConcurrentHashMap<>();
+    private final TimingWheel<Target> mWheel;
+    private final ScheduledExecutorService mTicker;
+    private final long mTtlMillis;
+    private final long mStartNanos = System.nanoTime();
+    private volatile int mValidOffset = 3;
+    private volatile int mMaxAttempts = 10;
+    private volatile long mAttemptWindowMillis = TimeUnit.MINUTES.toMillis(1);
+    private final AtomicLong mExpiredCount = new AtomicLong();
+
+    /**
+     * @param ttl  令牌的有效期
+     * @param unit 有效期单位
+     */
+    public ChallengeVerifier(long ttl, TimeUnit unit) {
+        mTtlMillis = unit.toMillis(ttl);
+        mWheel = new TimingWheel<>(WHEEL_SLOTS, 0);
+        mTicker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ChallengeVerifier-ticker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        mTicker.scheduleAtFixedRate(new Runnable() {
+            private final List<Target> mExpired = new ArrayList<>();
+            private long mLastSweep;
+
+            @Override
+            public void run() {
+                long now = now();
+                mWheel.advanceTo(now / TICK_MILLIS, mExpired);
+                for (int i = 0; i < mExpired.size(); i++) {
+                    Target target = mExpired.get(i);
+                    //只移除同一个对象，令牌被重新登记时不会误删
+                    if (mTargets.remove(target.token, target)) {
+                        mExpiredCount.incrementAndGet();
+                    }
+                }
+                mExpired.clear();
+                if (now - mLastSweep >= mAttemptWindowMillis) {
+                    sweepAttempts(now);
+                    mLastSweep = now;
+                }
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 设置验证的容差，滑块左上角与目标位置的直线距离不超过该值就视为成功。
+     * 客户端的validOffset实际允许2倍的偏差，要与客户端的手感一致需要设置为客户端validOffset的2倍
+     *
+     * @param validOffset 像素
+     */
+    public void setValidOffset(int validOffset) {
+        mValidOffset = validOffset;
+    }
+
+    /**
+     * 设置同一个客户端在一个时间窗口内最多可以验证的次数
+     *
+     * @param maxAttempts    次数
+     * @param window         时间窗口
+     * @param unit           时间窗口单位
+     */
+    public void setMaxAttempts(int maxAttempts, long window, TimeUnit unit) {
+        mMaxAttempts = maxAttempts;
+        mAttemptWindowMillis = unit.toMillis(window);
+    }
+
+    /**
+     * 登记一个已经下发的验证码，令牌为{@link Challenge#getId()}
+     *
+     * @param challenge
+     */
+    public void register(Challenge challenge) {
+        register(challenge.getId(), challenge.getBlockWidth(), challenge.getBlockHeight(),
+                challenge.getTargetX(), challenge.getTargetY());
+    }
+
+    /**
+     * 登记一个目标位置
+     *
+     * @param token       令牌
+     * @param blockWidth  滑块宽度，两个滑块大小相同，中心点距离等于左上角的距离，校验时不需要
+     * @param blockHeight 滑块高度，同上
+     * @param targetX     目标滑块左上角横坐标
+     * @param targetY     目标滑块左上角纵坐标
+     */
+    public void register(String token, int blockWidth, int blockHeight, float targetX, float targetY) {
+        long expireAt = now() + mTtlMillis;
+        Target target = new Target(token, targetX, targetY, expireAt);
+        mTargets.put(token, target);
+        mWheel.add(target, (expireAt + TICK_MILLIS - 1) / TICK_MILLIS);
+    }
+
+    /**
+     * 校验客户端提交的滑块位置。无论成功与否，令牌都会被消耗
+     *
+     * @param token    令牌
+     * @param clientId 客户端标识，比如IP或者设备号，为null时不限制次数
+     * @param blockX   可移动滑块左上角横坐标
+     * @param blockY   可移动滑块左上角纵坐标
+     * @return
+     */
+    public Result verify(String token, String clientId, float blockX, float blockY) {
+        long now = now();
+        if (clientId != null && !tryAcquireAttempt(clientId, now)) {
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        Target target = token == null ? null : mTargets.remove(token);
+        if (target == null) {
+            return Result.INVALID_TOKEN;
+        }
+        if (target.expireAt <= now) {
+            mExpiredCount.incrementAndGet();
+            return Result.INVALID_TOKEN;
+        }
+        float dx = blockX - target.targetX;
+        float dy = blockY - target.targetY;
+        float validOffset = mValidOffset;
+        return dx * dx + dy * dy <= validOffset * validOffset ? Result.SUCCESS : Result.FAILED;
+    }
+
+    /**
+     * 当前保存的令牌数量
+     *
+     * @return
+     */
+    public int size() {
+        return mTargets.size();
+    }
+
+    /**
+     * 获取累计过期的令牌数量
+     *
+     * @return
+     */
+    public long getExpiredCount() {
+        return mExpiredCount.get();
+    }
+
+    /**
+     * 停止后台线程，之后仍然可以验证，但过期的令牌不再被回收
+     */
+    @Override
+    public void close() {
+        mTicker.shutdownNow();
+    }
+
+    private boolean tryAcquireAttempt(String clientId, long now) {
+        AttemptWindow window = mAttempts.get(clientId);
+        if (window == null) {
+            AttemptWindow created = new AttemptWindow(now);
+            window = mAttempts.putIfAbsent(clientId, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        return window.tryAcquire(now, mAttemptWindowMillis, mMaxAttempts);
+    }
+
+    /**
+     * 移除时间窗口已经结束的客户端计数
+     */
+    private void sweepAttempts(long now) {
+        long windowMillis = mAttemptWindowMillis;
+        Iterator<AttemptWindow> iterator = mAttempts.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now, windowMillis)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 单调递增的毫秒数，不受系统时间调整影响
+     */
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mStartNanos);
+    }
+
+    private static final class Target {
+        final String token;
+        final float targetX;
+        final float targetY;
+        final long expireAt;
+
+        Target(String token, float targetX, float targetY, long expireAt) {
+            this.token = token;
+            this.targetX = targetX;
+            this.targetY = targetY;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 固定窗口计数，每个客户端一个对象，锁只在同一个客户端的请求之间竞争
+     */
+    private static final class AttemptWindow {
+        private long mWindowStart;
+        private int mCount;
+
+        AttemptWindow(long now) {
+            mWindowStart = now;
+        }
+
+        synchronized boolean tryAcquire(long now, long windowMillis, int maxAttempts) {
+            if (now - mWindowStart >= windowMillis) {
+                mWindowStart = now;
+                mCount = 0;
+            }
+            if (mCount >= maxAttempts) {
+                return false;
+            }
+            mCount++;
+            return true;
+        }
+
+        synchronized boolean isExpired(long now, long windowMillis) {
+            return now - mWindowStart >= windowMillis;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 描述:哈希时间轮
+ * <p>
+ * 按到期的时间刻度把元素放进环形的槽中，添加是O(1)的无锁操作，每推进一个刻度只检查一个槽，
+ * 不需要像优先队列那样维护全局顺序，也不需要定时扫描全部元素。超过一圈的元素在经过它的槽时重新放回。
+ * <p>
+ * 添加可以在任意线程进行，推进只能在同一个线程进行。
+ * <p>
+ * 创建时间:2026年10月18日 21:30
+ *
+ * @version 1.0
+ */
+final class TimingWheel<E> {
+    private final ConcurrentLinkedQueue<Node<E>>[] mSlots;
+    private final int mMask;
+    /**
+     * 下一个要处理的刻度，只在推进线程中修改。推进时在检查一个槽之前先越过它的刻度，
+     * 添加方据此判断放入的槽是否可能已经检查过
+     */
+    private volatile long mNextTick;
+
+    /**
+     * @param slotCount 槽数量，会向上取整为2的幂
+     * @param startTick 起始刻度
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(int slotCount, long startTick) {
+        int size = Integer.highestOneBit(Math.max(slotCount - 1, 1)) << 1;
+        mSlots = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            mSlots[i] = new ConcurrentLinkedQueue<>();
+        }
+        mMask = size - 1;
+        mNextTick = startTick;
+    }
+
+    /**
+     * 添加一个元素
+     *
+     * @param element      元素
+     * @param deadlineTick 到期的刻度，已经过去的刻度会在下一次推进时到期
+     */
+    void add(E element, long deadlineTick) {
+        Node<E> node = new Node<>(element, deadlineTick);
+        long tick = Math.max(deadlineTick, mNextTick);
+        while (true) {
+            ConcurrentLinkedQueue<Node<E>> slot = mSlots[(int) (tick & mMask)];
+            slot.offer(node);
+            long nextTick = mNextTick;
+            //推进线程还没有越过该刻度，之后检查这个槽时一定能看到该元素；
+            //否则槽可能已经检查过了，取回来放到下一个要处理的刻度。取不回说明推进线程已经拿走了它
+            if (tick >= nextTick || !slot.remove(node)) {
+                return;
+            }
+            tick = Math.max(deadlineTick, nextTick);
+        }
+    }
+
+    /**
+     * 推进到指定刻度，处理这期间所有到期的元素
+     *
+     * @param currentTick 当前刻度，该刻度及之前到期的元素都会被取出
+     * @param expired     到期的元素追加到该列表中
+     */
+    void advanceTo(long currentTick, List<E> expired) {
+        List<Node<E>> pending = null;
+        //相隔超过一圈时每个槽只需要检查一次
+        long from = Math.max(mNextTick, currentTick - mMask);
+        for (long tick = from; tick <= currentTick; tick++) {
+            //先越过刻度再检查槽，见add
+            mNextTick = tick + 1;
+            ConcurrentLinkedQueue<Node<E>> slot = mSlots[(int) (tick & mMask)];
+            Node<E> node;
+            while ((node = slot.poll()) != null) {
+                if (node.deadlineTick <= currentTick) {
+                    expired.add(node.element);
+                } else {
+                    if (pending == null) {
+                        pending = new ArrayList<>();
+                    }
+                    pending.add(node);
+                }
+            }
+            if (pending != null) {
+                //还没到期的元素放回原槽，等下一圈
+                slot.addAll(pending);
+                pending.clear();
+            }
+        }
+    }
+
+    private static final class Node<E> {
+        final E element;
+        final long deadlineTick;
+
+        Node(E element, long deadlineTick) {
+            this.element = element;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 描述:进程内的验证码HTTP服务
+ * <p>
+ * 基于JDK自带的com.sun.net.httpserver，用于本地联调和压测，正式环境应接入自己的Web框架，直接调用
+ * {@link ChallengePool}和{@link ChallengeVerifier}。提供两个接口：
+ * <pre>
+ * GET  /challenge                      取一个验证码，返回JSON，图片为Base64
+ * POST /verify  token=..&amp;x=..&amp;y=..     校验滑块位置，返回{"result":"SUCCESS"}等
+ * </pre>
+ * 客户端标识取请求头X-Client-Id，没有时取对方IP。
+ * <p>
+ * 创建时间:2026年10月18日 21:30
+ *
+ * @version 1.0
+ */
+public final class VerifyHttpServer {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final String HEADER_CLIENT_ID = "X-Client-Id";
+
+    private final ChallengePool mPool;
+    private final ChallengeVerifier mVerifier;
+    private HttpServer mServer;
+    private ExecutorService mExecutor;
+
+    /**
+     * @param pool     验证码池，为null时/challenge接口返回503，只能通过{@link ChallengeVerifier#register}登记令牌
+     * @param verifier 验证器
+     */
+    public VerifyHttpServer(ChallengePool pool, ChallengeVerifier verifier) {
+        mPool = pool;
+        mVerifier = verifier;
+    }
+
+    /**
+     * 启动服务
+     *
+     * @param address 监听地址，端口为0时随机分配，见{@link #getPort()}
+     * @throws IOException 端口被占用等
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (mServer != null) {
+            throw new IllegalStateException("服务已经启动");
+        }
+        //JDK的HttpServer默认开启Nagle算法，响应头和响应体分两次写出时会与客户端的延迟确认叠加，每个请求多等40ms左右。
+        //该配置在HttpServer第一次创建时读取，调用方已经设置过时不覆盖
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/challenge", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleChallenge(exchange);
+            }
+        });
+        server.createContext("/verify", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleVerify(exchange);
+            }
+        });
+        mExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, new ThreadFactory() {
+            private final AtomicInteger mNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "VerifyHttpServer-" + mNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        server.setExecutor(mExecutor);
+        server.start();
+        mServer = server;
+    }
+
+    /**
+     * 停止服务
+     */
+    public synchronized void stop() {
+        if (mServer != null) {
+            mServer.stop(0);
+            mExecutor.shutdownNow();
+            mServer = null;
+            mExecutor = null;
+        }
+    }
+
+    /**
+     * 获取实际监听的端口
+     *
+     * @return
+     */
+    public synchronized int getPort() {
+        if (mServer == null) {
+            throw new IllegalStateException("服务还没有启动");
+        }
+        return mServer.getAddress().getPort();
+    }
+
+    private void handleChallenge(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return;
+        }
+        Challenge challenge = mPool == null ? null : mPool.poll();
+        if (challenge == null) {
+            send(exchange, 503, "{\"error\":\"no challenge available\"}");
+            return;
+        }
+        mVerifier.register(challenge);
+        StringBuilder json = new StringBuilder(challenge.getBackgroundImage().length * 4 / 3 + 1024);
+        json.append("{\"token\":\"").append(challenge.getId())
+                .append("\",\"width\":").append(challenge.getWidth())
+                .append(",\"height\":").append(challenge.getHeight())
+                .append(",\"blockWidth\":").append(challenge.getBlockWidth())
+                .append(",\"blockHeight\":").append(challenge.getBlockHeight())
+                .append(",\"scrollMode\":").append(challenge.getScrollMode())
+                .append(",\"startX\":").append(challenge.getStartX())
+                .append(",\"startY\":").append(challenge.getStartY())
+                .append(",\"rotateDegree\":").append(challenge.getRotateDegree())
+                .append(",\"background\":\"");
+        appendBase64(json, challenge.getBackgroundImage());
+        json.append("\",\"piece\":\"");
+        appendBase64(json, challenge.getPieceImage());
+        json.append("\"}");
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return;
+        }
+        Map<String, String> params = parseForm(readBody(exchange));
+        String token = params.get("token");
+        float x;
+        float y;
+        try {
+            x = Float.parseFloat(params.get("x"));
+            y = Float.parseFloat(params.get("y"));
+        } catch (NullPointerException | NumberFormatException e) {
+            send(exchange, 400, "{\"error\":\"bad position\"}");
+            return;
+        }
+        String clientId = exchange.getRequestHeaders().getFirst(HEADER_CLIENT_ID);
+        if (clientId == null) {
+            clientId = exchange.getRemoteAddress().getAddress().getHostAddress();
+        }
+        ChallengeVerifier.Result result = mVerifier.verify(token, clientId, x, y);
+        send(exchange, result == ChallengeVerifier.Result.TOO_MANY_ATTEMPTS ? 429 : 200,
+                "{\"result\":\"" + result.name() + "\"}");
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return new String(out.toByteArray(), UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static Map<String, String> parseForm(String form) throws UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : form.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+                        URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Java 7没有java.util.Base64，这里只需要编码
+     */
+    private static void appendBase64(StringBuilder out, byte[] data) {
+        int i = 0;
+        for (; i + 2 < data.length; i += 3) {
+            int n = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            out.append(BASE64[n >>> 18]).append(BASE64[(n >>> 12) & 0x3F])
+                    .append(BASE64[(n >>> 6) & 0x3F]).append(BASE64[n & 0x3F]);
+        }
+        int remaining = data.length - i;
+        if (remaining == 1) {
+            int n = (data[i] & 0xFF) << 16;
+            out.append(BASE64[n >>> 18]).append(BASE64[(n >>> 12) & 0x3F]).append("==");
+        } else if (remaining == 2) {
+            int n = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8;
+            out.append(BASE64[n >>> 18]).append(BASE64[(n >>> 12) & 0x3F]).append(BASE64[(n >>> 6) & 0x3F]).append('=');
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述:验证器压测工具
+ * <p>
+ * 多个线程不断登记令牌并立即验证，一半提交正确位置一半提交错误位置，统计验证的吞吐量和延迟分位数。
+ * 加上http参数时通过{@link VerifyHttpServer}的/verify接口验证，统计的是完整的HTTP往返。
+ * <pre>
+ * ./gradlew :lib-scrollverifyserver:loadTest -Pargs="threads=8 seconds=10 http"
+ * </pre>
+ * <p>
+ * 创建时间:2026年10月18日 21:30
+ *
+ * @version 1.0
+ */
+public final class VerifyLoadRunner {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    /**
+     * 每个线程最多记录的延迟样本数，超出后只计数不记录
+     */
+    private static final int MAX_SAMPLES_PER_THREAD = 1 << 20;
+    private static final int BLOCK = 100;
+
+    private VerifyLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int seconds = 10;
+        boolean isHttp = false;
+        for (String arg : args) {
+            if (arg.startsWith("threads=")) {
+                threads = Integer.parseInt(arg.substring("threads=".length()));
+            } else if (arg.startsWith("seconds=")) {
+                seconds = Integer.parseInt(arg.substring("seconds=".length()));
+            } else if ("http".equals(arg)) {
+                isHttp = true;
+            } else {
+                throw new IllegalArgumentException("未知参数:" + arg);
+            }
+        }
+
+        final ChallengeVerifier verifier = new ChallengeVerifier(1, TimeUnit.MINUTES);
+        //压测时所有请求来自同一个客户端，不限制次数
+        verifier.setMaxAttempts(Integer.MAX_VALUE, 1, TimeUnit.MINUTES);
+        VerifyHttpServer server = null;
+        URL verifyUrl = null;
+        if (isHttp) {
+            server = new VerifyHttpServer(null, verifier);
+            server.start(new InetSocketAddress("127.0.0.1", 0));
+            verifyUrl = new URL("http://127.0.0.1:" + server.getPort() + "/verify");
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i, verifier, verifyUrl, deadline, done);
+        }
+        long start = System.nanoTime();
+        for (Worker worker : workers) {
+            worker.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        if (server != null) {
+            server.stop();
+        }
+        verifier.close();
+        report(workers, elapsed, isHttp);
+    }
+
+    private static void report(Worker[] workers, long elapsedNanos, boolean isHttp) {
+        long total = 0;
+        long errors = 0;
+        int sampleCount = 0;
+        for (Worker worker : workers) {
+            total += worker.mCount;
+            errors += worker.mErrors;
+            sampleCount += worker.mSampleCount;
+        }
+        long[] samples = new long[sampleCount];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.mLatencies, 0, samples, offset, worker.mSampleCount);
+            offset += worker.mSampleCount;
+        }
+        Arrays.sort(samples);
+        System.out.println(String.format(Locale.US, "mode=%s threads=%d verifications=%d errors=%d",
+                isHttp ? "http" : "in-process", workers.length, total, errors));
+        System.out.println(String.format(Locale.US, "throughput=%.0f ops/s",
+                total * 1e9 / elapsedNanos));
+        System.out.println(String.format(Locale.US, "latency p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                percentile(samples, 0.5) / 1e3, percentile(samples, 0.99) / 1e3,
+                percentile(samples, 0.999) / 1e3, samples.length == 0 ? 0 : samples[samples.length - 1] / 1e3));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static final class Worker extends Thread {
+        private final int mIndex;
+        private final ChallengeVerifier mVerifier;
+        private final URL mVerifyUrl;
+        private final long mDeadline;
+        private final CountDownLatch mDone;
+        private final long[] mLatencies = new long[MAX_SAMPLES_PER_THREAD];
+        private int mSampleCount;
+        private long mCount;
+        private long mErrors;
+
+        Worker(int index, ChallengeVerifier verifier, URL verifyUrl, long deadline, CountDownLatch done) {
+            super("VerifyLoadRunner-" + index);
+            mIndex = index;
+            mVerifier = verifier;
+            mVerifyUrl = verifyUrl;
+            mDeadline = deadline;
+            mDone = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < mDeadline) {
+                    String token = "load-" + mIndex + "-" + mCount;
+                    float target = 50 + (mCount % 400);
+                    mVerifier.register(token, BLOCK, BLOCK, target, target);
+                    //一半正确一半错误
+                    float position = (mCount & 1) == 0 ? target : target + BLOCK;
+                    long begin = System.nanoTime();
+                    ChallengeVerifier.Result result = mVerifyUrl == null
+                            ? mVerifier.verify(token, null, position, position)
+                            : verifyOverHttp(token, position);
+                    long latency = System.nanoTime() - begin;
+                    ChallengeVerifier.Result expected = (mCount & 1) == 0
+                            ? ChallengeVerifier.Result.SUCCESS : ChallengeVerifier.Result.FAILED;
+                    if (result != expected) {
+                        mErrors++;
+                    }
+                    if (mSampleCount < mLatencies.length) {
+                        mLatencies[mSampleCount++] = latency;
+                    }
+                    mCount++;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                mDone.countDown();
+            }
+        }
+
+        private ChallengeVerifier.Result verifyOverHttp(String token, float position) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) mVerifyUrl.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            byte[] body = ("token=" + token + "&x=" + position + "&y=" + position).getBytes(UTF_8);
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+            InputStream in = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            StringBuilder response = new StringBuilder();
+            try {
+                int b;
+                while ((b = in.read()) != -1) {
+                    response.append((char) b);
+                }
+            } finally {
+                in.close();
+            }
+            for (ChallengeVerifier.Result result : ChallengeVerifier.Result.values()) {
+                if (response.indexOf("\"" + result.name() + "\"") >= 0) {
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+}
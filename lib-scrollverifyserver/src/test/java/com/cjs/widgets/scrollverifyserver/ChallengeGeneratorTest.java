@@ -0,0 +1,85 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ChallengeGenerator}的本地单元测试
+ */
+public class ChallengeGeneratorTest {
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 300;
+    private static final int PADDING = 15;
+
+    private static BufferedImage createBackground() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, (x * 255 / WIDTH) << 16 | (y * 255 / HEIGHT) << 8 | 0x80);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void horizontalChallengeInsideBounds() throws IOException {
+        ChallengeGenerator generator = new ChallengeGenerator();
+        generator.setScrollMode(PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL);
+        generator.setPadding(PADDING);
+        generator.setRandomRotate(true);
+        BufferedImage background = createBackground();
+        for (int i = 0; i < 20; i++) {
+            Challenge challenge = generator.generate(background);
+            assertEquals(WIDTH / 6, challenge.getBlockWidth());
+            assertEquals(HEIGHT / 4, challenge.getBlockHeight());
+            assertEquals(challenge.getStartY(), challenge.getTargetY(), 0.5f);
+            assertTrue(challenge.getTargetX() >= PADDING);
+            assertTrue(challenge.getTargetX() + challenge.getBlockWidth() <= WIDTH - PADDING);
+            assertTrue(challenge.getRotateDegree() >= 0 && challenge.getRotateDegree() < 270);
+        }
+    }
+
+    @Test
+    public void encodesBothImages() throws IOException {
+        ChallengeGenerator generator = new ChallengeGenerator();
+        generator.setBlockSize(90, 80);
+        Challenge challenge = generator.generate(createBackground());
+        BufferedImage hole = ImageIO.read(new ByteArrayInputStream(challenge.getBackgroundImage()));
+        BufferedImage piece = ImageIO.read(new ByteArrayInputStream(challenge.getPieceImage()));
+        assertEquals(WIDTH, hole.getWidth());
+        assertEquals(HEIGHT, hole.getHeight());
+        assertEquals(90, piece.getWidth());
+        assertEquals(80, piece.getHeight());
+        assertTrue(piece.getColorModel().hasAlpha());
+    }
+
+    @Test
+    public void idsAreUnique() throws IOException {
+        ChallengeGenerator generator = new ChallengeGenerator();
+        generator.setBackgroundFormat("png");
+        BufferedImage background = createBackground();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ids.add(generator.generate(background).getId()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooSmallBackground() throws IOException {
+        ChallengeGenerator generator = new ChallengeGenerator();
+        generator.setBlockSize(90, 80);
+        generator.generate(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB));
+    }
+}
@@ -0,0 +1,41 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ChallengePool}的本地单元测试
+ */
+public class ChallengePoolTest {
+
+    @Test
+    public void fillsUpToCapacity() throws InterruptedException {
+        BackgroundCorpus corpus = BackgroundCorpus.fromImages(
+                Collections.singletonList(new BufferedImage(320, 160, BufferedImage.TYPE_INT_RGB)), 320, 160);
+        ChallengeGenerator generator = new ChallengeGenerator();
+        generator.setBackgroundFormat("png");
+        ChallengePool pool = new ChallengePool(generator, corpus, 4, 2);
+        pool.start();
+        try {
+            assertNotNull(pool.poll(10, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 10000;
+            while (pool.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, pool.size());
+            assertEquals(4, pool.getCapacity());
+            assertEquals(0, pool.getFailedCount());
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertNotNull(pool.poll());
+    }
+}
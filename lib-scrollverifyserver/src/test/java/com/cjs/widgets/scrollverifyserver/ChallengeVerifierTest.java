@@ -0,0 +1,117 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ChallengeVerifier}的本地单元测试
+ */
+public class ChallengeVerifierTest {
+    private ChallengeVerifier mVerifier;
+
+    @Before
+    public void setUp() {
+        mVerifier = new ChallengeVerifier(1, TimeUnit.MINUTES);
+        mVerifier.setValidOffset(3);
+    }
+
+    @After
+    public void tearDown() {
+        mVerifier.close();
+    }
+
+    @Test
+    public void verifyUsesValidOffset() {
+        mVerifier.register("a", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.SUCCESS, mVerifier.verify("a", null, 203, 50));
+        mVerifier.register("b", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.SUCCESS, mVerifier.verify("b", null, 198, 52));
+        //按真实距离比较，不像客户端那样放宽到2倍
+        mVerifier.register("c", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.FAILED, mVerifier.verify("c", null, 204, 50));
+        mVerifier.register("d", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.FAILED, mVerifier.verify("d", null, 203, 53));
+    }
+
+    @Test
+    public void tokenIsSingleUse() {
+        mVerifier.register("a", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.FAILED, mVerifier.verify("a", null, 0, 0));
+        assertEquals(ChallengeVerifier.Result.INVALID_TOKEN, mVerifier.verify("a", null, 200, 50));
+        assertEquals(ChallengeVerifier.Result.INVALID_TOKEN, mVerifier.verify("unknown", null, 200, 50));
+        assertEquals(0, mVerifier.size());
+    }
+
+    @Test
+    public void expiredTokensAreRejectedAndReclaimed() throws InterruptedException {
+        ChallengeVerifier verifier = new ChallengeVerifier(50, TimeUnit.MILLISECONDS);
+        try {
+            verifier.register("a", 100, 100, 200, 50);
+            verifier.register("b", 100, 100, 200, 50);
+            Thread.sleep(80);
+            assertEquals(ChallengeVerifier.Result.INVALID_TOKEN, verifier.verify("a", null, 200, 50));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (verifier.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, verifier.size());
+            assertEquals(2, verifier.getExpiredCount());
+        } finally {
+            verifier.close();
+        }
+    }
+
+    @Test
+    public void limitsAttemptsPerClient() {
+        mVerifier.setMaxAttempts(2, 1, TimeUnit.MINUTES);
+        mVerifier.register("a", 100, 100, 200, 50);
+        mVerifier.register("b", 100, 100, 200, 50);
+        mVerifier.register("c", 100, 100, 200, 50);
+        assertEquals(ChallengeVerifier.Result.FAILED, mVerifier.verify("a", "client", 0, 0));
+        assertEquals(ChallengeVerifier.Result.FAILED, mVerifier.verify("b", "client", 0, 0));
+        assertEquals(ChallengeVerifier.Result.TOO_MANY_ATTEMPTS, mVerifier.verify("c", "client", 200, 50));
+        //超出次数时不消耗令牌
+        assertEquals(ChallengeVerifier.Result.SUCCESS, mVerifier.verify("c", "other", 200, 50));
+    }
+
+    @Test
+    public void verifyOverHttp() throws Exception {
+        VerifyHttpServer server = new VerifyHttpServer(null, mVerifier);
+        server.start(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            mVerifier.register("a", 100, 100, 200, 50);
+            URL url = new URL("http://127.0.0.1:" + server.getPort() + "/verify");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            OutputStream out = connection.getOutputStream();
+            out.write("token=a&x=201&y=50".getBytes("UTF-8"));
+            out.close();
+            assertEquals(200, connection.getResponseCode());
+            InputStream in = connection.getInputStream();
+            StringBuilder body = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1) {
+                body.append((char) b);
+            }
+            in.close();
+            assertTrue(body.toString(), body.toString().contains("SUCCESS"));
+
+            HttpURLConnection challenge = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/challenge").openConnection();
+            assertEquals(503, challenge.getResponseCode());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cjs.widgets.scrollverifyserver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TimingWheel}的本地单元测试
+ */
+public class TimingWheelTest {
+
+    @Test
+    public void expiresInDeadlineOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        wheel.add("a", 2);
+        wheel.add("b", 5);
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(1, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advanceTo(3, expired);
+        assertEquals(Arrays.asList("a"), expired);
+        wheel.advanceTo(5, expired);
+        assertEquals(Arrays.asList("a", "b"), expired);
+    }
+
+    @Test
+    public void keepsElementsBeyondOneRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        wheel.add("far", 20);
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(12, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advanceTo(19, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advanceTo(20, expired);
+        assertEquals(Arrays.asList("far"), expired);
+    }
+
+    @Test
+    public void pastDeadlineExpiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(100, expired);
+        wheel.add("late", 3);
+        wheel.advanceTo(101, expired);
+        assertEquals(Arrays.asList("late"), expired);
+    }
+
+    @Test
+    public void concurrentAddNeverMissesNextAdvance() throws InterruptedException {
+        final int count = 200000;
+        final TimingWheel<Integer> wheel = new TimingWheel<>(8, 0);
+        Thread adder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    //已经过去的刻度，添加的同时推进线程在不断越过各个槽
+                    wheel.add(i, 0);
+                }
+            }
+        });
+        List<Integer> expired = new ArrayList<>();
+        long tick = 0;
+        adder.start();
+        while (adder.isAlive()) {
+            wheel.advanceTo(++tick, expired);
+        }
+        adder.join();
+        //添加全部完成后只推进一个刻度，每个元素都必须到期，不能留在已经检查过的槽里等下一圈
+        wheel.advanceTo(++tick, expired);
+        assertEquals(count, expired.size());
+    }
+}
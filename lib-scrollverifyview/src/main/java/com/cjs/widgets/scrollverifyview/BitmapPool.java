@@ -0,0 +1,167 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.ArrayList;
+
+/**
+ * 描述:位图复用池
+ * <p>
+ * 按(宽, 高, 格式)复用可变位图。每次重置拼图时背景、截取的背景块和两个滑块位图的尺寸通常不变，
+ * 旧的位图放回池中后，下一次直接在原位图上重新绘制，不再重新分配内存，从而减少反复显示验证码时的GC。
+ * 池中位图的总字节数不会超过上限，超出时先丢弃最久没有使用的位图。
+ * <p>
+ * 该类是线程安全的，默认实例{@link #getDefault()}由同一进程内的所有控件共享。
+ * <p>
+ * 创建时间:2026年10月18日 18:00
+ *
+ * @version 1.0
+ */
+public final class BitmapPool {
+    /**
+     * 默认上限的最大值，8MB大约能放下两张1080x540的ARGB_8888背景和若干滑块
+     */
+    private static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+    private static BitmapPool sDefault;
+    /**
+     * 按放入的先后顺序保存，越靠后越新。池中位图数量很少，线性查找比维护哈希表更省内存也不会产生装箱对象
+     */
+    private final ArrayList<Bitmap> mBitmaps = new ArrayList<>();
+    private long mMaxBytes;
+    private long mCurrentBytes;
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param maxBytes 池中位图总字节数的上限
+     */
+    public BitmapPool(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * 获取进程内共享的位图池，上限为可用堆内存的1/16，且不超过8MB
+     *
+     * @return
+     */
+    public static synchronized BitmapPool getDefault() {
+        if (sDefault == null) {
+            sDefault = new BitmapPool(Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 16));
+        }
+        return sDefault;
+    }
+
+    /**
+     * 获取一张指定尺寸和格式的可变位图。池中有同样规格的位图时直接复用并清空为透明，否则新建
+     *
+     * @param width  宽度
+     * @param height 高度
+     * @param config 格式
+     * @return 内容为全透明的位图
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = null;
+        synchronized (this) {
+            for (int i = mBitmaps.size() - 1; i >= 0; i--) {
+                Bitmap candidate = mBitmaps.get(i);
+                if (candidate.getWidth() == width && candidate.getHeight() == height && candidate.getConfig() == config) {
+                    mBitmaps.remove(i);
+                    mCurrentBytes -= candidate.getByteCount();
+                    bitmap = candidate;
+                    break;
+                }
+            }
+            if (bitmap == null) {
+                mMissCount++;
+            } else {
+                mHitCount++;
+            }
+        }
+        if (bitmap == null) {
+            return Bitmap.createBitmap(width, height, config);
+        }
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * 归还不再使用的位图。调用之后调用方不能再持有或者绘制该位图
+     *
+     * @param bitmap 为空、已回收或者不可变的位图会被忽略
+     */
+    public void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        int size = bitmap.getByteCount();
+        synchronized (this) {
+            if (size > mMaxBytes || mBitmaps.contains(bitmap)) {
+                return;
+            }
+            mBitmaps.add(bitmap);
+            mCurrentBytes += size;
+            trimToSize(mMaxBytes);
+        }
+    }
+
+    /**
+     * 丢弃最久没有使用的位图，直到总字节数不超过指定大小
+     *
+     * @param maxBytes 字节数
+     */
+    public synchronized void trimToSize(long maxBytes) {
+        while (mCurrentBytes > maxBytes && !mBitmaps.isEmpty()) {
+            Bitmap eldest = mBitmaps.remove(0);
+            mCurrentBytes -= eldest.getByteCount();
+        }
+    }
+
+    /**
+     * 清空位图池
+     */
+    public void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * 设置池中位图总字节数的上限，变小时立即丢弃多出来的位图
+     *
+     * @param maxBytes
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        mMaxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * 获取池中位图当前的总字节数
+     *
+     * @return
+     */
+    public synchronized long getCurrentBytes() {
+        return mCurrentBytes;
+    }
+
+    /**
+     * 获取复用成功的次数
+     *
+     * @return
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * 获取没有可复用的位图而新建的次数
+     *
+     * @return
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+}
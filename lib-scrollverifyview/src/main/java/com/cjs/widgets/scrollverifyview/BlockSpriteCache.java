@@ -0,0 +1,219 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.support.v4.os.TraceCompat;
+
+/**
+ * 描述:滑块精灵图缓存
+ * <p>
+ * 目标滑块和可移动滑块的位图只和滑块形状位图、滑块尺寸、旋转角度以及截取的背景块有关，这些参数不变时没有必要每一帧都重新生成。
+ * 该类在参数变化(或者被{@link #invalidate()})时才重新生成两个滑块位图，其余时候直接复用，并记录命中和未命中的次数。
+ * 缩放旋转后的形状遮罩来自进程内共享的{@link MaskCache}(旋转角度量化时来自{@link RotationAtlas})，目标滑块直接使用共享的遮罩；
+ * 可移动滑块需要叠加背景块，从{@link BitmapPool}取出位图后复制遮罩再合成，重新生成时旧的可移动滑块位图放回池中。
+ * <p>
+ * 创建时间:2026年10月18日 10:20
+ *
+ * @version 1.0
+ */
+class BlockSpriteCache {
+    /**
+     * 目标滑块位图，来自{@link MaskCache}，由多个控件共享，不能修改也不能放回位图池
+     */
+    private Bitmap mTargetSprite;
+    /**
+     * 可移动滑块位图
+     */
+    private Bitmap mMovableSprite;
+    /**
+     * 以下为生成当前缓存时使用的参数，任意一个发生变化都需要重新生成
+     */
+    private Bitmap mTargetMask;
+    private Bitmap mMovableMask;
+    private Bitmap mMovableSrcBitmap;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private boolean isRotate;
+    private float mRotateDegree;
+    /**
+     * 缓存是否有效
+     */
+    private boolean isValid;
+    /**
+     * 缓存命中次数
+     */
+    private int mHitCount;
+    /**
+     * 缓存未命中(重新生成)次数
+     */
+    private int mMissCount;
+    /**
+     * 合成可移动滑块时复用的画笔、画布和区域
+     */
+    private final Paint mComposePaint;
+    private final PorterDuffXfermode mMultiplyMode = new PorterDuffXfermode(PorterDuff.Mode.MULTIPLY);
+    private final Canvas mComposeCanvas = new Canvas();
+    private final Rect mBlockRect = new Rect();
+    private final BitmapPool mPool;
+    private final MaskCache mMaskCache;
+    private final RotationAtlas mRotationAtlas;
+    /**
+     * 生成遮罩和合成滑块时是否开启过滤、抗锯齿和抖动，关闭后只影响之后重新生成的滑块
+     */
+    private boolean isSmooth = true;
+
+    /**
+     * @param pool          可移动滑块位图从该位图池中获取
+     * @param maskCache     缩放旋转后的遮罩从该缓存中获取
+     * @param rotationAtlas 量化旋转角度的图集，旋转角度在档位上时优先从图集按序号获取遮罩
+     */
+    BlockSpriteCache(BitmapPool pool, MaskCache maskCache, RotationAtlas rotationAtlas) {
+        mPool = pool;
+        mMaskCache = maskCache;
+        mRotationAtlas = rotationAtlas;
+        mComposePaint = new Paint();
+        mComposePaint.setAntiAlias(true);
+        mComposePaint.setDither(true);
+    }
+
+    /**
+     * 确保缓存的滑块位图与传入参数一致，不一致时重新生成
+     *
+     * @param targetMask       目标滑块形状位图
+     * @param movableMask      可移动滑块形状位图
+     * @param movableSrcBitmap 从背景图上截取的和滑块同样大小的位图
+     * @param blockWidth       滑块宽度
+     * @param blockHeight      滑块高度
+     * @param rotate           是否旋转
+     * @param rotateDegree     旋转角度
+     * @return true-命中缓存  false-重新生成了滑块位图
+     */
+    boolean update(Bitmap targetMask, Bitmap movableMask, Bitmap movableSrcBitmap,
+                   int blockWidth, int blockHeight, boolean rotate, float rotateDegree) {
+        if (isValid
+                && mTargetMask == targetMask
+                && mMovableMask == movableMask
+                && mMovableSrcBitmap == movableSrcBitmap
+                && mBlockWidth == blockWidth
+                && mBlockHeight == blockHeight
+                && isRotate == rotate
+                && (!rotate || mRotateDegree == rotateDegree)) {
+            mHitCount++;
+            return true;
+        }
+        mMissCount++;
+        mTargetMask = targetMask;
+        mMovableMask = movableMask;
+        mMovableSrcBitmap = movableSrcBitmap;
+        mBlockWidth = blockWidth;
+        mBlockHeight = blockHeight;
+        isRotate = rotate;
+        mRotateDegree = rotateDegree;
+        release();
+        TraceCompat.beginSection("ScrollVerify#maskTransform");
+        mTargetSprite = getScaledMask(targetMask);
+        mMovableSprite = composeMovable(getScaledMask(movableMask), movableSrcBitmap);
+        TraceCompat.endSection();
+        isValid = true;
+        return false;
+    }
+
+    /**
+     * 直接使用另一个缓存(通常是后台预先生成的)中的滑块位图和对应参数，不计入命中和未命中次数
+     *
+     * @param other 已经生成过滑块位图的缓存
+     */
+    void adopt(BlockSpriteCache other) {
+        release();
+        mTargetMask = other.mTargetMask;
+        mMovableMask = other.mMovableMask;
+        mMovableSrcBitmap = other.mMovableSrcBitmap;
+        mBlockWidth = other.mBlockWidth;
+        mBlockHeight = other.mBlockHeight;
+        isRotate = other.isRotate;
+        mRotateDegree = other.mRotateDegree;
+        mTargetSprite = other.mTargetSprite;
+        mMovableSprite = other.mMovableSprite;
+        isValid = other.isValid;
+    }
+
+    /**
+     * 将可移动滑块位图放回位图池，之后缓存失效。目标滑块位图是共享的，只释放引用
+     */
+    void release() {
+        mPool.put(mMovableSprite);
+        mTargetSprite = null;
+        mMovableSprite = null;
+        isValid = false;
+    }
+
+    /**
+     * 使缓存失效，下次{@link #update}时会重新生成
+     */
+    void invalidate() {
+        isValid = false;
+    }
+
+    /**
+     * 设置生成滑块时是否平滑处理。图集中已经生成的遮罩是平滑的，关闭后仍然直接使用
+     *
+     * @param smooth true-开启过滤、抗锯齿和抖动  false-关闭
+     */
+    void setSmooth(boolean smooth) {
+        isSmooth = smooth;
+        mComposePaint.setAntiAlias(smooth);
+        mComposePaint.setDither(smooth);
+        mComposePaint.setFilterBitmap(smooth);
+    }
+
+    Bitmap getTargetSprite() {
+        return mTargetSprite;
+    }
+
+    Bitmap getMovableSprite() {
+        return mMovableSprite;
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * 获取缩放(旋转)到滑块尺寸的共享形状遮罩
+     */
+    private Bitmap getScaledMask(Bitmap mask) {
+        if (isRotate) {
+            Bitmap quantized = mRotationAtlas.get(mask, mBlockWidth, mBlockHeight, mRotateDegree);
+            if (quantized != null) {
+                return quantized;
+            }
+        }
+        //旋转后再缩放回滑块尺寸，避免旋转角度后滑块图像变形
+        return mMaskCache.getScaledMask(mask, mBlockWidth, mBlockHeight, isRotate ? mRotateDegree : 0, isSmooth);
+    }
+
+    /**
+     * 复制共享的形状遮罩，在其上以{@link PorterDuff.Mode#MULTIPLY}叠加背景块，得到可移动滑块
+     */
+    private Bitmap composeMovable(Bitmap sharedMask, Bitmap srcBitmap) {
+        Bitmap mask = mPool.get(mBlockWidth, mBlockHeight, Bitmap.Config.ARGB_8888);
+        mBlockRect.set(0, 0, mBlockWidth, mBlockHeight);
+        mComposeCanvas.setBitmap(mask);
+        //从池中取出的位图已经清空为透明，直接画上遮罩即可
+        mComposeCanvas.drawBitmap(sharedMask, 0, 0, null);
+        // 选择交集去上层图片
+        mComposePaint.setXfermode(mMultiplyMode);
+        mComposeCanvas.drawBitmap(srcBitmap, mBlockRect, mBlockRect, mComposePaint);
+        mComposePaint.setXfermode(null);
+        mComposeCanvas.setBitmap(null);
+        return mask;
+    }
+}
@@ -0,0 +1,179 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.UiThread;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import com.cjs.widgets.scrollverifyengine.FrameStats;
+import com.cjs.widgets.scrollverifyengine.FrameTimeHistogram;
+
+/**
+ * 描述:拖拽期间的帧耗时采集
+ * <p>
+ * API 24及以上并且拿得到窗口时，通过{@link Window.OnFrameMetricsAvailableListener}读取每一帧的总耗时，
+ * 卡顿阈值为一个刷新间隔，系统来不及上报而丢失的帧计为卡顿帧；更低的版本用{@link Choreographer}相邻两帧的时间差代替，
+ * 卡顿阈值为1.5个刷新间隔。两种方式都只在采集期间注册，不拖拽时不会每帧回调。
+ * 耗时记录在预先分配的{@link FrameTimeHistogram}中，每一帧不创建任何对象，采集本身不会引起卡顿。
+ * FrameMetrics的回调投递到主线程，直方图只在主线程访问。
+ * <p>
+ * 帧耗时统计的是整个窗口，拖拽期间控件每次移动都会重绘，这些帧基本就是控件自己的帧。
+ * <p>
+ * 创建时间:2026年10月19日 00:30
+ *
+ * @version 1.0
+ */
+final class DragFrameCollector implements Choreographer.FrameCallback {
+    private final FrameTimeHistogram mHistogram = new FrameTimeHistogram();
+    /**
+     * API 24及以上的帧数据监听，第一次采集时创建，之后复用
+     */
+    private Object mFrameMetricsListener;
+    private Handler mMainHandler;
+    /**
+     * 控件所在的窗口，只在API 24及以上保存
+     */
+    private Window mWindow;
+    private boolean isCollecting;
+    /**
+     * 本次采集是否在窗口上注册了帧数据监听
+     */
+    private boolean isUsingFrameMetrics;
+    private long mLastFrameTimeNanos;
+
+    /**
+     * 控件依附到窗口时调用，只记录窗口，采集开始时才注册帧数据监听
+     *
+     * @param window 控件所在的窗口，拿不到时为空，此时使用Choreographer
+     */
+    @UiThread
+    void attach(Window window) {
+        detach();
+        if (window == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            return;
+        }
+        mWindow = window;
+    }
+
+    /**
+     * 控件离开窗口时调用，停止采集
+     */
+    @UiThread
+    void detach() {
+        stop();
+        mWindow = null;
+    }
+
+    /**
+     * 开始一次采集
+     *
+     * @param refreshRate 显示刷新率(Hz)，用于计算卡顿阈值
+     */
+    @UiThread
+    void start(float refreshRate) {
+        long frameIntervalNanos = (long) (1000_000_000L / (refreshRate > 0 ? refreshRate : 60f));
+        if (!isCollecting) {
+            isUsingFrameMetrics = mWindow != null;
+            if (isUsingFrameMetrics) {
+                addFrameMetricsListener();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+        //Choreographer的帧间隔围绕刷新间隔抖动，阈值放宽一些
+        mHistogram.reset(isUsingFrameMetrics ? frameIntervalNanos : frameIntervalNanos * 3 / 2);
+        mLastFrameTimeNanos = -1;
+        isCollecting = true;
+    }
+
+    /**
+     * 记录一次控件绘制的耗时，没有在采集时忽略
+     *
+     * @param drawNanos 绘制耗时(纳秒)
+     */
+    @UiThread
+    void recordDraw(long drawNanos) {
+        if (isCollecting) {
+            mHistogram.recordDraw(drawNanos);
+        }
+    }
+
+    boolean isCollecting() {
+        return isCollecting;
+    }
+
+    /**
+     * 结束采集
+     *
+     * @return 本次采集的摘要，没有采集到任何帧时为空
+     */
+    @UiThread
+    FrameStats stop() {
+        if (!isCollecting) {
+            return null;
+        }
+        isCollecting = false;
+        if (isUsingFrameMetrics) {
+            removeFrameMetricsListener();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+        return mHistogram.getFrameCount() > 0 ? mHistogram.summarize() : null;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isCollecting) {
+            return;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+        if (mLastFrameTimeNanos >= 0) {
+            mHistogram.recordFrame(frameTimeNanos - mLastFrameTimeNanos);
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private void addFrameMetricsListener() {
+        if (mFrameMetricsListener == null) {
+            mFrameMetricsListener = new FrameMetricsListener(this);
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+        mWindow.addOnFrameMetricsAvailableListener((Window.OnFrameMetricsAvailableListener) mFrameMetricsListener, mMainHandler);
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private void removeFrameMetricsListener() {
+        mWindow.removeOnFrameMetricsAvailableListener((Window.OnFrameMetricsAvailableListener) mFrameMetricsListener);
+    }
+
+    private void onFrameMetrics(FrameMetrics frameMetrics, int dropCount) {
+        if (isCollecting && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            mHistogram.recordFrame(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+            //主线程来不及处理时系统会丢弃上报，这些帧的耗时未知，按卡顿帧计入
+            mHistogram.recordDroppedFrames(dropCount);
+        }
+    }
+
+    /**
+     * 单独的类，API 24以下不会加载{@link Window.OnFrameMetricsAvailableListener}
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private static final class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener {
+        private final DragFrameCollector mCollector;
+
+        FrameMetricsListener(DragFrameCollector collector) {
+            mCollector = collector;
+        }
+
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+            mCollector.onFrameMetrics(frameMetrics, dropCountSinceLastInvocation);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.annotation.UiThread;
+import android.view.Choreographer;
+
+import com.cjs.widgets.scrollverifyengine.FrameDropDetector;
+
+/**
+ * 描述:拖拽期间的掉帧监测
+ * <p>
+ * 开始后每一帧都通过{@link Choreographer}重新注册回调，把帧时间交给{@link FrameDropDetector}统计。
+ * 回调本身会请求下一次垂直同步，因此手指停住不动时也能测到主线程的卡顿。持续掉帧时通知控件降低绘制质量。
+ * <p>
+ * 只能在主线程使用。
+ * <p>
+ * 创建时间:2026年10月18日 23:50
+ *
+ * @version 1.0
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class FrameDropMonitor implements Choreographer.FrameCallback {
+    /**
+     * 持续掉帧的通知
+     */
+    interface Callback {
+        /**
+         * @param droppedFrames  刚刚结束的统计窗口内的掉帧数
+         * @param expectedFrames 刚刚结束的统计窗口内的垂直同步周期数
+         */
+        void onSustainedFrameDrops(int droppedFrames, int expectedFrames);
+    }
+
+    private final Callback mCallback;
+    private FrameDropDetector mDetector;
+    private long mFrameIntervalNanos;
+    private boolean isRunning;
+
+    FrameDropMonitor(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * 开始监测，已经在监测时重新开始统计
+     *
+     * @param refreshRate 显示刷新率(Hz)
+     */
+    @UiThread
+    void start(float refreshRate) {
+        long frameIntervalNanos = (long) (1000_000_000L / (refreshRate > 0 ? refreshRate : 60f));
+        if (mDetector == null || frameIntervalNanos != mFrameIntervalNanos) {
+            mFrameIntervalNanos = frameIntervalNanos;
+            mDetector = new FrameDropDetector(frameIntervalNanos);
+        } else {
+            mDetector.reset();
+        }
+        if (!isRunning) {
+            isRunning = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 停止监测
+     */
+    @UiThread
+    void stop() {
+        if (isRunning) {
+            isRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isRunning) {
+            return;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+        if (mDetector.onFrame(frameTimeNanos)) {
+            mCallback.onSustainedFrameDrops(mDetector.getLastDroppedFrames(), mDetector.getLastExpectedFrames());
+        }
+    }
+}
@@ -4,6 +4,9 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
@@ -54,6 +57,79 @@ public class GraphicTools {
         return Bitmap.createBitmap(bmp, 0, 0, bmpWidth, bmpHeight, matrix, true);
     }
 
+    /**
+     * 将原图拉伸绘制到目标位图上，效果等同于{@link #scaleSetBitmap(Bitmap, float, float)}，但不分配新的位图
+     *
+     * @param bmp 原图
+     * @param dst 目标位图，必须是可变的
+     * @return 目标位图
+     */
+    public static Bitmap scaleBitmapInto(Bitmap bmp, Bitmap dst) {
+        validBmp(bmp);
+        Canvas canvas = new Canvas(dst);
+        canvas.drawBitmap(bmp, null, new Rect(0, 0, dst.getWidth(), dst.getHeight()), new Paint(Paint.FILTER_BITMAP_FLAG));
+        return dst;
+    }
+
+    /**
+     * 从原图上截取一块绘制到目标位图上，效果等同于{@link Bitmap#createBitmap(Bitmap, int, int, int, int)}，但不分配新的位图
+     *
+     * @param bmp 原图
+     * @param x   截取区域左上角横坐标
+     * @param y   截取区域左上角纵坐标
+     * @param dst 目标位图，必须是可变的，截取区域的大小和目标位图相同
+     * @return 目标位图
+     */
+    public static Bitmap cropBitmapInto(Bitmap bmp, int x, int y, Bitmap dst) {
+        validBmp(bmp);
+        int width = dst.getWidth();
+        int height = dst.getHeight();
+        Canvas canvas = new Canvas(dst);
+        canvas.drawBitmap(bmp, new Rect(x, y, x + width, y + height), new Rect(0, 0, width, height), null);
+        return dst;
+    }
+
+    /**
+     * 将原图缩放到目标位图的大小，绕中心旋转后再缩放回目标位图的大小，一次绘制到目标位图上。
+     * 效果等同于依次调用{@link #scalePostBitmap}、{@link #rotatePostBitmap}、{@link #scalePostBitmap}，但不产生中间位图
+     *
+     * @param bmp    原图
+     * @param degree 旋转角度
+     * @param dst    目标位图，必须是可变的
+     * @return 目标位图
+     */
+    public static Bitmap scaleRotateBitmapInto(Bitmap bmp, float degree, Bitmap dst) {
+        return scaleRotateBitmapInto(bmp, degree, true, dst);
+    }
+
+    /**
+     * 同{@link #scaleRotateBitmapInto(Bitmap, float, Bitmap)}，可以关闭过滤和抗锯齿
+     *
+     * @param bmp    原图
+     * @param degree 旋转角度
+     * @param smooth true-开启双线性过滤和抗锯齿  false-关闭，更快但边缘有锯齿
+     * @param dst    目标位图，必须是可变的
+     * @return 目标位图
+     */
+    public static Bitmap scaleRotateBitmapInto(Bitmap bmp, float degree, boolean smooth, Bitmap dst) {
+        validBmp(bmp);
+        int width = dst.getWidth();
+        int height = dst.getHeight();
+        Matrix matrix = new Matrix();
+        matrix.setScale(((float) width) / bmp.getWidth(), ((float) height) / bmp.getHeight());
+        if (degree != 0) {
+            matrix.postRotate(degree, width / 2, height / 2);
+            //旋转后的外接矩形重新对齐到左上角并缩放回原大小
+            RectF bounds = new RectF(0, 0, width, height);
+            matrix.mapRect(bounds);
+            matrix.postTranslate(-bounds.left, -bounds.top);
+            matrix.postScale(width / bounds.width(), height / bounds.height());
+        }
+        Paint paint = new Paint(smooth ? Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG : 0);
+        new Canvas(dst).drawBitmap(bmp, matrix, paint);
+        return dst;
+    }
+
     private static void validBmp(Bitmap bmp) {
         if (bmp == null) {
             throw new IllegalArgumentException("传入矩阵变换的位图不能为空");
@@ -5,6 +5,9 @@ import android.util.Log;
 /**
  * 描述:简易日志工具类
  * <p>
+ * 关闭日志后{@link #d}和{@link #e}不做任何事，但调用方拼接字符串的开销仍然存在。
+ * 需要拼接的日志(尤其是在onDraw、onMeasure和触摸事件中)应先用{@link #isOpenLog()}判断。
+ * <p>
  * 作者:陈俊森
  * 创建时间:2018年05月11日 11:00
  * 邮箱:chenjunsen@outlook.com
@@ -12,17 +15,29 @@ import android.util.Log;
  * @version 1.0
  */
 public class L {
-    private boolean isOpenLog = true;
+    /**
+     * 后台预生成拼图的线程也会读取该值
+     */
+    private volatile boolean isOpenLog = true;
 
     public L(boolean isOpenLog) {
         this.isOpenLog = isOpenLog;
     }
 
+    public boolean isOpenLog() {
+        return isOpenLog;
+    }
+
+    public void setOpenLog(boolean openLog) {
+        isOpenLog = openLog;
+    }
+
     public void d(String tag, String msg) {
         if (isOpenLog) {
             Log.d(tag, msg);
         }
     }
+
     public void e(String tag, String msg) {
         if (isOpenLog) {
             Log.e(tag, msg);
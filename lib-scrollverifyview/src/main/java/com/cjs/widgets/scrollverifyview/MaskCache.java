@@ -0,0 +1,251 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.annotation.DrawableRes;
+import android.support.v4.util.LruCache;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 描述:进程内共享的滑块形状位图缓存
+ * <p>
+ * 缓存两类位图：按(资源id, 屏幕密度)光栅化的形状图片，以及按(形状来源, 滑块宽, 滑块高, 旋转角度, 是否平滑)缩放旋转后的形状遮罩。
+ * 形状图片来自资源时，遮罩的来源是资源id和屏幕密度，形状图片被淘汰后重新光栅化出的新位图仍然能命中原来的遮罩；
+ * 其它形状位图(例如通过代码设置的Drawable)以位图对象本身作为来源。
+ * 同一个进程中配置相同的多个控件拿到的是同一个位图对象，不再各自光栅化和缩放。
+ * 缓存按位图的字节数计算大小，超出上限时淘汰最久没有使用的位图。
+ * <p>
+ * 缓存中的位图由多个控件共享，都是不可变的位图，只能读取和绘制，也不能放回{@link BitmapPool}。
+ * 淘汰时不会回收位图，仍在使用的控件可以继续持有，没有控件引用后由GC回收。
+ * <p>
+ * 该类是线程安全的，后台预生成拼图时也可以使用。
+ * <p>
+ * 创建时间:2026年10月18日 22:40
+ *
+ * @version 1.0
+ */
+public final class MaskCache {
+    /**
+     * 默认上限的最大值，4MB大约能放下三十多组常见尺寸的滑块遮罩
+     */
+    private static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    private static MaskCache sDefault;
+
+    private final LruCache<Key, Bitmap> mCache;
+    /**
+     * 来自资源的形状图片对应的资源id和屏幕密度，不影响形状图片被回收
+     */
+    private final Map<Bitmap, MaskId> mMaskIds = new WeakHashMap<>();
+
+    /**
+     * @param maxBytes 缓存中位图总字节数的上限
+     */
+    public MaskCache(int maxBytes) {
+        mCache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * 获取进程内共享的缓存，上限为可用堆内存的1/32，且不超过4MB
+     *
+     * @return
+     */
+    public static synchronized MaskCache getDefault() {
+        if (sDefault == null) {
+            sDefault = new MaskCache((int) Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 32));
+        }
+        return sDefault;
+    }
+
+    /**
+     * 获取资源对应的形状位图，第一次获取时按当前的屏幕密度光栅化
+     *
+     * @param context
+     * @param drawableId 形状图片的资源id
+     * @return 共享的不可变位图
+     */
+    Bitmap getMask(Context context, @DrawableRes int drawableId) {
+        MaskId maskId = new MaskId(drawableId, context.getResources().getDisplayMetrics().densityDpi);
+        Key key = new Key(maskId, 0, 0, 0, true);
+        Bitmap mask = mCache.get(key);
+        if (mask == null) {
+            //BitmapDrawable直接返回它持有的位图，这里不回收，复制前的位图由GC回收
+            mask = toImmutable(GraphicTools.drawable2Bitmap(GraphicTools.getDrawable(context, drawableId)));
+            synchronized (mMaskIds) {
+                mMaskIds.put(mask, maskId);
+            }
+            mCache.put(key, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * 获取缩放(旋转)到滑块尺寸的形状遮罩，没有缓存时生成
+     *
+     * @param mask        形状位图
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     * @param degree      旋转角度，不旋转时传0
+     * @param smooth      缩放旋转时是否开启过滤和抗锯齿
+     * @return 共享的不可变位图
+     */
+    Bitmap getScaledMask(Bitmap mask, int blockWidth, int blockHeight, float degree, boolean smooth) {
+        Object source;
+        synchronized (mMaskIds) {
+            source = mMaskIds.get(mask);
+        }
+        Key key = new Key(source != null ? source : mask, blockWidth, blockHeight, degree, smooth);
+        Bitmap scaled = mCache.get(key);
+        if (scaled == null) {
+            //并发时可能重复生成，结果相同，后放入的覆盖先放入的即可
+            Bitmap drawn = GraphicTools.scaleRotateBitmapInto(mask, degree, smooth,
+                    Bitmap.createBitmap(blockWidth, blockHeight, Bitmap.Config.ARGB_8888));
+            scaled = toImmutable(drawn);
+            if (scaled != drawn) {
+                drawn.recycle();
+            }
+            mCache.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * 共享的位图放进缓存之前转为不可变的，避免被某个控件误改后影响其它控件
+     */
+    private static Bitmap toImmutable(Bitmap bitmap) {
+        if (!bitmap.isMutable()) {
+            return bitmap;
+        }
+        Bitmap.Config config = bitmap.getConfig();
+        return bitmap.copy(config != null ? config : Bitmap.Config.ARGB_8888, false);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    /**
+     * 淘汰最久没有使用的位图，直到总字节数不超过指定大小
+     *
+     * @param maxBytes
+     */
+    public void trimToSize(int maxBytes) {
+        mCache.trimToSize(maxBytes);
+    }
+
+    /**
+     * 获取缓存中位图当前的总字节数
+     *
+     * @return
+     */
+    public int getCurrentBytes() {
+        return mCache.size();
+    }
+
+    public int getMaxBytes() {
+        return mCache.maxSize();
+    }
+
+    /**
+     * 获取命中的次数
+     *
+     * @return
+     */
+    public int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    /**
+     * 获取没有命中而重新生成的次数
+     *
+     * @return
+     */
+    public int getMissCount() {
+        return mCache.missCount();
+    }
+
+    /**
+     * 来自资源的形状图片的来源
+     */
+    private static final class MaskId {
+        private final int mDrawableId;
+        private final int mDensityDpi;
+
+        MaskId(int drawableId, int densityDpi) {
+            mDrawableId = drawableId;
+            mDensityDpi = densityDpi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MaskId)) {
+                return false;
+            }
+            MaskId maskId = (MaskId) o;
+            return mDrawableId == maskId.mDrawableId && mDensityDpi == maskId.mDensityDpi;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mDrawableId + mDensityDpi;
+        }
+    }
+
+    /**
+     * 缓存的键。光栅化的形状图片以{@link MaskId}作为来源，宽高和角度为0；
+     * 缩放后的遮罩以形状图片的{@link MaskId}作为来源，形状图片不是来自资源时以位图对象作为来源
+     */
+    private static final class Key {
+        private final Object mSource;
+        private final int mWidth;
+        private final int mHeight;
+        private final float mDegree;
+        private final boolean isSmooth;
+
+        Key(Object source, int width, int height, float degree, boolean smooth) {
+            mSource = source;
+            mWidth = width;
+            mHeight = height;
+            mDegree = degree;
+            isSmooth = smooth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mWidth == key.mWidth
+                    && mHeight == key.mHeight
+                    && Float.compare(mDegree, key.mDegree) == 0
+                    && isSmooth == key.isSmooth
+                    && mSource.equals(key.mSource);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mSource.hashCode();
+            result = 31 * result + mWidth;
+            result = 31 * result + mHeight;
+            result = 31 * result + Float.floatToIntBits(mDegree);
+            result = 31 * result + (isSmooth ? 1 : 0);
+            return result;
+        }
+    }
+}
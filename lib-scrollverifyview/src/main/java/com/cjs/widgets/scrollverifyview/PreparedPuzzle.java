@@ -0,0 +1,156 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.annotation.WorkerThread;
+import android.support.v4.os.TraceCompat;
+
+import java.io.IOException;
+
+/**
+ * 描述:预先生成的拼图
+ * <p>
+ * 在主线程确定几何信息和输入的位图后，由{@link PuzzlePreparer}在后台线程完成背景缩放、滑块截取和滑块位图合成。
+ * 重置时如果输入条件(图片、尺寸、滑块大小和形状)没有变化，控件直接换上这个拼图，不再在主线程做任何位图处理。
+ * <p>
+ * 创建时间:2026年10月18日 15:30
+ *
+ * @version 1.0
+ */
+final class PreparedPuzzle {
+    /**
+     * 以下为输入条件，在主线程确定，只用于比较和读取
+     */
+    /**
+     * 背景图片来源，是ImageView的Drawable或者{@link PuzzleSource}
+     */
+    final Object source;
+    /**
+     * Drawable对应的原图，来源是{@link PuzzleSource}时为空
+     */
+    final Bitmap sourceBitmap;
+    final int width;
+    final int height;
+    final int blockWidth;
+    final int blockHeight;
+    final Bitmap targetMask;
+    final Bitmap movableMask;
+    /**
+     * 矢量滑块形状，不为空时不截取背景块，也不生成滑块位图
+     */
+    final PuzzleShape shape;
+    final boolean isRotate;
+    /**
+     * 位图相对控件像素的缩放比例，背景图、背景块和滑块位图都按该比例生成，几何信息仍是控件像素
+     */
+    final float renderScale;
+    /**
+     * 生成滑块时是否平滑处理，见{@link BlockSpriteCache#setSmooth(boolean)}
+     */
+    final boolean isSmooth;
+    final PuzzleGeometry geometry;
+    /**
+     * 与当前输入条件相同的已缩放背景图，不为空时后台直接复用，不再缩放
+     */
+    private final Bitmap mReusableBackBitmap;
+    private final BitmapPool mPool;
+    private final RotationAtlas mRotationAtlas;
+    private final Context mContext;
+    /**
+     * 以下为后台线程生成的结果
+     */
+    private Bitmap mBackBitmap;
+    private Bitmap mMovableSrcBitmap;
+    private BlockSpriteCache mSpriteCache;
+
+    PreparedPuzzle(BitmapPool pool, RotationAtlas rotationAtlas, Context context, Object source, Bitmap sourceBitmap, Bitmap reusableBackBitmap, int width, int height,
+                   int blockWidth, int blockHeight, Bitmap targetMask, Bitmap movableMask, PuzzleShape shape,
+                   boolean isRotate, float renderScale, boolean smooth, PuzzleGeometry geometry) {
+        mPool = pool;
+        mRotationAtlas = rotationAtlas;
+        mContext = context;
+        this.source = source;
+        this.sourceBitmap = sourceBitmap;
+        mReusableBackBitmap = reusableBackBitmap;
+        this.width = width;
+        this.height = height;
+        this.blockWidth = blockWidth;
+        this.blockHeight = blockHeight;
+        this.targetMask = targetMask;
+        this.movableMask = movableMask;
+        this.shape = shape;
+        this.isRotate = isRotate;
+        this.renderScale = renderScale;
+        this.isSmooth = smooth;
+        this.geometry = geometry;
+    }
+
+    /**
+     * 完成所有位图处理，在后台线程调用
+     */
+    @WorkerThread
+    void build() throws IOException {
+        TraceCompat.beginSection("ScrollVerify#preparePuzzle");
+        try {
+            buildBitmaps();
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private void buildBitmaps() throws IOException {
+        int renderWidth = ScrollVerifyView.toRenderSize(width, renderScale);
+        int renderHeight = ScrollVerifyView.toRenderSize(height, renderScale);
+        if (mReusableBackBitmap != null) {
+            mBackBitmap = mReusableBackBitmap;
+        } else if (source instanceof PuzzleSource) {
+            mBackBitmap = ((PuzzleSource) source).decode(mContext, renderWidth, renderHeight, mPool);
+        } else {
+            mBackBitmap = GraphicTools.scaleBitmapInto(sourceBitmap,
+                    mPool.get(renderWidth, renderHeight, ScrollVerifyView.getBackConfig(sourceBitmap)));
+        }
+        if (shape != null) {
+            return;
+        }
+        int renderBlockWidth = ScrollVerifyView.toRenderSize(blockWidth, renderScale);
+        int renderBlockHeight = ScrollVerifyView.toRenderSize(blockHeight, renderScale);
+        mMovableSrcBitmap = GraphicTools.cropBitmapInto(mBackBitmap,
+                (int) (geometry.getTargetX() * renderScale), (int) (geometry.getTargetY() * renderScale),
+                mPool.get(renderBlockWidth, renderBlockHeight, Bitmap.Config.ARGB_8888));
+        mSpriteCache = new BlockSpriteCache(mPool, MaskCache.getDefault(), mRotationAtlas);
+        mSpriteCache.setSmooth(isSmooth);
+        mSpriteCache.update(targetMask, movableMask, mMovableSrcBitmap, renderBlockWidth, renderBlockHeight, isRotate, geometry.rotateDegree);
+    }
+
+    /**
+     * 该拼图是否仍然适用于当前的输入条件
+     */
+    boolean matches(Object source, int width, int height, int blockWidth, int blockHeight,
+                    Bitmap targetMask, Bitmap movableMask, PuzzleShape shape, boolean isRotate, float renderScale) {
+        return this.source == source
+                && this.width == width
+                && this.height == height
+                && this.blockWidth == blockWidth
+                && this.blockHeight == blockHeight
+                && this.targetMask == targetMask
+                && this.movableMask == movableMask
+                && this.shape == shape
+                && this.isRotate == isRotate
+                && this.renderScale == renderScale;
+    }
+
+    Bitmap getBackBitmap() {
+        return mBackBitmap;
+    }
+
+    Bitmap getMovableSrcBitmap() {
+        return mMovableSrcBitmap;
+    }
+
+    /**
+     * @return 使用矢量滑块时为空
+     */
+    BlockSpriteCache getSpriteCache() {
+        return mSpriteCache;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cjs.widgets.scrollverifyview;
+
+import com.cjs.widgets.scrollverifyengine.PuzzleLayout;
+
+/**
+ * 描述:一次拼图的几何信息
+ * <p>
+ * 在{@link PuzzleLayout}的基础上加上旋转角度。生成拼图时先把起始滑块、目标滑块的位置和旋转角度算到该对象中，确认无误后再应用到控件上，
+ * 这样可以提前生成下一个拼图而不影响当前正在显示的拼图。
+ * <p>
+ * 创建时间:2026年10月18日 15:30
+ *
+ * @version 1.0
+ */
+final class PuzzleGeometry extends PuzzleLayout {
+    /**
+     * 滑块旋转角度
+     */
+    float rotateDegree;
+}
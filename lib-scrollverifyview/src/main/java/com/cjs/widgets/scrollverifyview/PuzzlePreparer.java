@@ -0,0 +1,185 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.UiThread;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 描述:拼图后台预生成器
+ * <p>
+ * 所有控件共用一个低优先级的后台线程完成位图处理，结果通过主线程Handler发布，因此{@link #takeReady()}
+ * 拿到的拼图在主线程可以安全使用。每次{@link #prepare(PreparedPuzzle)}或者{@link #cancel()}都会使之前
+ * 还没有完成的任务作废，过期的结果到达主线程时直接丢弃。当前任务完成(无论成功与否)后在主线程通知控件，
+ * 等待拼图的控件借此重新绘制。除了后台任务本身，该类的方法都只能在主线程调用。
+ * <p>
+ * 创建时间:2026年10月18日 15:30
+ *
+ * @version 1.0
+ */
+class PuzzlePreparer {
+    private static final String TAG = "PuzzlePreparer";
+    /**
+     * 所有控件共用的后台线程
+     */
+    private static ExecutorService sExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final L l;
+    /**
+     * 当前任务完成后在主线程执行
+     */
+    private final Runnable mOnFinished;
+    /**
+     * 任务代数，每次提交新任务或者取消时加一，后台结果的代数不一致就是过期结果
+     */
+    private int mGeneration;
+    /**
+     * 正在后台生成的拼图
+     */
+    private PreparedPuzzle mPreparingPuzzle;
+    /**
+     * 已经提交但结果还没有回到主线程的任务数，包括已经作废但仍在后台执行的任务
+     */
+    private int mRunningCount;
+    /**
+     * 已经生成完毕，等待使用的拼图
+     */
+    private PreparedPuzzle mReadyPuzzle;
+    /**
+     * 最近一次生成失败的拼图，控件据此避免按同样的条件反复重试
+     */
+    private PreparedPuzzle mFailedPuzzle;
+
+    /**
+     * @param l          日志
+     * @param onFinished 当前任务完成后在主线程执行，作废的任务不会触发
+     */
+    PuzzlePreparer(L l, Runnable onFinished) {
+        this.l = l;
+        mOnFinished = onFinished;
+    }
+
+    /**
+     * 在后台生成拼图，会取代之前还没有完成的任务和还没有使用的拼图
+     */
+    @UiThread
+    void prepare(final PreparedPuzzle puzzle) {
+        final int generation = ++mGeneration;
+        mReadyPuzzle = null;
+        mFailedPuzzle = null;
+        mPreparingPuzzle = puzzle;
+        mRunningCount++;
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean success;
+                try {
+                    puzzle.build();
+                    success = true;
+                } catch (IOException | RuntimeException e) {
+                    l.e(TAG, "预生成拼图失败:" + e);
+                    success = false;
+                }
+                final boolean isSuccess = success;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mRunningCount--;
+                        if (generation != mGeneration) {
+                            //期间输入条件变化或者又提交了新任务，丢弃过期结果
+                            return;
+                        }
+                        mPreparingPuzzle = null;
+                        mReadyPuzzle = isSuccess ? puzzle : null;
+                        mFailedPuzzle = isSuccess ? null : puzzle;
+                        mOnFinished.run();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 取出已经生成好的拼图，取出后该拼图不会再被返回
+     *
+     * @return 没有生成好的拼图时返回null
+     */
+    @UiThread
+    PreparedPuzzle takeReady() {
+        PreparedPuzzle puzzle = mReadyPuzzle;
+        mReadyPuzzle = null;
+        return puzzle;
+    }
+
+    /**
+     * 是否有正在生成或者已经生成好的拼图
+     */
+    @UiThread
+    boolean hasPending() {
+        return mPreparingPuzzle != null || mReadyPuzzle != null;
+    }
+
+    /**
+     * 获取已经生成好或者正在生成的拼图，用于判断它是否仍然适用，不会取出
+     *
+     * @return 都没有时返回null
+     */
+    @UiThread
+    PreparedPuzzle getPending() {
+        return mReadyPuzzle != null ? mReadyPuzzle : mPreparingPuzzle;
+    }
+
+    /**
+     * 后台是否还有任务在执行。作废的任务也会执行完毕，在此期间它引用的位图不能被复用
+     */
+    @UiThread
+    boolean hasRunningTask() {
+        return mRunningCount > 0;
+    }
+
+    /**
+     * 获取最近一次生成失败的拼图
+     *
+     * @return 之后又提交了任务或者取消过时返回null
+     */
+    @UiThread
+    PreparedPuzzle getFailed() {
+        return mFailedPuzzle;
+    }
+
+    /**
+     * 作废正在生成和已经生成好的拼图，在输入条件变化时调用
+     */
+    @UiThread
+    void cancel() {
+        mGeneration++;
+        mPreparingPuzzle = null;
+        mReadyPuzzle = null;
+        mFailedPuzzle = null;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            r.run();
+                        }
+                    }, "ScrollVerifyPreparer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+}
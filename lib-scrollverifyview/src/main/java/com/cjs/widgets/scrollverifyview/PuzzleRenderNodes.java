@@ -0,0 +1,233 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Build;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 描述:拼图的硬件绘制节点
+ * <p>
+ * 背景(含目标滑块)和可移动滑块分别录制在两个RenderNode中。背景只在拼图重新生成时才重新录制，
+ * 可移动滑块只在滑块图片变化时重新录制，拖拽时只改变滑块节点的绘制位置，两个节点的内容都不需要重新录制。
+ * <p>
+ * RenderNode是API 29才公开的类，为了不提高compileSdkVersion(当前的构建插件和support库不支持29)，
+ * 这里通过反射调用。反射方法只在类加载时查找一次，每帧调用的方法都不需要装箱，参数数组也预先创建好。
+ * 使用前需要先用{@link #isSupported()}判断。
+ * <p>
+ * 创建时间:2026年10月18日 14:10
+ *
+ * @version 1.0
+ */
+class PuzzleRenderNodes {
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final Constructor<?> sNodeConstructor;
+    private static final Method sSetPosition;
+    private static final Method sBeginRecording;
+    private static final Method sEndRecording;
+    private static final Method sHasDisplayList;
+    private static final Method sDiscardDisplayList;
+    private static final Method sDrawRenderNode;
+
+    static {
+        Constructor<?> nodeConstructor = null;
+        Method setPosition = null;
+        Method beginRecording = null;
+        Method endRecording = null;
+        Method hasDisplayList = null;
+        Method discardDisplayList = null;
+        Method drawRenderNode = null;
+        if (Build.VERSION.SDK_INT >= 29) {
+            try {
+                Class<?> nodeClass = Class.forName("android.graphics.RenderNode");
+                nodeConstructor = nodeClass.getConstructor(String.class);
+                setPosition = nodeClass.getMethod("setPosition", int.class, int.class, int.class, int.class);
+                beginRecording = nodeClass.getMethod("beginRecording", int.class, int.class);
+                endRecording = nodeClass.getMethod("endRecording");
+                hasDisplayList = nodeClass.getMethod("hasDisplayList");
+                discardDisplayList = nodeClass.getMethod("discardDisplayList");
+                drawRenderNode = Canvas.class.getMethod("drawRenderNode", nodeClass);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                nodeConstructor = null;
+            }
+        }
+        sNodeConstructor = nodeConstructor;
+        sSetPosition = setPosition;
+        sBeginRecording = beginRecording;
+        sEndRecording = endRecording;
+        sHasDisplayList = hasDisplayList;
+        sDiscardDisplayList = discardDisplayList;
+        sDrawRenderNode = drawRenderNode;
+    }
+
+    private final Object mBackgroundNode;
+    private final Object mPieceNode;
+    /**
+     * 绘制节点时使用的参数，避免每帧创建数组
+     */
+    private final Object[] mBackgroundArgs;
+    private final Object[] mPieceArgs;
+    /**
+     * 当前滑块节点中录制的滑块位图或者矢量滑块绘制器
+     */
+    private Object mRecordedPiece;
+    private final RectF mPieceRect = new RectF();
+    private float mPieceX;
+    private float mPieceY;
+
+    /**
+     * 当前系统是否可以使用绘制节点
+     *
+     * @return
+     */
+    static boolean isSupported() {
+        return sNodeConstructor != null;
+    }
+
+    /**
+     * 只能在{@link #isSupported()}为true时创建
+     */
+    PuzzleRenderNodes() {
+        mBackgroundNode = newInstance("ScrollVerifyBackground");
+        mPieceNode = newInstance("ScrollVerifyPiece");
+        mBackgroundArgs = new Object[]{mBackgroundNode};
+        mPieceArgs = new Object[]{mPieceNode};
+    }
+
+    /**
+     * 背景节点中是否已经有可用的录制内容
+     *
+     * @return
+     */
+    boolean hasBackground() {
+        return (Boolean) invoke(sHasDisplayList, mBackgroundNode, NO_ARGS);
+    }
+
+    /**
+     * 开始录制背景，录制完成后需要调用{@link #endBackground()}
+     *
+     * @param width  控件宽度
+     * @param height 控件高度
+     * @return 录制用的画布
+     */
+    Canvas beginBackground(int width, int height) {
+        return beginRecording(mBackgroundNode, width, height);
+    }
+
+    void endBackground() {
+        invoke(sEndRecording, mBackgroundNode, NO_ARGS);
+    }
+
+    /**
+     * 更新可移动滑块节点的内容，滑块位图没有变化时不重新录制
+     *
+     * @param piece       可移动滑块位图
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     * @param paint       绘制画笔
+     */
+    void updatePiece(Bitmap piece, int blockWidth, int blockHeight, Paint paint) {
+        if (piece == mRecordedPiece && hasPiece()) {
+            return;
+        }
+        Canvas canvas = beginRecording(mPieceNode, blockWidth, blockHeight);
+        try {
+            //按渲染比例缩小生成的滑块位图在这里拉伸回滑块尺寸
+            mPieceRect.set(0, 0, blockWidth, blockHeight);
+            canvas.drawBitmap(piece, null, mPieceRect, paint);
+        } finally {
+            invoke(sEndRecording, mPieceNode, NO_ARGS);
+        }
+        mRecordedPiece = piece;
+    }
+
+    /**
+     * 更新可移动滑块节点的内容为矢量滑块，绘制器没有变化时不重新录制
+     *
+     * @param renderer    矢量滑块绘制器
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     */
+    void updatePiece(PuzzleShapeRenderer renderer, int blockWidth, int blockHeight) {
+        if (renderer == mRecordedPiece && hasPiece()) {
+            return;
+        }
+        Canvas canvas = beginRecording(mPieceNode, blockWidth, blockHeight);
+        try {
+            renderer.drawPiece(canvas, 0, 0);
+        } finally {
+            invoke(sEndRecording, mPieceNode, NO_ARGS);
+        }
+        mRecordedPiece = renderer;
+    }
+
+    /**
+     * 下次{@link #updatePiece}时强制重新录制滑块节点
+     */
+    void invalidatePiece() {
+        mRecordedPiece = null;
+    }
+
+    /**
+     * 移动可移动滑块，只记录位置，下次{@link #draw(Canvas)}时平移画布绘制滑块节点，不需要重新录制任何内容
+     */
+    void setPiecePosition(float x, float y) {
+        mPieceX = x;
+        mPieceY = y;
+    }
+
+    void draw(Canvas canvas) {
+        invoke(sDrawRenderNode, canvas, mBackgroundArgs);
+        int saveCount = canvas.save();
+        canvas.translate(mPieceX, mPieceY);
+        invoke(sDrawRenderNode, canvas, mPieceArgs);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * 丢弃两个节点的录制内容
+     */
+    void release() {
+        invoke(sDiscardDisplayList, mBackgroundNode, NO_ARGS);
+        invoke(sDiscardDisplayList, mPieceNode, NO_ARGS);
+        mRecordedPiece = null;
+    }
+
+    private boolean hasPiece() {
+        return (Boolean) invoke(sHasDisplayList, mPieceNode, NO_ARGS);
+    }
+
+    private static Canvas beginRecording(Object node, int width, int height) {
+        invoke(sSetPosition, node, new Object[]{0, 0, width, height});
+        return (Canvas) invoke(sBeginRecording, node, new Object[]{width, height});
+    }
+
+    private static Object newInstance(String name) {
+        try {
+            return sNodeConstructor.newInstance(name);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
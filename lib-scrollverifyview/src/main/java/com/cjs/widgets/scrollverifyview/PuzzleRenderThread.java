@@ -0,0 +1,511 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+
+import com.cjs.widgets.scrollverifyengine.DragTrajectory;
+import com.cjs.widgets.scrollverifyengine.PuzzleDragModel;
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+import com.cjs.widgets.scrollverifyengine.TouchHandoff;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 描述:{@link ScrollVerifySurfaceView}的绘制线程
+ * <p>
+ * 背景图缩放、拼图生成、拖拽模型和绘制都在该线程完成，主线程只负责把触摸采样写入{@link TouchHandoff}、转发配置和Surface的变化。
+ * API 16及以上在该线程的{@link Choreographer}上按垂直同步取出触摸采样并绘制一帧，同一帧内的多个采样合并成一次绘制；
+ * 更低的版本收到采样后直接绘制，由{@link SurfaceHolder#lockCanvas()}等待空闲的缓冲区。
+ * <p>
+ * 验证结果和生成失败通过主线程的Handler回调给控件。Surface的使用和销毁用同一把锁保护，
+ * {@link #setSurface(SurfaceHolder)}返回后绘制线程不会再访问旧的Surface。
+ * <p>
+ * 创建时间:2026年10月19日 01:20
+ *
+ * @version 1.0
+ */
+final class PuzzleRenderThread extends HandlerThread implements Handler.Callback, Choreographer.FrameCallback {
+    private static final String TAG = "PuzzleRenderThread";
+    /**
+     * 发往绘制线程的消息
+     */
+    private static final int MSG_TOUCH = 1;
+    private static final int MSG_SIZE = 2;
+    private static final int MSG_CONFIG = 3;
+    private static final int MSG_SOURCE = 4;
+    private static final int MSG_RESET = 5;
+    private static final int MSG_QUIT = 6;
+    /**
+     * 发往主线程的消息
+     */
+    static final int MSG_VERIFY_FINISHED = 101;
+    static final int MSG_LAYOUT_FAILED = 102;
+
+    private final Context mContext;
+    private final L l;
+    private final TouchHandoff mTouchHandoff;
+    private final Handler mMainHandler;
+    /**
+     * 是否已经有一条还没有处理的{@link #MSG_TOUCH}，避免每个采样都发一条消息
+     */
+    private final AtomicBoolean isTouchSignaled = new AtomicBoolean();
+    /**
+     * 保护{@link #mSurfaceHolder}，绘制期间一直持有
+     */
+    private final Object mSurfaceLock = new Object();
+    private SurfaceHolder mSurfaceHolder;
+    private Handler mHandler;
+
+    //以下字段只在绘制线程访问
+    private final BitmapPool mPool = BitmapPool.getDefault();
+    private final RotationAtlas mRotationAtlas = new RotationAtlas(MaskCache.getDefault());
+    private final BlockSpriteCache mSpriteCache = new BlockSpriteCache(mPool, MaskCache.getDefault(), mRotationAtlas);
+    private final PuzzleDragModel mDragModel = new PuzzleDragModel();
+    private final DragTrajectory mTrajectory = new DragTrajectory();
+    private final PuzzleGeometry mGeometry = new PuzzleGeometry();
+    private final PuzzleLayoutEngine mLayoutEngine = new PuzzleLayoutEngine();
+    private final RectF mDrawRect = new RectF();
+    private final Paint mPaint;
+    private final PuzzleShapeRenderer mShapeRenderer;
+    private Config mConfig;
+    /**
+     * 背景图片来源，{@link Bitmap}或者{@link PuzzleSource}
+     */
+    private Object mSource;
+    private int mWidth;
+    private int mHeight;
+    private Bitmap mBackBitmap;
+    private Bitmap mMovableSrcBitmap;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private float mRotateDegree;
+    private boolean hasPuzzle;
+    /**
+     * 除滑块移动之外还有需要重新绘制的变化，例如Surface重建
+     */
+    private boolean isDirty;
+    private boolean isFrameScheduled;
+
+    /**
+     * @param context      用于解码{@link PuzzleSource}
+     * @param l            日志
+     * @param touchHandoff 主线程写入、绘制线程读取的触摸采样队列
+     * @param mainHandler  接收{@link #MSG_VERIFY_FINISHED}和{@link #MSG_LAYOUT_FAILED}的主线程Handler
+     * @param config       初始配置，之后不能再修改
+     */
+    PuzzleRenderThread(Context context, L l, TouchHandoff touchHandoff, Handler mainHandler, Config config) {
+        super("ScrollVerifyRender", Process.THREAD_PRIORITY_DISPLAY);
+        mContext = context.getApplicationContext();
+        this.l = l;
+        mTouchHandoff = touchHandoff;
+        mMainHandler = mainHandler;
+        mConfig = config;
+        mRotationAtlas.setSteps(config.rotateSteps);
+        mShapeRenderer = new PuzzleShapeRenderer(GraphicTools.dp2px(context, 1));
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setDither(true);
+        mPaint.setFilterBitmap(true);
+    }
+
+    /**
+     * 启动线程并等待消息队列就绪
+     */
+    void startRendering() {
+        start();
+        mHandler = new Handler(getLooper(), this);
+    }
+
+    /**
+     * 设置或者清除绘制用的Surface。清除时会等待正在进行的绘制结束，因此可以在surfaceDestroyed中直接调用
+     *
+     * @param holder 为空表示Surface已经销毁
+     */
+    void setSurface(SurfaceHolder holder) {
+        synchronized (mSurfaceLock) {
+            mSurfaceHolder = holder;
+        }
+    }
+
+    /**
+     * 通知绘制线程有新的触摸采样，主线程调用。已经通知过还没有处理时不再发送消息
+     */
+    void signalTouch() {
+        if (isTouchSignaled.compareAndSet(false, true)) {
+            mHandler.sendEmptyMessage(MSG_TOUCH);
+        }
+    }
+
+    void setSize(int width, int height) {
+        mHandler.sendMessage(mHandler.obtainMessage(MSG_SIZE, width, height));
+    }
+
+    /**
+     * @param config     新的配置，交出后不能再修改
+     * @param regenerate 是否立即按新配置重新生成拼图，否则在下次生成拼图时生效
+     */
+    void setConfig(Config config, boolean regenerate) {
+        mHandler.sendMessage(mHandler.obtainMessage(MSG_CONFIG, regenerate ? 1 : 0, 0, config));
+    }
+
+    /**
+     * @param source {@link Bitmap}、{@link PuzzleSource}或者空
+     */
+    void setSource(Object source) {
+        mHandler.sendMessage(mHandler.obtainMessage(MSG_SOURCE, source));
+    }
+
+    void reset() {
+        mHandler.sendEmptyMessage(MSG_RESET);
+    }
+
+    /**
+     * 释放位图并结束线程，之后不能再使用
+     */
+    void quitRendering() {
+        mHandler.sendEmptyMessage(MSG_QUIT);
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        switch (msg.what) {
+            case MSG_TOUCH:
+                //先清除标记再读取队列，之后写入的采样一定会再发一条消息
+                isTouchSignaled.set(false);
+                scheduleFrame();
+                return true;
+            case MSG_SIZE:
+                if (msg.arg1 != mWidth || msg.arg2 != mHeight) {
+                    mWidth = msg.arg1;
+                    mHeight = msg.arg2;
+                    updateBackBitmap();
+                    newPuzzle();
+                }
+                //Surface重建后内容已经丢失，尺寸不变也要重新绘制
+                invalidate();
+                return true;
+            case MSG_CONFIG:
+                boolean isRenderScaleChanged = ((Config) msg.obj).renderScale != mConfig.renderScale;
+                mConfig = (Config) msg.obj;
+                mRotationAtlas.setSteps(mConfig.rotateSteps);
+                mDragModel.setScrollMode(mConfig.scrollMode);
+                if (isRenderScaleChanged) {
+                    updateBackBitmap();
+                }
+                if (msg.arg1 != 0 || isRenderScaleChanged) {
+                    newPuzzle();
+                    invalidate();
+                }
+                return true;
+            case MSG_SOURCE:
+                mSource = msg.obj;
+                updateBackBitmap();
+                newPuzzle();
+                invalidate();
+                return true;
+            case MSG_RESET:
+                newPuzzle();
+                invalidate();
+                return true;
+            case MSG_QUIT:
+                release();
+                Looper.myLooper().quit();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void invalidate() {
+        isDirty = true;
+        scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            renderFrame();
+        } else if (!isFrameScheduled) {
+            isFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        isFrameScheduled = false;
+        renderFrame();
+    }
+
+    /**
+     * 处理积压的触摸采样，滑块移动了或者有其他变化时绘制一帧
+     */
+    private void renderFrame() {
+        boolean isMoved = processTouches();
+        if (!isMoved && !isDirty) {
+            return;
+        }
+        synchronized (mSurfaceLock) {
+            if (mSurfaceHolder == null) {
+                //Surface重建时会重新设置尺寸，到时再绘制
+                return;
+            }
+            Canvas canvas = mSurfaceHolder.lockCanvas();
+            if (canvas == null) {
+                return;
+            }
+            try {
+                drawPuzzle(canvas);
+            } finally {
+                mSurfaceHolder.unlockCanvasAndPost(canvas);
+            }
+        }
+        isDirty = false;
+    }
+
+    /**
+     * 按顺序处理队列中的全部触摸采样，与{@link ScrollVerifyView}的触摸处理一致
+     *
+     * @return 滑块是否移动了
+     */
+    private boolean processTouches() {
+        boolean isMoved = false;
+        while (mTouchHandoff.poll()) {
+            float touchX = mTouchHandoff.getX();
+            float touchY = mTouchHandoff.getY();
+            switch (mTouchHandoff.getAction()) {
+                case MotionEvent.ACTION_DOWN:
+                    mTrajectory.clear();
+                    mTrajectory.add(touchX, touchY, mTouchHandoff.getTime());
+                    mDragModel.onDown(touchX, touchY);
+                    break;
+                case MotionEvent.ACTION_MOVE:
+                    mTrajectory.add(touchX, touchY, mTouchHandoff.getTime());
+                    if (mDragModel.onMove(touchX, touchY)) {
+                        isMoved = true;
+                    }
+                    break;
+                case MotionEvent.ACTION_UP:
+                    mTrajectory.add(touchX, touchY, mTouchHandoff.getTime());
+                    if (hasPuzzle && mDragModel.isMove()) {
+                        boolean isSuccess = mDragModel.verify(mGeometry.getTargetX(), mGeometry.getTargetY(), mConfig.validOffset);
+                        l.d(TAG, isSuccess ? "verify success" : "verify failed");
+                        //轨迹在下一次按下时就会被清空，交给主线程的是一份拷贝
+                        mMainHandler.sendMessage(mMainHandler.obtainMessage(MSG_VERIFY_FINISHED, isSuccess ? 1 : 0, 0, mTrajectory.copy()));
+                        mDragModel.onUp(touchX, touchY);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return isMoved;
+    }
+
+    private void drawPuzzle(Canvas canvas) {
+        if (mBackBitmap == null) {
+            canvas.drawColor(Color.BLACK);
+            return;
+        }
+        drawRenderBitmap(canvas, mBackBitmap, 0, 0, mWidth, mHeight);
+        if (!hasPuzzle) {
+            return;
+        }
+        Config config = mConfig;
+        float degree = config.isOpenRandomRotate ? mRotateDegree : 0;
+        if (config.puzzleShape != null) {
+            mShapeRenderer.update(config.puzzleShape, mBackBitmap, config.renderScale, mBlockWidth, mBlockHeight,
+                    degree, mGeometry.getTargetX(), mGeometry.getTargetY());
+            mShapeRenderer.drawTarget(canvas, mGeometry.getTargetX(), mGeometry.getTargetY());
+            mShapeRenderer.drawPiece(canvas, mDragModel.getBlockX(), mDragModel.getBlockY());
+            return;
+        }
+        mSpriteCache.update(config.targetMask, config.movableMask, mMovableSrcBitmap,
+                ScrollVerifyView.toRenderSize(mBlockWidth, config.renderScale),
+                ScrollVerifyView.toRenderSize(mBlockHeight, config.renderScale), config.isOpenRandomRotate, mRotateDegree);
+        //先画target再画start,不然target会盖在start上面
+        drawRenderBitmap(canvas, mSpriteCache.getTargetSprite(), mGeometry.getTargetX(), mGeometry.getTargetY(), mBlockWidth, mBlockHeight);
+        drawRenderBitmap(canvas, mSpriteCache.getMovableSprite(), mDragModel.getBlockX(), mDragModel.getBlockY(), mBlockWidth, mBlockHeight);
+    }
+
+    private void drawRenderBitmap(Canvas canvas, Bitmap bitmap, float x, float y, int width, int height) {
+        if (mConfig.renderScale == 1f) {
+            canvas.drawBitmap(bitmap, x, y, mPaint);
+        } else {
+            mDrawRect.set(x, y, x + width, y + height);
+            canvas.drawBitmap(bitmap, null, mDrawRect, mPaint);
+        }
+    }
+
+    /**
+     * 按当前的图片来源、尺寸和渲染比例重新生成背景图
+     */
+    private void updateBackBitmap() {
+        releaseBackBitmap();
+        if (mSource == null || mWidth <= 0 || mHeight <= 0) {
+            return;
+        }
+        float renderScale = mConfig.renderScale;
+        int width = ScrollVerifyView.toRenderSize(mWidth, renderScale);
+        int height = ScrollVerifyView.toRenderSize(mHeight, renderScale);
+        if (mSource instanceof PuzzleSource) {
+            try {
+                mBackBitmap = ((PuzzleSource) mSource).decode(mContext, width, height, mPool);
+            } catch (IOException e) {
+                l.e(TAG, "背景图片解码失败:" + e);
+            }
+        } else {
+            Bitmap source = (Bitmap) mSource;
+            mBackBitmap = GraphicTools.scaleBitmapInto(source, mPool.get(width, height, ScrollVerifyView.getBackConfig(source)));
+        }
+    }
+
+    /**
+     * 生成新的拼图，与{@link ScrollVerifyView}的滑块尺寸、位置和旋转角度的计算方式一致
+     */
+    private void newPuzzle() {
+        hasPuzzle = false;
+        mSpriteCache.invalidate();
+        mPool.put(mMovableSrcBitmap);
+        mMovableSrcBitmap = null;
+        if (mBackBitmap == null) {
+            return;
+        }
+        Config config = mConfig;
+        if (config.blockDrawableWidth > 0 && config.blockDrawableHeight > 0 && config.blockWidth == 0 && config.blockHeight == 0) {
+            mBlockWidth = config.blockDrawableWidth;
+            mBlockHeight = config.blockDrawableHeight;
+        } else {
+            mBlockWidth = config.blockWidth == 0 ? mWidth / config.blockWidthDivide : config.blockWidth;
+            mBlockHeight = config.blockHeight == 0 ? mHeight / config.blockHeightDivide : config.blockHeight;
+        }
+        //非随机位置时以上一次生成的起始位置为基准
+        mLayoutEngine.setBlockSize(mBlockWidth, mBlockHeight);
+        mLayoutEngine.setPadding(config.viewPadding);
+        mLayoutEngine.setScrollMode(config.scrollMode);
+        mLayoutEngine.setMaxScrollDistance(config.maxScrollDistance == ScrollVerifyView.DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE
+                ? mWidth - config.viewPadding * 2 - mBlockWidth : config.maxScrollDistance);
+        mLayoutEngine.setAvoidTooClose(config.isAvoidGenerateTooClose);
+        mLayoutEngine.setRandomLocation(config.isOpenRandomBlockLocation);
+        if (!mLayoutEngine.layout(mWidth, mHeight, mGeometry)) {
+            l.e(TAG, "滑块尺寸超过控件大小");
+            mMainHandler.sendEmptyMessage(MSG_LAYOUT_FAILED);
+            return;
+        }
+        mRotateDegree = nextRotateDegree(config);
+        mDragModel.setBounds(mWidth, mHeight, config.viewPadding);
+        mDragModel.setBlockSize(mBlockWidth, mBlockHeight);
+        mDragModel.setScrollMode(config.scrollMode);
+        mDragModel.setBlockPosition(mGeometry.getStartX(), mGeometry.getStartY());
+        if (config.puzzleShape == null) {
+            mMovableSrcBitmap = GraphicTools.cropBitmapInto(mBackBitmap,
+                    (int) (mGeometry.getTargetX() * config.renderScale), (int) (mGeometry.getTargetY() * config.renderScale),
+                    mPool.get(ScrollVerifyView.toRenderSize(mBlockWidth, config.renderScale),
+                            ScrollVerifyView.toRenderSize(mBlockHeight, config.renderScale), Bitmap.Config.ARGB_8888));
+        }
+        hasPuzzle = true;
+        if (l.isOpenLog()) {
+            l.d(TAG, "startX:" + mGeometry.getStartX() + "  startY:" + mGeometry.getStartY()
+                    + "  targetX:" + mGeometry.getTargetX() + "  targetY:" + mGeometry.getTargetY());
+        }
+    }
+
+    private static float nextRotateDegree(Config config) {
+        if (!config.isOpenRandomRotate) {
+            return config.defaultRotateDegree;
+        }
+        if (config.rotateSteps > 0) {
+            return RotationAtlas.getDegree((int) (Math.random() * config.rotateSteps), config.rotateSteps);
+        }
+        return (float) (Math.random() * 3 * 90);
+    }
+
+    private void releaseBackBitmap() {
+        //矢量滑块的着色器引用着背景图，先解除引用再放回位图池
+        mShapeRenderer.release();
+        mPool.put(mBackBitmap);
+        mBackBitmap = null;
+    }
+
+    private void release() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+        hasPuzzle = false;
+        mSpriteCache.release();
+        mPool.put(mMovableSrcBitmap);
+        mMovableSrcBitmap = null;
+        releaseBackBitmap();
+        mRotationAtlas.clear();
+    }
+
+    /**
+     * 绘制线程使用的配置。主线程修改后交出一份拷贝，交出的对象不再修改，两个线程不会同时访问同一个对象
+     */
+    static final class Config {
+        boolean isOpenRandomRotate;
+        float defaultRotateDegree;
+        int rotateSteps;
+        boolean isOpenRandomBlockLocation;
+        /**
+         * 设置的滑块尺寸，为0时由形状图片的尺寸或者控件尺寸除以对应的份数得到
+         */
+        int blockWidth;
+        int blockHeight;
+        int blockWidthDivide = 6;
+        int blockHeightDivide = 4;
+        /**
+         * 可移动滑块形状图片的固有尺寸
+         */
+        int blockDrawableWidth;
+        int blockDrawableHeight;
+        int viewPadding;
+        int maxScrollDistance = ScrollVerifyView.DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE;
+        int validOffset;
+        boolean isAvoidGenerateTooClose = true;
+        int scrollMode = ScrollVerifyView.MODE_SCROLL_FREE;
+        Bitmap targetMask;
+        Bitmap movableMask;
+        PuzzleShape puzzleShape;
+        float renderScale = 1f;
+
+        Config copy() {
+            Config config = new Config();
+            config.isOpenRandomRotate = isOpenRandomRotate;
+            config.defaultRotateDegree = defaultRotateDegree;
+            config.rotateSteps = rotateSteps;
+            config.isOpenRandomBlockLocation = isOpenRandomBlockLocation;
+            config.blockWidth = blockWidth;
+            config.blockHeight = blockHeight;
+            config.blockWidthDivide = blockWidthDivide;
+            config.blockHeightDivide = blockHeightDivide;
+            config.blockDrawableWidth = blockDrawableWidth;
+            config.blockDrawableHeight = blockDrawableHeight;
+            config.viewPadding = viewPadding;
+            config.maxScrollDistance = maxScrollDistance;
+            config.validOffset = validOffset;
+            config.isAvoidGenerateTooClose = isAvoidGenerateTooClose;
+            config.scrollMode = scrollMode;
+            config.targetMask = targetMask;
+            config.movableMask = movableMask;
+            config.puzzleShape = puzzleShape;
+            config.renderScale = renderScale;
+            return config;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * 描述:矢量滑块形状
+ * <p>
+ * 用{@link Path}描述滑块轮廓，代替movableBlockDrawable和targetBlockDrawable两张形状图片。
+ * 设置后可移动滑块直接用背景图的BitmapShader填充路径，目标滑块直接填充半透明的路径，不再生成任何中间位图。
+ * 路径在任何密度下都是清晰的，旋转也只是改变变换矩阵，不需要对位图重新采样。
+ * <p>
+ * 路径可以使用任意坐标，绘制时按路径的外接矩形拉伸到滑块尺寸。
+ * <p>
+ * 创建时间:2026年10月18日 22:10
+ *
+ * @version 1.0
+ */
+public final class PuzzleShape {
+    /**
+     * 内置形状在100x100的坐标系中绘制
+     */
+    private static final float SIZE = 100;
+    /**
+     * 拼图凸起的半径
+     */
+    private static final float KNOB_RADIUS = 12;
+
+    private final Path mPath;
+    private final RectF mBounds = new RectF();
+
+    private PuzzleShape(Path path) {
+        mPath = path;
+        mPath.computeBounds(mBounds, true);
+    }
+
+    /**
+     * 拼图块：上边和右边各有一个圆形凸起
+     *
+     * @return
+     */
+    public static PuzzleShape jigsaw() {
+        float body = SIZE - KNOB_RADIUS * 5 / 3;
+        float knob = KNOB_RADIUS;
+        Path path = new Path();
+        path.moveTo(0, SIZE - body);
+        //上边的凸起：从135度顺时针画270度，经过正上方
+        float topCenterX = body / 2;
+        float topCenterY = SIZE - body - knob * 2 / 3;
+        path.arcTo(new RectF(topCenterX - knob, topCenterY - knob, topCenterX + knob, topCenterY + knob), 135, 270);
+        path.lineTo(body, SIZE - body);
+        //右边的凸起：从225度顺时针画270度，经过正右方
+        float rightCenterX = body + knob * 2 / 3;
+        float rightCenterY = SIZE - body / 2;
+        path.arcTo(new RectF(rightCenterX - knob, rightCenterY - knob, rightCenterX + knob, rightCenterY + knob), 225, 270);
+        path.lineTo(body, SIZE);
+        path.lineTo(0, SIZE);
+        path.close();
+        return new PuzzleShape(path);
+    }
+
+    /**
+     * 圆形，滑块不是正方形时为椭圆
+     *
+     * @return
+     */
+    public static PuzzleShape circle() {
+        Path path = new Path();
+        path.addOval(new RectF(0, 0, SIZE, SIZE), Path.Direction.CW);
+        return new PuzzleShape(path);
+    }
+
+    /**
+     * 盾牌形
+     *
+     * @return
+     */
+    public static PuzzleShape shield() {
+        Path path = new Path();
+        path.moveTo(0, 10);
+        path.quadTo(25, 10, 50, 0);
+        path.quadTo(75, 10, 100, 10);
+        path.lineTo(100, 50);
+        path.cubicTo(100, 78, 75, 92, 50, 100);
+        path.cubicTo(25, 92, 0, 78, 0, 50);
+        path.close();
+        return new PuzzleShape(path);
+    }
+
+    /**
+     * 自定义形状。路径会被复制，之后修改传入的路径不影响该形状
+     *
+     * @param path 闭合路径，坐标任意
+     * @return
+     */
+    public static PuzzleShape fromPath(Path path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("滑块形状路径不能为空");
+        }
+        return new PuzzleShape(new Path(path));
+    }
+
+    /**
+     * 将形状变换到滑块尺寸。旋转后的外接矩形再缩放回滑块尺寸，与形状图片的旋转方式一致
+     *
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     * @param inset       四周留出的距离，用于容纳描边
+     * @param degree      旋转角度
+     * @param matrix      计算时使用的矩阵
+     * @param blockBounds 计算时使用的矩形
+     * @param pathBounds  计算时使用的矩形
+     * @param dst         变换结果
+     */
+    void transformTo(int blockWidth, int blockHeight, float inset, float degree,
+                     Matrix matrix, RectF blockBounds, RectF pathBounds, Path dst) {
+        blockBounds.set(inset, inset, blockWidth - inset, blockHeight - inset);
+        matrix.setRectToRect(mBounds, blockBounds, Matrix.ScaleToFit.FILL);
+        if (degree != 0) {
+            matrix.postRotate(degree, blockWidth / 2f, blockHeight / 2f);
+        }
+        mPath.transform(matrix, dst);
+        if (degree != 0) {
+            dst.computeBounds(pathBounds, true);
+            matrix.setRectToRect(pathBounds, blockBounds, Matrix.ScaleToFit.FILL);
+            dst.transform(matrix);
+        }
+    }
+}
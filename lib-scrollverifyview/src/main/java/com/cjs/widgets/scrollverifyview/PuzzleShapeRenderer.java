@@ -0,0 +1,156 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+/**
+ * 描述:矢量滑块的绘制
+ * <p>
+ * 可移动滑块用背景图的{@link BitmapShader}填充形状路径，着色器的局部矩阵把目标位置的背景平移到滑块位置，
+ * 目标滑块用半透明颜色填充同一个路径。两者都不需要截取背景块，也不需要合成滑块位图。
+ * 变换后的路径只在形状、滑块尺寸或者旋转角度变化时重新计算，着色器只在背景图变化时重新创建。
+ * <p>
+ * 创建时间:2026年10月18日 22:10
+ *
+ * @version 1.0
+ */
+final class PuzzleShapeRenderer {
+    /**
+     * 目标滑块的填充颜色
+     */
+    private static final int TARGET_COLOR = 0x99000000;
+    /**
+     * 两个滑块描边的颜色
+     */
+    private static final int OUTLINE_COLOR = 0xCCFFFFFF;
+
+    private final Paint mPiecePaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Paint mTargetPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mOutlinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    /**
+     * 变换到滑块尺寸的路径
+     */
+    private final Path mPath = new Path();
+    private final Matrix mMatrix = new Matrix();
+    private final Matrix mShaderMatrix = new Matrix();
+    private final RectF mBlockBounds = new RectF();
+    private final RectF mPathBounds = new RectF();
+    private final float mOutlineWidth;
+    /**
+     * 以下为生成当前路径和着色器时使用的参数
+     */
+    private PuzzleShape mShape;
+    private int mBlockWidth;
+    private int mBlockHeight;
+    private float mRotateDegree;
+    private Bitmap mBackground;
+    private BitmapShader mShader;
+    private float mTargetX;
+    private float mTargetY;
+    private float mRenderScale;
+
+    /**
+     * @param outlineWidth 描边宽度(像素)
+     */
+    PuzzleShapeRenderer(float outlineWidth) {
+        mOutlineWidth = outlineWidth;
+        mTargetPaint.setStyle(Paint.Style.FILL);
+        mTargetPaint.setColor(TARGET_COLOR);
+        mOutlinePaint.setStyle(Paint.Style.STROKE);
+        mOutlinePaint.setStrokeWidth(outlineWidth);
+        mOutlinePaint.setColor(OUTLINE_COLOR);
+    }
+
+    /**
+     * 确保路径和着色器与传入参数一致
+     *
+     * @param shape        滑块形状
+     * @param background   背景图，可移动滑块从中取色
+     * @param renderScale  背景图相对控件像素的缩放比例
+     * @param blockWidth   滑块宽度
+     * @param blockHeight  滑块高度
+     * @param rotateDegree 旋转角度
+     * @param targetX      目标滑块左上角横坐标
+     * @param targetY      目标滑块左上角纵坐标
+     * @return true-有参数发生了变化，滑块的外观需要重新绘制
+     */
+    boolean update(PuzzleShape shape, Bitmap background, float renderScale, int blockWidth, int blockHeight,
+                   float rotateDegree, float targetX, float targetY) {
+        boolean isChanged = false;
+        if (shape != mShape || blockWidth != mBlockWidth || blockHeight != mBlockHeight || rotateDegree != mRotateDegree) {
+            mShape = shape;
+            mBlockWidth = blockWidth;
+            mBlockHeight = blockHeight;
+            mRotateDegree = rotateDegree;
+            //描边以路径为中心线，四周留出一半描边宽度，保证滑块不超出滑块区域
+            shape.transformTo(blockWidth, blockHeight, mOutlineWidth / 2, rotateDegree,
+                    mMatrix, mBlockBounds, mPathBounds, mPath);
+            isChanged = true;
+        }
+        if (background != mBackground) {
+            mBackground = background;
+            mShader = new BitmapShader(background, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            mPiecePaint.setShader(mShader);
+            //重新创建的着色器需要重新设置局部矩阵
+            mTargetX = Float.NaN;
+            isChanged = true;
+        }
+        if (targetX != mTargetX || targetY != mTargetY || renderScale != mRenderScale) {
+            mTargetX = targetX;
+            mTargetY = targetY;
+            mRenderScale = renderScale;
+            //背景图按渲染比例缩小生成，先放大回控件像素，再把目标位置平移到滑块原点
+            mShaderMatrix.setScale(1 / renderScale, 1 / renderScale);
+            mShaderMatrix.postTranslate(-targetX, -targetY);
+            mShader.setLocalMatrix(mShaderMatrix);
+            isChanged = true;
+        }
+        return isChanged;
+    }
+
+    /**
+     * 绘制目标滑块
+     *
+     * @param canvas
+     * @param x      滑块左上角横坐标
+     * @param y      滑块左上角纵坐标
+     */
+    void drawTarget(Canvas canvas, float x, float y) {
+        int count = canvas.save();
+        canvas.translate(x, y);
+        canvas.drawPath(mPath, mTargetPaint);
+        canvas.drawPath(mPath, mOutlinePaint);
+        canvas.restoreToCount(count);
+    }
+
+    /**
+     * 绘制可移动滑块，内容是目标位置的背景
+     *
+     * @param canvas
+     * @param x      滑块左上角横坐标
+     * @param y      滑块左上角纵坐标
+     */
+    void drawPiece(Canvas canvas, float x, float y) {
+        int count = canvas.save();
+        canvas.translate(x, y);
+        //着色器的坐标跟随画布变换，局部矩阵已经把目标位置平移到了滑块原点
+        canvas.drawPath(mPath, mPiecePaint);
+        canvas.drawPath(mPath, mOutlinePaint);
+        canvas.restoreToCount(count);
+    }
+
+    /**
+     * 释放对背景图的引用，背景图放回位图池之前调用
+     */
+    void release() {
+        mPiecePaint.setShader(null);
+        mShader = null;
+        mBackground = null;
+    }
+}
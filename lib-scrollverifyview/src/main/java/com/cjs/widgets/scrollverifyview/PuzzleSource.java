@@ -0,0 +1,228 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.support.annotation.WorkerThread;
+import android.support.v4.os.TraceCompat;
+
+import com.cjs.widgets.scrollverifyengine.ImageSampling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 描述:拼图背景图片来源
+ * <p>
+ * 与直接给ImageView设置图片不同，该类按控件的测量尺寸解码：先只解码图片尺寸，再用inSampleSize按2的幂缩小解码，
+ * 开启{@link #setCenterCrop(boolean)}时只用{@link BitmapRegionDecoder}解码实际显示的那一部分，
+ * 整个过程中原始分辨率的图片不会完整地出现在内存里。
+ * <p>
+ * 创建时间:2026年10月18日 18:40
+ *
+ * @version 1.0
+ */
+public abstract class PuzzleSource {
+    /**
+     * 是否按控件比例居中裁剪
+     */
+    private boolean isCenterCrop;
+
+    /**
+     * 从文件读取图片
+     *
+     * @param file 图片文件
+     * @return
+     */
+    public static PuzzleSource fromFile(final File file) {
+        return new PuzzleSource() {
+            @Override
+            protected InputStream open(Context context) throws IOException {
+                return new FileInputStream(file);
+            }
+        };
+    }
+
+    /**
+     * 从输入流读取图片。输入流只能读一次，这里会把压缩后的图片数据读到内存中并关闭输入流，之后可以多次解码
+     *
+     * @param in 输入流
+     * @return
+     * @throws IOException 读取失败
+     */
+    public static PuzzleSource fromInputStream(InputStream in) throws IOException {
+        final byte[] data;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            data = out.toByteArray();
+        } finally {
+            closeQuietly(in);
+        }
+        return new PuzzleSource() {
+            @Override
+            protected InputStream open(Context context) {
+                return new ByteArrayInputStream(data);
+            }
+        };
+    }
+
+    /**
+     * 从assets目录读取图片
+     *
+     * @param assetPath assets下的相对路径
+     * @return
+     */
+    public static PuzzleSource fromAsset(final String assetPath) {
+        return new PuzzleSource() {
+            @Override
+            protected InputStream open(Context context) throws IOException {
+                return context.getAssets().open(assetPath);
+            }
+        };
+    }
+
+    /**
+     * 从Uri读取图片，支持content、file和android.resource
+     *
+     * @param uri
+     * @return
+     */
+    public static PuzzleSource fromUri(final Uri uri) {
+        return new PuzzleSource() {
+            @Override
+            protected InputStream open(Context context) throws IOException {
+                InputStream in = context.getContentResolver().openInputStream(uri);
+                if (in == null) {
+                    throw new IOException("无法打开" + uri);
+                }
+                return in;
+            }
+        };
+    }
+
+    /**
+     * 打开一个新的输入流，每次解码都会调用，调用方负责关闭
+     *
+     * @param context
+     * @return
+     * @throws IOException
+     */
+    protected abstract InputStream open(Context context) throws IOException;
+
+    public boolean isCenterCrop() {
+        return isCenterCrop;
+    }
+
+    /**
+     * 设置是否按控件比例居中裁剪。关闭时(默认)整张图片拉伸到控件大小，开启时只解码居中的、与控件比例相同的部分
+     *
+     * @param centerCrop
+     */
+    public void setCenterCrop(boolean centerCrop) {
+        isCenterCrop = centerCrop;
+    }
+
+    /**
+     * 解码出与控件尺寸完全相同的背景图
+     *
+     * @param context
+     * @param width   控件宽度
+     * @param height  控件高度
+     * @param pool    背景图从该位图池中获取
+     * @return 可变的背景图
+     * @throws IOException 读取或者解码失败
+     */
+    @WorkerThread
+    Bitmap decode(Context context, int width, int height, BitmapPool pool) throws IOException {
+        TraceCompat.beginSection("ScrollVerify#decodeSource");
+        try {
+            return decodeInternal(context, width, height, pool);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private Bitmap decodeInternal(Context context, int width, int height, BitmapPool pool) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeStream(context, options);
+        int sourceWidth = options.outWidth;
+        int sourceHeight = options.outHeight;
+        if (sourceWidth <= 0 || sourceHeight <= 0) {
+            throw new IOException("无法解析图片尺寸");
+        }
+        Rect region = isCenterCrop ? getCenterCropRegion(sourceWidth, sourceHeight, width, height) : null;
+        int decodeWidth = region == null ? sourceWidth : region.width();
+        int decodeHeight = region == null ? sourceHeight : region.height();
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageSampling.calculateInSampleSize(decodeWidth, decodeHeight, width, height);
+        Bitmap decoded;
+        if (region == null) {
+            decoded = decodeStream(context, options);
+        } else {
+            decoded = decodeRegion(context, region, options);
+        }
+        if (decoded == null) {
+            throw new IOException("图片解码失败");
+        }
+        //inSampleSize只能按2的幂缩小，剩下的部分再拉伸到控件大小
+        Bitmap result = GraphicTools.scaleBitmapInto(decoded, pool.get(width, height, ScrollVerifyView.getBackConfig(decoded)));
+        decoded.recycle();
+        return result;
+    }
+
+    private Bitmap decodeStream(Context context, BitmapFactory.Options options) throws IOException {
+        InputStream in = open(context);
+        try {
+            return BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private Bitmap decodeRegion(Context context, Rect region, BitmapFactory.Options options) throws IOException {
+        InputStream in = open(context);
+        try {
+            BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(in, false);
+            try {
+                return decoder.decodeRegion(region, options);
+            } finally {
+                decoder.recycle();
+            }
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * 计算与控件比例相同的居中区域
+     *
+     * @return 图片比例和控件比例相同时返回null，表示解码整张图片
+     */
+    private static Rect getCenterCropRegion(int sourceWidth, int sourceHeight, int width, int height) {
+        int[] region = new int[4];
+        if (!ImageSampling.getCenterCropRegion(sourceWidth, sourceHeight, width, height, region)) {
+            return null;
+        }
+        return new Rect(region[0], region[1], region[2], region[3]);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
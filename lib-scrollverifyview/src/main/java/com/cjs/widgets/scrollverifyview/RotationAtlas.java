@@ -0,0 +1,160 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+
+/**
+ * 描述:量化旋转角度的滑块遮罩图集
+ * <p>
+ * 随机旋转默认在[0, 270)之间取任意角度，每次重置都要重新旋转并缩放两个形状位图。
+ * 把旋转角度量化为N档(每档360/N度)后，所有可能出现的遮罩只有N种，
+ * 该类按(形状位图, 滑块宽, 滑块高)保存每一档旋转后的遮罩，第一次用到某一档时才生成，之后重置只按序号取出，不再重新采样位图。
+ * 档数越多角度越丰富，占用的内存也越多：每个形状位图最多保存N张滑块大小的ARGB_8888位图。
+ * <p>
+ * 遮罩从{@link MaskCache}获取，同样是共享的不可修改的位图；图集持有引用，保证已经生成的档位不会被缓存淘汰。
+ * <p>
+ * 该类是线程安全的，控件和后台预生成拼图时使用同一个图集。
+ * <p>
+ * 创建时间:2026年10月18日 23:10
+ *
+ * @version 1.0
+ */
+final class RotationAtlas {
+    /**
+     * 最多保存的形状位图组数，更换形状图片后旧的组会被挤出
+     */
+    private static final int MAX_ENTRIES = 4;
+    private final MaskCache mMaskCache;
+    /**
+     * 每个形状位图对应一组遮罩，通常只有目标滑块和可移动滑块两组，线性查找即可
+     */
+    private final ArrayList<Entry> mEntries = new ArrayList<>(2);
+    /**
+     * 旋转角度的档数，0表示不量化
+     */
+    private int mSteps;
+
+    RotationAtlas(MaskCache maskCache) {
+        mMaskCache = maskCache;
+    }
+
+    /**
+     * 第index档对应的旋转角度
+     *
+     * @param index 档位序号，0到steps-1
+     * @param steps 档数
+     * @return
+     */
+    static float getDegree(int index, int steps) {
+        return index * 360f / steps;
+    }
+
+    /**
+     * 旋转角度对应的档位序号
+     *
+     * @param degree 旋转角度
+     * @param steps  档数
+     * @return 角度不在档位上时返回-1
+     */
+    static int indexOf(float degree, int steps) {
+        if (steps <= 0) {
+            return -1;
+        }
+        int index = Math.round(degree * steps / 360f);
+        return index >= 0 && index < steps && getDegree(index, steps) == degree ? index : -1;
+    }
+
+    synchronized int getSteps() {
+        return mSteps;
+    }
+
+    /**
+     * 设置档数，档数变化时丢弃所有已经生成的遮罩
+     *
+     * @param steps 0表示不量化
+     */
+    synchronized void setSteps(int steps) {
+        if (steps != mSteps) {
+            mSteps = steps;
+            mEntries.clear();
+        }
+    }
+
+    /**
+     * 获取旋转到指定角度并缩放到滑块尺寸的遮罩，该档位第一次使用时生成
+     *
+     * @param mask        形状位图
+     * @param blockWidth  滑块宽度
+     * @param blockHeight 滑块高度
+     * @param degree      旋转角度
+     * @return 共享的位图，不能修改。没有开启量化或者角度不在档位上时返回null
+     */
+    Bitmap get(Bitmap mask, int blockWidth, int blockHeight, float degree) {
+        Entry entry;
+        int index;
+        synchronized (this) {
+            index = indexOf(degree, mSteps);
+            if (index < 0) {
+                return null;
+            }
+            entry = obtainEntry(mask, blockWidth, blockHeight);
+            if (entry.masks[index] != null) {
+                return entry.masks[index];
+            }
+        }
+        //生成遮罩不持有锁，并发时可能重复生成，MaskCache保证拿到的是等价的位图
+        Bitmap scaled = mMaskCache.getScaledMask(mask, blockWidth, blockHeight, degree, true);
+        synchronized (this) {
+            //生成期间档数或者滑块尺寸可能已经改变，此时只返回结果，不放进图集
+            if (mEntries.contains(entry) && entry.masks.length == mSteps) {
+                entry.masks[index] = scaled;
+            }
+        }
+        return scaled;
+    }
+
+    /**
+     * 丢弃所有已经生成的遮罩，之后按需重新生成
+     */
+    synchronized void clear() {
+        mEntries.clear();
+    }
+
+    private Entry obtainEntry(Bitmap mask, int blockWidth, int blockHeight) {
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.mask == mask) {
+                if (entry.width != blockWidth || entry.height != blockHeight) {
+                    //滑块尺寸变化后旧的遮罩都不能再用
+                    mEntries.remove(i);
+                    break;
+                }
+                return entry;
+            }
+        }
+        if (mEntries.size() >= MAX_ENTRIES) {
+            mEntries.remove(0);
+        }
+        Entry entry = new Entry(mask, blockWidth, blockHeight, mSteps);
+        mEntries.add(entry);
+        return entry;
+    }
+
+    /**
+     * 一个形状位图在某个滑块尺寸下各档旋转后的遮罩
+     */
+    private static final class Entry {
+        final Bitmap mask;
+        final int width;
+        final int height;
+        final Bitmap[] masks;
+
+        Entry(Bitmap mask, int width, int height, int steps) {
+            this.mask = mask;
+            this.width = width;
+            this.height = height;
+            this.masks = new Bitmap[steps];
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.cjs.widgets.scrollverifyview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.widget.Toast;
+
+import com.cjs.widgets.scrollverifyengine.DragTrajectory;
+import com.cjs.widgets.scrollverifyengine.TouchHandoff;
+
+/**
+ * 描述:在独立绘制线程上绘制的图形滑块验证控件
+ * <p>
+ * 与{@link ScrollVerifyView}使用同样的属性、滑动模式和{@link ScrollVerifyView.ScrollVerifyListener}，拼图的生成和验证规则也相同，
+ * 区别是拼图绘制在SurfaceView的Surface上，背景缩放、滑块合成、拖拽和绘制都在{@link PuzzleRenderThread}上完成。
+ * 主线程收到触摸事件后只把采样写入无锁的{@link TouchHandoff}，不做任何计算和绘制，
+ * 页面其他部分的布局和绘制再耗时也不会推迟滑块的下一帧，滑块始终跟随最新的触摸位置。
+ * <p>
+ * 背景图片通过android:src、{@link #setImageBitmap(Bitmap)}等方法或者{@link #setPuzzleSource(PuzzleSource)}设置，拉伸到控件大小绘制。
+ * 控件不根据图片测量，需要指定确定的宽高。验证结果在主线程回调。
+ * 不支持{@link ScrollVerifyView}中与主线程绘制相关的选项(烘焙目标滑块、独立绘制节点、后台预生成和自适应质量)。
+ * <p>
+ * 创建时间:2026年10月19日 01:20
+ *
+ * @version 1.0
+ */
+public class ScrollVerifySurfaceView extends SurfaceView implements SurfaceHolder.Callback {
+    private static final String TAG = "ScrollVerifySurfaceView";
+    /**
+     * 日志打印管理器
+     */
+    private L l;
+    /**
+     * 是否开启日志
+     */
+    private boolean isOpenLog = true;
+    /**
+     * 当前的配置，修改后把拷贝交给绘制线程
+     */
+    private final PuzzleRenderThread.Config mConfig = new PuzzleRenderThread.Config();
+    /**
+     * 滑块是否可以触摸
+     */
+    private boolean isBlockTouchable;
+    /**
+     * 背景图片来源，{@link Bitmap}或者{@link PuzzleSource}
+     */
+    private Object mSource;
+    /**
+     * 滑动验证监听器
+     */
+    private ScrollVerifyView.ScrollVerifyListener mScrollVerifyListener;
+    /**
+     * 接收绘制线程的验证结果
+     */
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case PuzzleRenderThread.MSG_VERIFY_FINISHED:
+                    dispatchVerifyFinished(msg.arg1 != 0, (DragTrajectory) msg.obj);
+                    return true;
+                case PuzzleRenderThread.MSG_LAYOUT_FAILED:
+                    Toast.makeText(getContext(), "滑块尺寸超过控件大小", Toast.LENGTH_SHORT).show();
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    });
+    /**
+     * 绘制线程和交给它的触摸采样队列，只在控件依附在窗口上时存在
+     */
+    private PuzzleRenderThread mRenderThread;
+    private TouchHandoff mTouchHandoff;
+
+    public ScrollVerifySurfaceView(Context context) {
+        super(context);
+        initView(context, null);
+    }
+
+    public ScrollVerifySurfaceView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        initView(context, attrs);
+    }
+
+    public ScrollVerifySurfaceView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        initView(context, attrs);
+    }
+
+    @TargetApi(21)
+    public ScrollVerifySurfaceView(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        initView(context, attrs);
+    }
+
+    private void initView(Context context, AttributeSet attrs) {
+        l = new L(isOpenLog);
+        PuzzleRenderThread.Config config = mConfig;
+        int movableBlockId = 0;
+        int targetBlockId = 0;
+        config.viewPadding = GraphicTools.dp2px(context, 5);
+        config.validOffset = GraphicTools.dp2px(context, 1);
+        isBlockTouchable = true;
+        config.isOpenRandomBlockLocation = true;
+        if (attrs != null) {
+            TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.ScrollVerifyView);
+            config.isOpenRandomRotate = array.getBoolean(R.styleable.ScrollVerifyView_openRandomRotate, false);
+            config.isOpenRandomBlockLocation = array.getBoolean(R.styleable.ScrollVerifyView_openRandomBlockLocation, true);
+            config.blockHeight = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_blockHeight, 0);
+            config.blockWidth = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_blockWidth, 0);
+            config.blockHeightDivide = array.getInt(R.styleable.ScrollVerifyView_blockHeightDivide, 4);
+            config.blockWidthDivide = array.getInt(R.styleable.ScrollVerifyView_blockWidthDivide, 6);
+            config.viewPadding = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_viewPadding, config.viewPadding);
+            movableBlockId = array.getResourceId(R.styleable.ScrollVerifyView_movableBlockDrawable, 0);
+            targetBlockId = array.getResourceId(R.styleable.ScrollVerifyView_targetBlockDrawable, 0);
+            config.maxScrollDistance = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_maxScrollDistance, ScrollVerifyView.DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE);
+            isBlockTouchable = array.getBoolean(R.styleable.ScrollVerifyView_blockTouchable, true);
+            config.validOffset = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_validOffset, config.validOffset);
+            config.defaultRotateDegree = array.getFloat(R.styleable.ScrollVerifyView_rotateDegree, 0f);
+            config.rotateSteps = Math.max(0, array.getInt(R.styleable.ScrollVerifyView_rotateSteps, 0));
+            config.isAvoidGenerateTooClose = array.getBoolean(R.styleable.ScrollVerifyView_avoidGenerateTooClose, true);
+            config.scrollMode = array.getInt(R.styleable.ScrollVerifyView_scrollMode, ScrollVerifyView.MODE_SCROLL_FREE);
+            config.puzzleShape = ScrollVerifyView.getBuiltInShape(array.getInt(R.styleable.ScrollVerifyView_puzzleShape, ScrollVerifyView.PUZZLE_SHAPE_NONE));
+            config.renderScale = ScrollVerifyView.clampRenderScale(array.getFloat(R.styleable.ScrollVerifyView_renderScale, 1f));
+            mSource = GraphicTools.drawable2Bitmap(array.getDrawable(R.styleable.ScrollVerifyView_android_src));
+            array.recycle();
+        }
+        //与ScrollVerifyView共用进程内缓存的形状图片
+        MaskCache maskCache = MaskCache.getDefault();
+        config.movableMask = maskCache.getMask(context, movableBlockId != 0 ? movableBlockId : R.drawable.svv_default_puzzle_shade);
+        config.targetMask = maskCache.getMask(context, targetBlockId != 0 ? targetBlockId : R.drawable.svv_default_puzzle_show);
+        updateBlockDrawableSize(GraphicTools.getDrawable(context, movableBlockId != 0 ? movableBlockId : R.drawable.svv_default_puzzle_shade));
+        getHolder().addCallback(this);
+    }
+
+    /**
+     * 设置滑动验证监听器。结果在主线程回调，设置{@link ScrollVerifyView.ScrollVerifyTrajectoryListener}时同时得到本次拖拽的轨迹
+     *
+     * @param scrollVerifyListener
+     */
+    public void setScrollVerifyListener(ScrollVerifyView.ScrollVerifyListener scrollVerifyListener) {
+        mScrollVerifyListener = scrollVerifyListener;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        //每次依附都使用新的线程和队列，上一个线程退出前不会和新线程同时读取同一个队列
+        mTouchHandoff = new TouchHandoff();
+        mRenderThread = new PuzzleRenderThread(getContext(), l, mTouchHandoff, mMainHandler, mConfig.copy());
+        mRenderThread.startRendering();
+        mRenderThread.setSource(mSource);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mRenderThread != null) {
+            mRenderThread.setSurface(null);
+            mRenderThread.quitRendering();
+            mRenderThread = null;
+            mTouchHandoff = null;
+        }
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        //尺寸在随后的surfaceChanged中设置
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        if (mRenderThread != null) {
+            mRenderThread.setSurface(holder);
+            mRenderThread.setSize(width, height);
+        }
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        //返回后Surface就不能再使用，等待绘制线程结束正在进行的绘制
+        if (mRenderThread != null) {
+            mRenderThread.setSurface(null);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mRenderThread == null) {
+            return super.onTouchEvent(event);
+        }
+        int action = event.getAction();
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                offerTouch(action, event.getX(), event.getY(), event.getEventTime());
+                mRenderThread.signalTouch();
+                if (isBlockTouchable) {
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                //高采样率的屏幕上两帧之间的多个采样合并在一个事件里，历史采样按移动交给绘制线程
+                int historySize = event.getHistorySize();
+                for (int i = 0; i < historySize; i++) {
+                    offerTouch(MotionEvent.ACTION_MOVE, event.getHistoricalX(i), event.getHistoricalY(i), event.getHistoricalEventTime(i));
+                }
+                offerTouch(action, event.getX(), event.getY(), event.getEventTime());
+                mRenderThread.signalTouch();
+                if (action == MotionEvent.ACTION_UP && isBlockTouchable) {
+                    return true;
+                }
+                break;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    /**
+     * 写入一个触摸采样。移动采样在队列满时直接丢弃，后续的移动采样仍然带着最新位置
+     */
+    private void offerTouch(int action, float x, float y, long time) {
+        if (!mTouchHandoff.offer(action, x, y, time, action == MotionEvent.ACTION_MOVE) && action != MotionEvent.ACTION_MOVE) {
+            l.e(TAG, "绘制线程没有及时处理触摸事件，丢弃了动作" + action);
+        }
+    }
+
+    private void dispatchVerifyFinished(boolean isSuccess, DragTrajectory trajectory) {
+        if (mScrollVerifyListener instanceof ScrollVerifyView.ScrollVerifyTrajectoryListener) {
+            ((ScrollVerifyView.ScrollVerifyTrajectoryListener) mScrollVerifyListener).onVerifyFinished(isSuccess, trajectory);
+        } else if (mScrollVerifyListener != null) {
+            mScrollVerifyListener.onVerifyFinished(isSuccess);
+        }
+    }
+
+    /**
+     * 重置。在绘制线程重新生成滑块位置和滑块图片，背景图不变
+     */
+    public void reset() {
+        if (mRenderThread != null) {
+            mRenderThread.reset();
+        }
+    }
+
+    /**
+     * 把当前配置交给绘制线程
+     *
+     * @param regenerate 是否立即重新生成拼图
+     */
+    private void applyConfig(boolean regenerate) {
+        if (mRenderThread != null) {
+            mRenderThread.setConfig(mConfig.copy(), regenerate);
+        }
+    }
+
+    private void setSource(Object source) {
+        mSource = source;
+        if (mRenderThread != null) {
+            mRenderThread.setSource(source);
+        }
+    }
+
+    /**
+     * 设置背景图片，拉伸到控件大小绘制。位图交给绘制线程读取，之后不能再修改或者回收
+     *
+     * @param bitmap
+     */
+    public void setImageBitmap(Bitmap bitmap) {
+        setSource(bitmap);
+    }
+
+    /**
+     * 设置背景图片，图片在主线程转换为位图后交给绘制线程
+     *
+     * @param drawable
+     */
+    public void setImageDrawable(Drawable drawable) {
+        setSource(GraphicTools.drawable2Bitmap(drawable));
+    }
+
+    public void setImageResource(@DrawableRes int resId) {
+        setImageDrawable(GraphicTools.getDrawable(getContext(), resId));
+    }
+
+    public PuzzleSource getPuzzleSource() {
+        return mSource instanceof PuzzleSource ? (PuzzleSource) mSource : null;
+    }
+
+    /**
+     * 设置背景图片来源。图片在绘制线程按控件尺寸解码，不会占用主线程
+     *
+     * @param puzzleSource
+     */
+    public void setPuzzleSource(PuzzleSource puzzleSource) {
+        setSource(puzzleSource);
+    }
+
+    @ScrollVerifyMode
+    public int getScrollMode() {
+        return mConfig.scrollMode;
+    }
+
+    public void setScrollMode(@ScrollVerifyMode int scrollMode) {
+        mConfig.scrollMode = scrollMode;
+        applyConfig(false);
+    }
+
+    public boolean isOpenLog() {
+        return isOpenLog;
+    }
+
+    /**
+     * 设置是否打印日志，运行时随时生效
+     *
+     * @param openLog
+     */
+    public void setOpenLog(boolean openLog) {
+        isOpenLog = openLog;
+        l.setOpenLog(openLog);
+    }
+
+    public boolean isOpenRandomRotate() {
+        return mConfig.isOpenRandomRotate;
+    }
+
+    /**
+     * 设置是否开启随机旋转滑块角度，设置后会重新生成拼图
+     *
+     * @param openRandomRotate
+     */
+    public void setOpenRandomRotate(boolean openRandomRotate) {
+        mConfig.isOpenRandomRotate = openRandomRotate;
+        applyConfig(true);
+    }
+
+    /**
+     * 设置关闭随机旋转时滑块的旋转角度，设置后会重新生成拼图
+     *
+     * @param rotateDegree
+     */
+    public void setRotateDegree(float rotateDegree) {
+        mConfig.defaultRotateDegree = rotateDegree;
+        applyConfig(true);
+    }
+
+    public int getRotateSteps() {
+        return mConfig.rotateSteps;
+    }
+
+    /**
+     * 设置随机旋转角度的档数，含义与{@link ScrollVerifyView#setRotateSteps(int)}相同，设置后会重新生成拼图
+     *
+     * @param rotateSteps 档数
+     */
+    public void setRotateSteps(int rotateSteps) {
+        mConfig.rotateSteps = Math.max(0, rotateSteps);
+        applyConfig(true);
+    }
+
+    public boolean isOpenRandomBlockLocation() {
+        return mConfig.isOpenRandomBlockLocation;
+    }
+
+    /**
+     * 设置是否生成随机滑块的功能，下次生成拼图时生效
+     *
+     * @param openRandomBlockLocation true-开启  false-关闭
+     */
+    public void setOpenRandomBlockLocation(boolean openRandomBlockLocation) {
+        mConfig.isOpenRandomBlockLocation = openRandomBlockLocation;
+        applyConfig(false);
+    }
+
+    /**
+     * 获取设置的滑块宽度
+     *
+     * @return 为0时由形状图片的尺寸或者控件宽度除以{@link #setBlockWidthDivide(int)}得到
+     */
+    public int getBlockWidth() {
+        return mConfig.blockWidth;
+    }
+
+    /**
+     * 设置滑块宽度，设置后会重新生成拼图
+     *
+     * @param blockWidth
+     */
+    public void setBlockWidth(int blockWidth) {
+        if (blockWidth <= 0) {
+            throw new IllegalArgumentException("滑块宽度必须大于零");
+        }
+        mConfig.blockWidth = blockWidth;
+        applyConfig(true);
+    }
+
+    /**
+     * 获取设置的滑块高度
+     *
+     * @return 为0时由形状图片的尺寸或者控件高度除以{@link #setBlockHeightDivide(int)}得到
+     */
+    public int getBlockHeight() {
+        return mConfig.blockHeight;
+    }
+
+    /**
+     * 设置滑块高度，设置后会重新生成拼图
+     *
+     * @param blockHeight
+     */
+    public void setBlockHeight(int blockHeight) {
+        if (blockHeight <= 0) {
+            throw new IllegalArgumentException("滑块高度必须大于零");
+        }
+        mConfig.blockHeight = blockHeight;
+        applyConfig(true);
+    }
+
+    public int getBlockWidthDivide() {
+        return mConfig.blockWidthDivide;
+    }
+
+    /**
+     * 设置根据控件宽度生成滑块宽度时的比例系数，设置后会重新生成拼图
+     *
+     * @param blockWidthDivide 比例系数，大于零
+     */
+    public void setBlockWidthDivide(int blockWidthDivide) {
+        if (blockWidthDivide <= 0) {
+            throw new IllegalArgumentException("比例系数必须大于零");
+        }
+        mConfig.blockWidthDivide = blockWidthDivide;
+        applyConfig(true);
+    }
+
+    public int getBlockHeightDivide() {
+        return mConfig.blockHeightDivide;
+    }
+
+    /**
+     * 设置根据控件高度生成滑块高度时的比例系数，设置后会重新生成拼图
+     *
+     * @param blockHeightDivide 比例系数，大于零
+     */
+    public void setBlockHeightDivide(int blockHeightDivide) {
+        if (blockHeightDivide <= 0) {
+            throw new IllegalArgumentException("比例系数必须大于零");
+        }
+        mConfig.blockHeightDivide = blockHeightDivide;
+        applyConfig(true);
+    }
+
+    public int getMaxHorizontalScrollDistance() {
+        return mConfig.maxScrollDistance;
+    }
+
+    /**
+     * 设置理论的滑块横坐标方向或者纵坐标方向的最大可移动距离，设置后会重新生成拼图
+     *
+     * @param maxHorizontalScrollDistance 为{@link ScrollVerifyView#DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE}时按控件宽度计算
+     */
+    public void setMaxHorizontalScrollDistance(int maxHorizontalScrollDistance) {
+        mConfig.maxScrollDistance = maxHorizontalScrollDistance;
+        applyConfig(true);
+    }
+
+    public boolean isBlockTouchable() {
+        return isBlockTouchable;
+    }
+
+    /**
+     * 设置起始滑块是否可以手指拖拽
+     *
+     * @param blockTouchable
+     */
+    public void setBlockTouchable(boolean blockTouchable) {
+        isBlockTouchable = blockTouchable;
+    }
+
+    public int getValidOffset() {
+        return mConfig.validOffset;
+    }
+
+    /**
+     * 设置拖拽验证的偏差值。与{@link ScrollVerifyView#setValidOffset(int)}相同，实际允许的偏差是该值的2倍
+     *
+     * @param validOffset 像素
+     */
+    public void setValidOffset(int validOffset) {
+        mConfig.validOffset = validOffset;
+        applyConfig(false);
+    }
+
+    public boolean isAvoidGenerateTooClose() {
+        return mConfig.isAvoidGenerateTooClose;
+    }
+
+    /**
+     * 设置是否开启避免随机生成滑块过近的功能，下次生成拼图时生效
+     *
+     * @param avoidGenerateTooClose
+     */
+    public void setAvoidGenerateTooClose(boolean avoidGenerateTooClose) {
+        mConfig.isAvoidGenerateTooClose = avoidGenerateTooClose;
+        applyConfig(false);
+    }
+
+    /**
+     * 设置起始滑块的形状图片，设置后会重新生成拼图
+     *
+     * @param movableBlockDrawable
+     */
+    public void setMovableBlockDrawable(Drawable movableBlockDrawable) {
+        mConfig.movableMask = GraphicTools.drawable2Bitmap(movableBlockDrawable);
+        updateBlockDrawableSize(movableBlockDrawable);
+        applyConfig(true);
+    }
+
+    /**
+     * 设置目标滑块的形状图片，设置后会重新生成拼图
+     *
+     * @param targetBlockDrawable
+     */
+    public void setTargetBlockDrawable(Drawable targetBlockDrawable) {
+        mConfig.targetMask = GraphicTools.drawable2Bitmap(targetBlockDrawable);
+        applyConfig(true);
+    }
+
+    private void updateBlockDrawableSize(Drawable movableBlockDrawable) {
+        mConfig.blockDrawableWidth = movableBlockDrawable == null ? 0 : movableBlockDrawable.getIntrinsicWidth();
+        mConfig.blockDrawableHeight = movableBlockDrawable == null ? 0 : movableBlockDrawable.getIntrinsicHeight();
+    }
+
+    public PuzzleShape getPuzzleShape() {
+        return mConfig.puzzleShape;
+    }
+
+    /**
+     * 设置矢量滑块形状，含义与{@link ScrollVerifyView#setPuzzleShape(PuzzleShape)}相同，设置后会重新生成拼图
+     *
+     * @param puzzleShape 为空时使用形状图片
+     */
+    public void setPuzzleShape(PuzzleShape puzzleShape) {
+        mConfig.puzzleShape = puzzleShape;
+        applyConfig(true);
+    }
+
+    public float getRenderScale() {
+        return mConfig.renderScale;
+    }
+
+    /**
+     * 设置内部位图的渲染比例，含义与{@link ScrollVerifyView#setRenderScale(float)}相同。设置后会重新生成拼图
+     *
+     * @param renderScale 取值范围[0.25, 1]，超出时取边界值，默认为1
+     */
+    public void setRenderScale(float renderScale) {
+        mConfig.renderScale = ScrollVerifyView.clampRenderScale(renderScale);
+        applyConfig(true);
+    }
+}
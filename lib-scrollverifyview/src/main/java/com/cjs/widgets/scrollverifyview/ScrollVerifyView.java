@@ -2,21 +2,35 @@ package com.cjs.widgets.scrollverifyview;
 
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
-import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.Window;
 import android.widget.ImageView;
 import android.widget.Toast;
+import android.support.v4.os.TraceCompat;
+
+import com.cjs.widgets.scrollverifyengine.DragTrajectory;
+import com.cjs.widgets.scrollverifyengine.FrameStats;
+import com.cjs.widgets.scrollverifyengine.PuzzleDragModel;
+import com.cjs.widgets.scrollverifyengine.PuzzleLayoutEngine;
+import com.cjs.widgets.scrollverifyengine.TrajectoryEncoder;
+
+import java.nio.ByteBuffer;
 
 /**
  * 描述:图形滑块验证控件
@@ -32,23 +46,35 @@ public class ScrollVerifyView extends ImageView {
     /**
      * 水平滑动模式，起始滑块在目标滑块左侧，并且从起始滑块到目标滑块的滑动轨迹只能是直线形式
      */
-    public static final int MODE_SCROLL_ONLY_HORIZONTAL = 1;
+    public static final int MODE_SCROLL_ONLY_HORIZONTAL = PuzzleLayoutEngine.MODE_SCROLL_ONLY_HORIZONTAL;
     /**
      * 垂直滑动模式，起始滑块在目标滑块上面，并且从起始滑块到目标滑块的滑动轨迹只能是直线形式
      */
-    public static final int MODE_SCROLL_ONLY_VERTICAL = 2;
+    public static final int MODE_SCROLL_ONLY_VERTICAL = PuzzleLayoutEngine.MODE_SCROLL_ONLY_VERTICAL;
     /**
      * 自由滑动模式，起始滑块与目标滑块的相对方向根据设置的起始滑块的基本位置随机产生，并且从起始滑块到目标滑块的滑动轨迹可以自由滑动
      */
-    public static final int MODE_SCROLL_FREE = 3;
+    public static final int MODE_SCROLL_FREE = PuzzleLayoutEngine.MODE_SCROLL_FREE;
     /**
      * 水平滑动模式，起始滑块在目标滑块左侧，并且从起始滑块到目标滑块的滑动轨迹可以自由滑动
      */
-    public static final int MODE_SCROLL_FREE_HORIZONTAL = 4;
+    public static final int MODE_SCROLL_FREE_HORIZONTAL = PuzzleLayoutEngine.MODE_SCROLL_FREE_HORIZONTAL;
     /**
      * 垂直滑动模式，起始滑块在目标滑块上面，并且从起始滑块到目标滑块的滑动轨迹可以自由滑动
      */
-    public static final int MODE_SCROLL_FREE_VERTICAL = 5;
+    public static final int MODE_SCROLL_FREE_VERTICAL = PuzzleLayoutEngine.MODE_SCROLL_FREE_VERTICAL;
+    /**
+     * 绘制质量：抗锯齿、抖动、过滤全部开启(默认)
+     */
+    public static final int RENDER_QUALITY_HIGH = 0;
+    /**
+     * 绘制质量：关闭抗锯齿和抖动
+     */
+    public static final int RENDER_QUALITY_MEDIUM = 1;
+    /**
+     * 绘制质量：在{@link #RENDER_QUALITY_MEDIUM}的基础上关闭滑块绘制时的过滤，之后生成的滑块遮罩旋转时也不再平滑处理
+     */
+    public static final int RENDER_QUALITY_LOW = 2;
     /**
      * 日志打印管理器
      */
@@ -65,6 +91,17 @@ public class ScrollVerifyView extends ImageView {
      * 该值不是真正的最大可滑动距离，而是指代采用默认的最大值。默认值在构造时期是获取不到的，需要在视图渲染完毕后才能获取到。
      */
     public static final int DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE = -9999;
+    /**
+     * puzzleShape属性的取值，与attrs中的枚举一致
+     */
+    static final int PUZZLE_SHAPE_NONE = 0;
+    private static final int PUZZLE_SHAPE_JIGSAW = 1;
+    private static final int PUZZLE_SHAPE_CIRCLE = 2;
+    private static final int PUZZLE_SHAPE_SHIELD = 3;
+    /**
+     * 渲染比例的下限，再小时拉伸后的滑块边缘已经明显模糊
+     */
+    private static final float MIN_RENDER_SCALE = 0.25f;
     /**
      * 整个控件绘制的画笔
      */
@@ -81,6 +118,10 @@ public class ScrollVerifyView extends ImageView {
      * 旋转角度
      */
     private float mRotateDegree;
+    /**
+     * 随机旋转角度的档数，大于0时旋转角度只取360/档数的整数倍，0表示在[0, 270)之间连续取值
+     */
+    private int mRotateSteps;
     /**
      * 是否随机位置生成滑块
      */
@@ -93,14 +134,6 @@ public class ScrollVerifyView extends ImageView {
      * 目标滑块初始纵坐标(左上角的那个像素点)
      */
     private float mTargetBlockY;
-    /**
-     * 起始可移动滑块的坐上角顶点横坐标
-     */
-    private float mStartBlockX;
-    /**
-     * 起始可移动滑块的坐上角顶点纵坐标
-     */
-    private float mStartBlockY;
     /**
      * 当{@link #mBlockWidth}的值为0的时候，取控件宽度除以该值得到滑块宽度
      */
@@ -121,6 +154,16 @@ public class ScrollVerifyView extends ImageView {
      * 控件的背景图bitmap
      */
     private Bitmap mBackBitmap;
+    /**
+     * 按控件尺寸解码的背景图片来源，设置后代替ImageView自身的图片
+     */
+    private PuzzleSource mPuzzleSource;
+    /**
+     * 生成{@link #mBackBitmap}时使用的图片来源和尺寸，用于判断是否需要重新缩放
+     */
+    private Object mBackSource;
+    private int mBackWidth;
+    private int mBackHeight;
     /**
      * 为了美化效果，给滑块设置的在滑动控件内部的内边距
      */
@@ -166,6 +209,14 @@ public class ScrollVerifyView extends ImageView {
      * 目标不可移动滑块的形状图片
      */
     private Drawable mTargetBlockDrawable;
+    /**
+     * 可移动滑块形状图片对应的位图
+     */
+    private Bitmap mMovableMaskBitmap;
+    /**
+     * 目标滑块形状图片对应的位图
+     */
+    private Bitmap mTargetMaskBitmap;
     /**
      * 从可移动滑块形状图片中获取的位图资源
      */
@@ -182,6 +233,135 @@ public class ScrollVerifyView extends ImageView {
      * 控件首次创建的时候的起始滑块的纵坐标，重置时候用
      */
     private float mOriStartBlockY;
+    /**
+     * 进程内共享的位图池，背景图、背景块和滑块位图都从这里复用
+     */
+    private final BitmapPool mPool = BitmapPool.getDefault();
+    /**
+     * 量化旋转角度时各档旋转后的滑块遮罩，控件和后台预生成共用
+     */
+    private final RotationAtlas mRotationAtlas = new RotationAtlas(MaskCache.getDefault());
+    /**
+     * 目标滑块和可移动滑块位图的缓存，只在重置或者尺寸、旋转角度、形状图片变化时重新生成
+     */
+    private final BlockSpriteCache mSpriteCache = new BlockSpriteCache(mPool, MaskCache.getDefault(), mRotationAtlas);
+    /**
+     * 可移动滑块的拖拽模型，保存拖拽过程中滑块的实时位置
+     */
+    private final PuzzleDragModel mDragModel = new PuzzleDragModel();
+    /**
+     * 本次拖拽的触摸轨迹，包括MotionEvent中合并的历史采样。数组预先分配，拖拽过程中不会产生新对象
+     */
+    private final DragTrajectory mTrajectory = new DragTrajectory();
+    /**
+     * 轨迹编码器，只在调用{@link #encodeTrajectory(ByteBuffer)}时使用
+     */
+    private final TrajectoryEncoder mTrajectoryEncoder = new TrajectoryEncoder();
+    /**
+     * 矢量滑块形状，为空时使用形状图片
+     */
+    private PuzzleShape mPuzzleShape;
+    /**
+     * 矢量滑块的绘制，设置了{@link #mPuzzleShape}时才使用
+     */
+    private PuzzleShapeRenderer mShapeRenderer;
+    /**
+     * 是否将目标滑块烘焙进背景图。开启后背景按控件尺寸拉伸绘制(等同于fitXY)，不再经过ImageView自身的绘制
+     */
+    private boolean isBakeTargetBlock;
+    /**
+     * 烘焙了目标滑块的背景图
+     */
+    private Bitmap mBakedBackBitmap;
+    /**
+     * 背景(含目标滑块)是否需要重新烘焙或者录制
+     */
+    private boolean isBackgroundDirty = true;
+    /**
+     * 位图是否因为离开窗口或者内存紧张被释放了。释放后保留拼图的几何信息，下次绘制时按原来的拼图重新生成位图
+     */
+    private boolean isBitmapReleased;
+    /**
+     * 当前的绘制质量
+     */
+    private int mRenderQuality = RENDER_QUALITY_HIGH;
+    /**
+     * 是否根据拖拽时的掉帧情况自动降低绘制质量
+     */
+    private boolean isAdaptiveQuality;
+    private RenderQualityListener mRenderQualityListener;
+    /**
+     * 拖拽期间的掉帧监测，开启自适应质量并且API 16及以上时才创建
+     */
+    private FrameDropMonitor mFrameDropMonitor;
+    private DragFrameMetricsListener mDragFrameMetricsListener;
+    /**
+     * 拖拽期间的帧耗时采集，设置了{@link #mDragFrameMetricsListener}时才创建
+     */
+    private DragFrameCollector mDragFrameCollector;
+    /**
+     * 内部位图相对控件像素的缩放比例，取值(0, 1]。背景图、背景块和滑块位图都按该比例生成，绘制时再拉伸回控件尺寸，
+     * 触摸坐标、滑块位置和验证仍然使用控件像素
+     */
+    private float mRenderScale = 1f;
+    /**
+     * 按控件尺寸绘制缩小的位图时复用的区域
+     */
+    private final RectF mDrawRect = new RectF();
+    /**
+     * 从{@link #onRestoreInstanceState(Parcelable)}恢复的拼图，下次生成拼图时代替随机生成，使用后置空
+     */
+    private SavedState mRestoredState;
+    /**
+     * 接收系统内存紧张的通知，只在控件依附在窗口上时注册
+     */
+    private final ComponentCallbacks2 mTrimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
+    /**
+     * 是否把可移动滑块放到独立的绘制节点中(API 29及以上并且开启硬件加速时生效)
+     */
+    private boolean isPieceLayerEnabled;
+    /**
+     * 背景和可移动滑块的绘制节点，只在{@link #isPieceLayerEnabled}生效时创建
+     */
+    private PuzzleRenderNodes mRenderNodes;
+    /**
+     * 同步生成拼图时使用的几何信息
+     */
+    private final PuzzleGeometry mGeometry = new PuzzleGeometry();
+    /**
+     * 滑块布局引擎
+     */
+    private final PuzzleLayoutEngine mLayoutEngine = new PuzzleLayoutEngine();
+    /**
+     * 拼图后台预生成器
+     */
+    private PuzzlePreparer mPreparer;
+    /**
+     * 是否在每次生成拼图后自动在后台预生成下一个拼图
+     */
+    private boolean isAsyncPrepare;
+    /**
+     * 是否有等待控件尺寸确定后再执行的预生成请求
+     */
+    private boolean isPrepareRequested;
+    /**
+     * 位图释放后在后台按原来的拼图重建的任务，只在来源是{@link PuzzleSource}时使用
+     */
+    private PreparedPuzzle mRestoringPuzzle;
 
     public ScrollVerifyView(Context context) {
         super(context);
@@ -215,6 +395,8 @@ public class ScrollVerifyView extends ImageView {
 
     private void initView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         l = new L(isOpenLog);
+        int movableBlockId = 0;
+        int targetBlockId = 0;
         if (attrs != null) {
             TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.ScrollVerifyView);
             isOpenRandomRotate = array.getBoolean(R.styleable.ScrollVerifyView_openRandomRotate, false);
@@ -224,391 +406,999 @@ public class ScrollVerifyView extends ImageView {
             mBlockHeightDivide = array.getInt(R.styleable.ScrollVerifyView_blockHeightDivide, 4);
             mBlockWidthDivide = array.getInt(R.styleable.ScrollVerifyView_blockWidthDivide, 6);
             mViewPadding = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_viewPadding, GraphicTools.dp2px(getContext(), 5));
+            movableBlockId = array.getResourceId(R.styleable.ScrollVerifyView_movableBlockDrawable, 0);
+            targetBlockId = array.getResourceId(R.styleable.ScrollVerifyView_targetBlockDrawable, 0);
             mMovableBlockDrawable = array.getDrawable(R.styleable.ScrollVerifyView_movableBlockDrawable);
             mTargetBlockDrawable = array.getDrawable(R.styleable.ScrollVerifyView_targetBlockDrawable);
             mMaxHorizontalScrollDistance = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_maxScrollDistance, DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE);
             isBlockTouchable = array.getBoolean(R.styleable.ScrollVerifyView_blockTouchable, true);
             mValidOffset = array.getDimensionPixelOffset(R.styleable.ScrollVerifyView_validOffset, GraphicTools.dp2px(getContext(), 1));
             mDefaultRotateDegree = array.getFloat(R.styleable.ScrollVerifyView_rotateDegree, 0f);
+            mRotateSteps = Math.max(0, array.getInt(R.styleable.ScrollVerifyView_rotateSteps, 0));
             isAvoidGenerateTooClose = array.getBoolean(R.styleable.ScrollVerifyView_avoidGenerateTooClose, true);
             mScrollMode = array.getInt(R.styleable.ScrollVerifyView_scrollMode, MODE_SCROLL_FREE);
+            isBakeTargetBlock = array.getBoolean(R.styleable.ScrollVerifyView_bakeTargetBlock, false);
+            isPieceLayerEnabled = array.getBoolean(R.styleable.ScrollVerifyView_pieceLayer, false);
+            isAsyncPrepare = array.getBoolean(R.styleable.ScrollVerifyView_asyncPrepare, false);
+            mPuzzleShape = getBuiltInShape(array.getInt(R.styleable.ScrollVerifyView_puzzleShape, PUZZLE_SHAPE_NONE));
+            mRenderScale = clampRenderScale(array.getFloat(R.styleable.ScrollVerifyView_renderScale, 1f));
+            isAdaptiveQuality = array.getBoolean(R.styleable.ScrollVerifyView_adaptiveQuality, false);
             array.recycle();
         }
         mMovableBlockDrawable = mMovableBlockDrawable == null ? GraphicTools.getDrawable(getContext(), R.drawable.svv_default_puzzle_shade) : mMovableBlockDrawable;
         mTargetBlockDrawable = mTargetBlockDrawable == null ? GraphicTools.getDrawable(getContext(), R.drawable.svv_default_puzzle_show) : mTargetBlockDrawable;
+        //来自资源的形状图片在进程内共享同一个位图，相同配置的控件缩放后的遮罩也因此可以共享
+        MaskCache maskCache = MaskCache.getDefault();
+        mMovableMaskBitmap = maskCache.getMask(context, movableBlockId != 0 ? movableBlockId : R.drawable.svv_default_puzzle_shade);
+        mTargetMaskBitmap = maskCache.getMask(context, targetBlockId != 0 ? targetBlockId : R.drawable.svv_default_puzzle_show);
+        mPreparer = new PuzzlePreparer(l, new Runnable() {
+            @Override
+            public void run() {
+                //正在等待后台拼图时才需要重新绘制
+                if (isReset || isBitmapReleased) {
+                    invalidate();
+                }
+            }
+        });
+        mShapeRenderer = new PuzzleShapeRenderer(GraphicTools.dp2px(getContext(), 1));
         mViewPaint = new Paint();
         mViewPaint.setAntiAlias(true);
         mViewPaint.setDither(true);
-        mRotateDegree = isOpenRandomRotate ? (float) (Math.random() * 3 * 90) : mDefaultRotateDegree;
+        //缩小生成的位图拉伸绘制时需要双线性过滤，原尺寸绘制时不受影响
+        mViewPaint.setFilterBitmap(true);
+        mRotationAtlas.setSteps(mRotateSteps);
+        mRotateDegree = nextRotateDegree();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        l.d(TAG, "--------------------->onMeasure<---------------------");
-        l.d(TAG, "width:" + getWidth());
-        l.d(TAG, "height:" + getHeight());
-        l.d(TAG, "measuredWidth:" + getMeasuredWidth());
-        l.d(TAG, "measuredHeight:" + getMeasuredHeight());
-        mBackBitmap = getBaseBitmap();
-        if (mBackBitmap == null) {
+        //日志需要拼接字符串，关闭日志时连拼接也省掉
+        if (l.isOpenLog()) {
+            l.d(TAG, "--------------------->onMeasure<---------------------");
+            l.d(TAG, "width:" + getWidth());
+            l.d(TAG, "height:" + getHeight());
+            l.d(TAG, "measuredWidth:" + getMeasuredWidth());
+            l.d(TAG, "measuredHeight:" + getMeasuredHeight());
+        }
+        //测量阶段不再缩放背景图，缩放后的背景图尺寸就是测量尺寸，直接用测量值计算滑块大小
+        if (getBackSource() == null) {
             return;
         }
-        int baseBmpWidth = mBackBitmap.getWidth();
-        int baseBmpHeight = mBackBitmap.getHeight();
-        l.d(TAG, "baseBmpWidth:" + baseBmpWidth);
-        l.d(TAG, "baseBmpHeight:" + baseBmpHeight);
+        measureBlock(getMeasuredWidth(), getMeasuredHeight());
+    }
+
+    /**
+     * 按背景尺寸计算滑块大小和最大滑动距离
+     *
+     * @param baseBmpWidth  背景宽度，即控件的测量宽度
+     * @param baseBmpHeight 背景高度，即控件的测量高度
+     */
+    private void measureBlock(int baseBmpWidth, int baseBmpHeight) {
+        if (l.isOpenLog()) {
+            l.d(TAG, "baseBmpWidth:" + baseBmpWidth);
+            l.d(TAG, "baseBmpHeight:" + baseBmpHeight);
+        }
         int blockDrawableWidth = mMovableBlockDrawable.getIntrinsicWidth();
         int blockDrawableHeight = mMovableBlockDrawable.getIntrinsicHeight();
         if (blockDrawableHeight > 0 && blockDrawableWidth > 0 && mBlockWidth == 0 && mBlockHeight == 0) {
             mBlockWidth = blockDrawableWidth;
             mBlockHeight = blockDrawableHeight;
         } else {
-            mBlockWidth = (mBlockWidth == 0 ? mBackBitmap.getWidth() / mBlockWidthDivide : mBlockWidth);
-            mBlockHeight = (mBlockHeight == 0 ? mBackBitmap.getHeight() / mBlockHeightDivide : mBlockHeight);
+            mBlockWidth = (mBlockWidth == 0 ? baseBmpWidth / mBlockWidthDivide : mBlockWidth);
+            mBlockHeight = (mBlockHeight == 0 ? baseBmpHeight / mBlockHeightDivide : mBlockHeight);
         }
         //通过日志可以看出，首次，getWidth和getHeight是获取不到值的，所以取getMeasuredWidth和getMeasuredHeight
-        l.d(TAG, "maxHorizontalScrollDistance before:" + mMaxHorizontalScrollDistance);
+        if (l.isOpenLog()) {
+            l.d(TAG, "maxHorizontalScrollDistance before:" + mMaxHorizontalScrollDistance);
+        }
         //可用最大滑动值的计算方式是获得两个滑块的中心点的x坐标的差值的最大值，就是最大宽度减去左右padding再减去两个滑块的半宽
-        int availableDistance = getMeasuredWidth() - mViewPadding * 2 - mBlockWidth;
+        int availableDistance = baseBmpWidth - mViewPadding * 2 - mBlockWidth;
         mMaxHorizontalScrollDistance = mMaxHorizontalScrollDistance == DEFAULT_MAX_HORIZONTAL_SCROLL_DISTANCE ? availableDistance : mMaxHorizontalScrollDistance;
-        l.d(TAG, "maxHorizontalScrollDistance after:" + mMaxHorizontalScrollDistance);
+        if (l.isOpenLog()) {
+            l.d(TAG, "maxHorizontalScrollDistance after:" + mMaxHorizontalScrollDistance);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        //先提交等待尺寸的预生成，缩放背景图时发现后台会生成同样的背景图，就不再在主线程缩放
+        if (isPrepareRequested) {
+            schedulePrepare();
+        }
+        if (updateBaseBitmap()) {
+            //背景尺寸变了，原来的滑块位置已经不适用
+            isReset = true;
+            cancelStalePreparation();
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        //还没有生成拼图或者即将重置时没有需要保留的拼图
+        if (!isReset && mBackWidth > 0 && mBackHeight > 0) {
+            state.hasPuzzle = true;
+            state.width = mBackWidth;
+            state.height = mBackHeight;
+            state.blockWidth = mBlockWidth;
+            state.blockHeight = mBlockHeight;
+            state.scrollMode = mScrollMode;
+            state.rotateDegree = mRotateDegree;
+            state.oriStartX = mOriStartBlockX;
+            state.oriStartY = mOriStartBlockY;
+            state.blockX = mDragModel.getBlockX();
+            state.blockY = mDragModel.getBlockY();
+            state.targetX = mTargetBlockX;
+            state.targetY = mTargetBlockY;
+        }
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        if (savedState.hasPuzzle && savedState.scrollMode == mScrollMode) {
+            mRestoredState = savedState;
+            mRotateDegree = savedState.rotateDegree;
+            mPreparer.cancel();
+            isReset = true;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+        if (mDragFrameCollector != null) {
+            mDragFrameCollector.attach(findWindow());
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+        stopFrameDropMonitor();
+        if (mDragFrameCollector != null) {
+            mDragFrameCollector.detach();
+        }
+        //回退栈中的验证码对话框不再持有背景图，重新显示时按原来的拼图重建
+        releaseBitmaps();
+    }
+
+    /**
+     * 响应内存紧张。控件不可见时释放自身的位图，同时清空位图池和遮罩缓存中暂时没有使用的位图
+     *
+     * @param level {@link ComponentCallbacks2}中的TRIM_MEMORY_*
+     */
+    private void trimMemory(int level) {
+        if (l.isOpenLog()) {
+            l.d(TAG, "onTrimMemory level:" + level);
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && !isShown())) {
+            releaseBitmaps();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            //释放的位图放回了池中，内存紧张时不再保留
+            mPool.clear();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            MaskCache.getDefault().clear();
+        }
+    }
+
+    /**
+     * 释放背景图、背景块、滑块和烘焙的位图，保留拼图的几何信息和滑块当前位置。
+     * 下次绘制时由{@link #restoreBitmaps()}按原来的拼图重新生成，用户看到的仍然是同一个验证码
+     */
+    private void releaseBitmaps() {
+        if (mBackBitmap == null) {
+            if (isBitmapReleased) {
+                //后台还在重建时又要求释放，作废重建的结果，下次绘制时重新提交
+                mPreparer.cancel();
+            }
+            return;
+        }
+        TraceCompat.beginSection("ScrollVerify#releaseBitmaps");
+        //预生成的拼图同样持有位图，一并丢弃，恢复后再重新预生成
+        mPreparer.cancel();
+        releaseBackBitmap();
+        mPool.put(mMovableSrcBitmap);
+        mMovableSrcBitmap = null;
+        mSpriteCache.release();
+        mRotationAtlas.clear();
+        mPool.put(mBakedBackBitmap);
+        mBakedBackBitmap = null;
+        if (mRenderNodes != null) {
+            mRenderNodes.release();
+            mRenderNodes = null;
+        }
+        isBitmapReleased = true;
+        isBackgroundDirty = true;
+        TraceCompat.endSection();
+    }
+
+    /**
+     * 按释放前的拼图重新生成背景图和背景块。图片来源和尺寸都没有变化，缩放和截取的结果与释放前相同，
+     * 滑块位图由{@link BlockSpriteCache}在绘制时按需重新生成(遮罩通常还在共享缓存中)。
+     * 来源是{@link PuzzleSource}时需要重新读取和解码图片，交给{@link #restoreInBackground()}
+     */
+    private void restoreBitmaps() {
+        if (mPuzzleSource != null && !isReset) {
+            restoreInBackground();
+            return;
+        }
+        TraceCompat.beginSection("ScrollVerify#restoreBitmaps");
+        isBitmapReleased = false;
+        mBackBitmap = getBaseBitmap();
+        //即将重置时会重新截取，这里不用截取
+        if (mBackBitmap != null && !isReset && mPuzzleShape == null) {
+            mMovableSrcBitmap = cropMovableSrc();
+        }
+        mSpriteCache.invalidate();
+        isBackgroundDirty = true;
+        if (isAsyncPrepare && !isReset && !mPreparer.hasPending()) {
+            schedulePrepare();
+        }
+        TraceCompat.endSection();
+    }
+
+    /**
+     * 在后台按释放前的拼图重新解码背景图、截取背景块和生成滑块位图，完成前绘制占位内容，滑块位置保持不变
+     */
+    private void restoreInBackground() {
+        PreparedPuzzle ready = mPreparer.takeReady();
+        if (ready != null && ready == mRestoringPuzzle) {
+            applyRestoredPuzzle(ready);
+            return;
+        }
+        if (mRestoringPuzzle != null
+                && (mPreparer.getPending() == mRestoringPuzzle || mPreparer.getFailed() == mRestoringPuzzle)) {
+            //还在重建，或者重建失败了(不再反复重试)
+            return;
+        }
+        PuzzleGeometry geometry = new PuzzleGeometry();
+        geometry.setStart(mOriStartBlockX, mOriStartBlockY);
+        geometry.setTarget(mTargetBlockX, mTargetBlockY);
+        geometry.setRealScrollDistance(mRealScrollDistance);
+        geometry.rotateDegree = mRotateDegree;
+        mRestoringPuzzle = createPreparedPuzzle(mPuzzleSource, null, null, mBackWidth, mBackHeight, geometry);
+        mPreparer.prepare(mRestoringPuzzle);
+    }
+
+    /**
+     * 换上后台重建的位图，几何信息和滑块位置沿用释放前的
+     */
+    private void applyRestoredPuzzle(PreparedPuzzle restored) {
+        mRestoringPuzzle = null;
+        isBitmapReleased = false;
+        mBackBitmap = restored.getBackBitmap();
+        mMovableSrcBitmap = restored.getMovableSrcBitmap();
+        if (restored.getSpriteCache() != null) {
+            mSpriteCache.adopt(restored.getSpriteCache());
+        } else {
+            mSpriteCache.release();
+        }
+        isBackgroundDirty = true;
+        if (isAsyncPrepare && !mPreparer.hasPending()) {
+            schedulePrepare();
+        }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
         l.d(TAG, "--------------------->onDraw<---------------------");
-        if (isReset) {
-            mBackBitmap = getBaseBitmap();
+        TraceCompat.beginSection("ScrollVerify#draw");
+        boolean isMeasuring = mDragFrameCollector != null && mDragFrameCollector.isCollecting();
+        long drawStart = isMeasuring ? System.nanoTime() : 0;
+        try {
+            drawPuzzle(canvas);
+        } finally {
+            TraceCompat.endSection();
+            if (isMeasuring) {
+                mDragFrameCollector.recordDraw(System.nanoTime() - drawStart);
+            }
+        }
+    }
+
+    /**
+     * 绘制拼图，外层的{@link #onDraw(Canvas)}只负责添加Trace标记
+     */
+    private void drawPuzzle(Canvas canvas) {
+        //尺寸不变时只有更换了图片才会重新缩放
+        if (updateBaseBitmap()) {
+            isReset = true;
+            cancelStalePreparation();
+        } else if (isBitmapReleased) {
+            restoreBitmaps();
+        }
+        if ((isReset && !takeNextPuzzle()) || mBackBitmap == null) {
+            drawPlaceholder(canvas);
+            return;
+        }
+        if (mPuzzleShape != null) {
+            if (mShapeRenderer.update(mPuzzleShape, mBackBitmap, mRenderScale, mBlockWidth, mBlockHeight,
+                    isOpenRandomRotate ? mRotateDegree : 0, mTargetBlockX, mTargetBlockY)) {
+                isBackgroundDirty = true;
+            }
+        } else if (!mSpriteCache.update(mTargetMaskBitmap, mMovableMaskBitmap, mMovableSrcBitmap,
+                toRenderSize(mBlockWidth, mRenderScale), toRenderSize(mBlockHeight, mRenderScale), isOpenRandomRotate, mRotateDegree)) {
+            //目标滑块位图重新生成过，说明目标位置或者形状发生了变化，背景需要重新烘焙或者录制
+            isBackgroundDirty = true;
+        }
+        if (isPieceLayerEnabled && PuzzleRenderNodes.isSupported() && canvas.isHardwareAccelerated()) {
+            drawWithRenderNodes(canvas);
+        } else {
+            drawBackground(canvas);
+            drawMovableBlock(canvas, mDragModel.getBlockX(), mDragModel.getBlockY());
+        }
+        isBackgroundDirty = false;
+    }
+
+    /**
+     * 绘制背景和目标滑块
+     */
+    private void drawBackground(Canvas canvas) {
+        if (isBakeTargetBlock) {
+            if (isBackgroundDirty || mBakedBackBitmap == null) {
+                bakeBackground();
+            }
+            drawRenderBitmap(canvas, mBakedBackBitmap, 0, 0, mBackWidth, mBackHeight);
+        } else {
+            if (mPuzzleSource != null) {
+                drawRenderBitmap(canvas, mBackBitmap, 0, 0, mBackWidth, mBackHeight);
+            } else {
+                super.onDraw(canvas);
+            }
+            //这两步有顺序要求，先画target再画start,不然target会盖在start上面
+            drawTargetBlock(canvas);
+        }
+    }
+
+    /**
+     * 在目标位置绘制目标滑块
+     */
+    private void drawTargetBlock(Canvas canvas) {
+        if (mPuzzleShape != null) {
+            mShapeRenderer.drawTarget(canvas, mTargetBlockX, mTargetBlockY);
+        } else {
+            drawRenderBitmap(canvas, mSpriteCache.getTargetSprite(), mTargetBlockX, mTargetBlockY, mBlockWidth, mBlockHeight);
+        }
+    }
+
+    /**
+     * 在指定位置绘制可移动滑块
+     */
+    private void drawMovableBlock(Canvas canvas, float x, float y) {
+        if (mPuzzleShape != null) {
+            mShapeRenderer.drawPiece(canvas, x, y);
+        } else {
+            drawRenderBitmap(canvas, mSpriteCache.getMovableSprite(), x, y, mBlockWidth, mBlockHeight);
+        }
+    }
+
+    /**
+     * 按控件像素的位置和尺寸绘制内部位图。渲染比例为1时位图尺寸就是控件尺寸，直接绘制；否则拉伸到控件尺寸
+     */
+    private void drawRenderBitmap(Canvas canvas, Bitmap bitmap, float x, float y, int width, int height) {
+        if (mRenderScale == 1f) {
+            canvas.drawBitmap(bitmap, x, y, mViewPaint);
+        } else {
+            mDrawRect.set(x, y, x + width, y + height);
+            canvas.drawBitmap(bitmap, null, mDrawRect, mViewPaint);
+        }
+    }
+
+    /**
+     * 使用独立的绘制节点绘制。背景只在变化时重新录制，可移动滑块只更新节点位置
+     */
+    private void drawWithRenderNodes(Canvas canvas) {
+        if (mRenderNodes == null) {
+            mRenderNodes = new PuzzleRenderNodes();
+        }
+        if (isBackgroundDirty || !mRenderNodes.hasBackground()) {
+            Canvas backgroundCanvas = mRenderNodes.beginBackground(getWidth(), getHeight());
+            try {
+                drawBackground(backgroundCanvas);
+            } finally {
+                mRenderNodes.endBackground();
+            }
+        }
+        if (isBackgroundDirty) {
+            //滑块位图可能是位图池中复用的同一个对象，内容变了也要重新录制
+            mRenderNodes.invalidatePiece();
+        }
+        if (mPuzzleShape != null) {
+            mRenderNodes.updatePiece(mShapeRenderer, mBlockWidth, mBlockHeight);
+        } else {
+            mRenderNodes.updatePiece(mSpriteCache.getMovableSprite(), mBlockWidth, mBlockHeight, mViewPaint);
+        }
+        mRenderNodes.setPiecePosition(mDragModel.getBlockX(), mDragModel.getBlockY());
+        mRenderNodes.draw(canvas);
+    }
+
+    /**
+     * 换上新的拼图。后台已经生成好或者正在生成符合当前条件的拼图时使用后台的结果，不在主线程重复生成
+     *
+     * @return false-拼图还没有准备好，本次不绘制拼图
+     */
+    private boolean takeNextPuzzle() {
+        PreparedPuzzle prepared = mPreparer.takeReady();
+        if (prepared != null && matchesCurrentInputs(prepared)) {
+            l.d(TAG, "使用后台预生成的拼图");
+            applyPreparedPuzzle(prepared);
+            SavedState restoredState = mRestoredState;
+            mRestoredState = null;
+            if (restoredState != null) {
+                restoreBlockPosition(restoredState);
+            }
+        } else {
+            PreparedPuzzle pending = mPreparer.getPending();
+            if (pending != null && matchesCurrentInputs(pending)) {
+                //后台正在生成，完成后会重新绘制
+                return false;
+            }
+            if (pending != null) {
+                mPreparer.cancel();
+            }
             if (mBackBitmap == null) {
-                return;
+                //等待的后台拼图被作废了，背景图还没有缩放
+                mBackBitmap = getBaseBitmap();
+                if (mBackBitmap == null) {
+                    if (mPuzzleSource != null && !isFailedForCurrentInputs()) {
+                        //PuzzleSource只在后台解码，完成后会重新绘制
+                        schedulePrepare();
+                    }
+                    return false;
+                }
+            }
+            generatePuzzle();
+        }
+        isReset = false;
+        if (isAsyncPrepare && !mPreparer.hasPending()) {
+            schedulePrepare();
+        }
+        return true;
+    }
+
+    /**
+     * 后台按当前条件生成的拼图是否已经失败过。失败后不再反复重试，直到图片、尺寸等条件变化
+     */
+    private boolean isFailedForCurrentInputs() {
+        PreparedPuzzle failed = mPreparer.getFailed();
+        return failed != null && matchesCurrentInputs(failed);
+    }
+
+    /**
+     * 拼图还没有准备好时的绘制。不烘焙时绘制ImageView自身的图片
+     */
+    private void drawPlaceholder(Canvas canvas) {
+        if (!isBakeTargetBlock) {
+            super.onDraw(canvas);
+        }
+    }
+
+    /**
+     * 将缩放后的背景图和目标滑块合成到同一张位图中。目标滑块在两次重置之间不会移动，
+     * 合成之后每一帧只需要绘制一次背景和一次可移动滑块。同尺寸的烘焙位图会被复用。
+     */
+    private void bakeBackground() {
+        TraceCompat.beginSection("ScrollVerify#bakeBackground");
+        int width = mBackBitmap.getWidth();
+        int height = mBackBitmap.getHeight();
+        if (mBakedBackBitmap == null || mBakedBackBitmap.getWidth() != width || mBakedBackBitmap.getHeight() != height) {
+            mPool.put(mBakedBackBitmap);
+            mBakedBackBitmap = mPool.get(width, height, Bitmap.Config.ARGB_8888);
+        }
+        Canvas canvas = new Canvas(mBakedBackBitmap);
+        canvas.drawBitmap(mBackBitmap, 0, 0, null);
+        //烘焙位图和背景图同样按渲染比例缩小，目标滑块按控件像素的位置绘制，画布缩放到同一比例
+        canvas.scale(mRenderScale, mRenderScale);
+        drawTargetBlock(canvas);
+        TraceCompat.endSection();
+    }
+
+    /**
+     * 在主线程同步生成拼图
+     */
+    private void generatePuzzle() {
+        mGeometry.rotateDegree = mRotateDegree;
+        SavedState restoredState = mRestoredState;
+        mRestoredState = null;
+        if (restoredState != null) {
+            //恢复保存的拼图，不重新随机
+            restoreGeometry(restoredState, mBackWidth, mBackHeight, mGeometry);
+        } else if (!generateGeometry(mBackWidth, mBackHeight, mGeometry)) {
+            Toast.makeText(getContext(), "滑块尺寸超过控件大小", Toast.LENGTH_SHORT).show();
+        }
+        applyGeometry(mGeometry);
+        if (restoredState != null) {
+            restoreBlockPosition(restoredState);
+        }
+        //截取的背景块可能复用同一个位图对象，滑块位图缓存不能再以它作为判断依据
+        mSpriteCache.invalidate();
+        mPool.put(mMovableSrcBitmap);
+        mMovableSrcBitmap = null;
+        if (mPuzzleShape != null) {
+            //矢量滑块直接从背景图取色，不需要截取背景块
+            return;
+        }
+        TraceCompat.beginSection("ScrollVerify#extractPiece");
+        mMovableSrcBitmap = cropMovableSrc();
+        TraceCompat.endSection();
+    }
+
+    /**
+     * 从背景图上截取目标位置的背景块，位置和尺寸按渲染比例换算
+     */
+    private Bitmap cropMovableSrc() {
+        return GraphicTools.cropBitmapInto(mBackBitmap, (int) (mTargetBlockX * mRenderScale), (int) (mTargetBlockY * mRenderScale),
+                mPool.get(toRenderSize(mBlockWidth, mRenderScale), toRenderSize(mBlockHeight, mRenderScale), Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * 换上后台预生成的拼图，不再做任何位图处理
+     */
+    private void applyPreparedPuzzle(PreparedPuzzle prepared) {
+        if (prepared.getBackBitmap() != mBackBitmap) {
+            releaseBackBitmap();
+            mBackBitmap = prepared.getBackBitmap();
+        }
+        applyGeometry(prepared.geometry);
+        mPool.put(mMovableSrcBitmap);
+        mMovableSrcBitmap = prepared.getMovableSrcBitmap();
+        if (prepared.getSpriteCache() != null) {
+            mSpriteCache.adopt(prepared.getSpriteCache());
+        } else {
+            mSpriteCache.release();
+        }
+        isBackgroundDirty = true;
+    }
+
+    /**
+     * 由保存的拼图得到几何信息。控件尺寸没有变化时原样恢复；尺寸变化时(如横竖屏切换)背景图按比例缩放，
+     * 滑块位置也按同样的比例换算，并限制在控件内部，因此仍然是同一张图片上的同一个位置
+     */
+    private void restoreGeometry(SavedState state, int totalWidth, int totalHeight, PuzzleGeometry geometry) {
+        if (state.width == totalWidth && state.height == totalHeight && state.blockWidth > 0 && state.blockHeight > 0) {
+            //尺寸相同时沿用保存时的滑块大小(可能是代码中设置的)
+            mBlockWidth = state.blockWidth;
+            mBlockHeight = state.blockHeight;
+        }
+        float startX = clamp(scaleX(state, state.oriStartX, totalWidth), mViewPadding, totalWidth - mBlockWidth - mViewPadding);
+        float startY = clamp(scaleY(state, state.oriStartY, totalHeight), mViewPadding, totalHeight - mBlockHeight - mViewPadding);
+        float targetX = clamp(scaleX(state, state.targetX, totalWidth), mViewPadding, totalWidth - mBlockWidth - mViewPadding);
+        float targetY = clamp(scaleY(state, state.targetY, totalHeight), mViewPadding, totalHeight - mBlockHeight - mViewPadding);
+        geometry.setStart(startX, startY);
+        geometry.setTarget(targetX, targetY);
+        float dx = targetX - startX;
+        float dy = targetY - startY;
+        geometry.setRealScrollDistance((int) Math.sqrt(dx * dx + dy * dy));
+        geometry.rotateDegree = state.rotateDegree;
+        if (l.isOpenLog()) {
+            l.d(TAG, "恢复保存的拼图 startX:" + startX + "  startY:" + startY + "  targetX:" + targetX + "  targetY:" + targetY);
+        }
+    }
+
+    /**
+     * 恢复保存时滑块所在的位置，按尺寸变化换算并限制在控件内部
+     */
+    private void restoreBlockPosition(SavedState state) {
+        mDragModel.setBlockPosition(scaleX(state, state.blockX, mBackWidth), scaleY(state, state.blockY, mBackHeight));
+        mDragModel.makeBlockInsideBounds();
+    }
+
+    private static float scaleX(SavedState state, float x, int totalWidth) {
+        return state.width == totalWidth ? x : x * totalWidth / state.width;
+    }
+
+    private static float scaleY(SavedState state, float y, int totalHeight) {
+        return state.height == totalHeight ? y : y * totalHeight / state.height;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(value, max));
+    }
+
+    /**
+     * 将几何信息应用到控件上
+     */
+    private void applyGeometry(PuzzleGeometry geometry) {
+        mOriStartBlockX = geometry.getStartX();
+        mOriStartBlockY = geometry.getStartY();
+        mTargetBlockX = geometry.getTargetX();
+        mTargetBlockY = geometry.getTargetY();
+        mRealScrollDistance = geometry.getRealScrollDistance();
+        mRotateDegree = geometry.rotateDegree;
+        mDragModel.setBounds(mBackWidth, mBackHeight, mViewPadding);
+        mDragModel.setBlockSize(mBlockWidth, mBlockHeight);
+        mDragModel.setScrollMode(mScrollMode);
+        mDragModel.setBlockPosition(mOriStartBlockX, mOriStartBlockY);
+    }
+
+    /**
+     * 按控件的测量尺寸在后台预生成下一个拼图
+     */
+    private void schedulePrepare() {
+        schedulePrepare(getMeasuredWidth(), getMeasuredHeight());
+    }
+
+    /**
+     * 在后台预生成下一个拼图。几何信息在主线程确定，位图处理交给{@link PuzzlePreparer}
+     *
+     * @param width  控件宽度
+     * @param height 控件高度
+     */
+    private void schedulePrepare(int width, int height) {
+        Object source = getBackSource();
+        //来源是PuzzleSource时在后台按尺寸解码，不需要原图
+        Bitmap sourceBitmap = source instanceof Drawable ? GraphicTools.drawable2Bitmap((Drawable) source) : null;
+        if (source == null || (source instanceof Drawable && sourceBitmap == null) || width <= 0 || height <= 0 || mBlockWidth <= 0 || mBlockHeight <= 0) {
+            //尺寸还没有确定，等onSizeChanged时再预生成
+            isPrepareRequested = true;
+            return;
+        }
+        isPrepareRequested = false;
+        PuzzleGeometry geometry = new PuzzleGeometry();
+        if (mRestoredState != null) {
+            //恢复的拼图还没有换上，后台按保存的拼图生成，换上时再恢复滑块位置
+            restoreGeometry(mRestoredState, width, height, geometry);
+        } else if (!generateGeometry(width, height, geometry)) {
+            return;
+        } else {
+            geometry.rotateDegree = nextRotateDegree();
+        }
+        //背景图的输入条件没有变化时直接复用，后台只需要截取滑块
+        Bitmap reusableBackBitmap = source == mBackSource && width == mBackWidth && height == mBackHeight ? mBackBitmap : null;
+        mPreparer.prepare(createPreparedPuzzle(source, sourceBitmap, reusableBackBitmap, width, height, geometry));
+    }
+
+    /**
+     * 按控件当前的滑块大小、形状和质量设置创建后台任务
+     */
+    private PreparedPuzzle createPreparedPuzzle(Object source, Bitmap sourceBitmap, Bitmap reusableBackBitmap,
+                                                int width, int height, PuzzleGeometry geometry) {
+        return new PreparedPuzzle(mPool, mRotationAtlas, getContext().getApplicationContext(), source, sourceBitmap, reusableBackBitmap, width, height, mBlockWidth, mBlockHeight,
+                mTargetMaskBitmap, mMovableMaskBitmap, mPuzzleShape, isOpenRandomRotate, mRenderScale,
+                mRenderQuality < RENDER_QUALITY_LOW, geometry);
+    }
+
+    private float nextRotateDegree() {
+        if (!isOpenRandomRotate) {
+            return mDefaultRotateDegree;
+        }
+        if (mRotateSteps > 0) {
+            //量化后只会取到图集中的角度，重置时按序号取出已经旋转好的遮罩
+            return RotationAtlas.getDegree((int) (Math.random() * mRotateSteps), mRotateSteps);
+        }
+        return (float) (Math.random() * 3 * 90);
+    }
+
+    /**
+     * 计算滑块位置，不修改控件当前的状态
+     *
+     * @param totalWidth  背景宽度
+     * @param totalHeight 背景高度
+     * @param geometry    计算结果
+     * @return false-滑块尺寸超过控件大小，此时滑块位置保持不变
+     */
+    private boolean generateGeometry(int totalWidth, int totalHeight, PuzzleGeometry geometry) {
+        //非随机位置时以上一次生成的起始位置为基准
+        geometry.setStart(mOriStartBlockX, mOriStartBlockY);
+        geometry.setTarget(mTargetBlockX, mTargetBlockY);
+        geometry.setRealScrollDistance(mRealScrollDistance);
+        mLayoutEngine.setBlockSize(mBlockWidth, mBlockHeight);
+        mLayoutEngine.setPadding(mViewPadding);
+        mLayoutEngine.setScrollMode(mScrollMode);
+        mLayoutEngine.setMaxScrollDistance(mMaxHorizontalScrollDistance);
+        mLayoutEngine.setAvoidTooClose(isAvoidGenerateTooClose);
+        mLayoutEngine.setRandomLocation(isOpenRandomBlockLocation);
+        if (!mLayoutEngine.layout(totalWidth, totalHeight, geometry)) {
+            l.e(TAG, "滑块尺寸超过控件大小");
+            return false;
+        }
+        if (l.isOpenLog()) {
+            l.d(TAG, "totalWidth:" + totalWidth + "  totalHeight:" + totalHeight);
+            l.d(TAG, "blockWidth:" + mBlockWidth + "  blockHeight:" + mBlockHeight);
+            l.d(TAG, "startX:" + geometry.getStartX() + "  startY:" + geometry.getStartY());
+            l.d(TAG, "targetX:" + geometry.getTargetX() + "  targetY:" + geometry.getTargetY());
+        }
+        return true;
+    }
+
+    /**
+     * 按(图片, 测量宽度, 测量高度)缓存缩放后的背景图，三者都没有变化时直接复用
+     *
+     * @return true-重新生成了背景图  false-复用了之前的背景图
+     */
+    private boolean updateBaseBitmap() {
+        Object source = getBackSource();
+        int width = getMeasuredWidth();
+        int height = getMeasuredHeight();
+        if (source == mBackSource && width == mBackWidth && height == mBackHeight) {
+            return false;
+        }
+        mBackSource = source;
+        mBackWidth = width;
+        mBackHeight = height;
+        releaseBackBitmap();
+        //后台正在按同样的条件生成拼图时不在主线程缩放，直接使用后台的背景图
+        PreparedPuzzle pending = mPreparer.getPending();
+        mBackBitmap = pending != null && matchesCurrentInputs(pending) ? null : getBaseBitmap();
+        //图片或者尺寸变了，需要生成新的拼图，不再恢复释放前的拼图
+        isBitmapReleased = false;
+        mRestoringPuzzle = null;
+        return true;
+    }
+
+    /**
+     * 后台的拼图是否符合控件当前的输入条件(图片、尺寸、滑块大小和形状等)
+     */
+    private boolean matchesCurrentInputs(PreparedPuzzle puzzle) {
+        return puzzle.matches(mBackSource, mBackWidth, mBackHeight, mBlockWidth, mBlockHeight,
+                mTargetMaskBitmap, mMovableMaskBitmap, mPuzzleShape, isOpenRandomRotate, mRenderScale);
+    }
+
+    /**
+     * 背景图片或者尺寸变化后，作废不再适用的后台拼图。仍然适用的(比如尺寸确定前按同样的尺寸提交的)保留
+     */
+    private void cancelStalePreparation() {
+        PreparedPuzzle pending = mPreparer.getPending();
+        if (pending != null && !matchesCurrentInputs(pending)) {
+            mPreparer.cancel();
+        }
+    }
+
+    /**
+     * 将背景图放回位图池。后台还有任务时它可能正在读取背景图，此时直接丢弃
+     */
+    private void releaseBackBitmap() {
+        mShapeRenderer.release();
+        if (!mPreparer.hasRunningTask()) {
+            mPool.put(mBackBitmap);
+        }
+        mBackBitmap = null;
+    }
+
+    /**
+     * 开启自适应质量时，在拖拽开始时监测掉帧。已经是最低质量时不再监测
+     */
+    private void startFrameDropMonitor() {
+        if (!isAdaptiveQuality || mRenderQuality >= RENDER_QUALITY_LOW || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        if (mFrameDropMonitor == null) {
+            mFrameDropMonitor = new FrameDropMonitor(new FrameDropMonitor.Callback() {
+                @Override
+                public void onSustainedFrameDrops(int droppedFrames, int expectedFrames) {
+                    stepDownRenderQuality(droppedFrames, expectedFrames);
+                }
+            });
+        }
+        mFrameDropMonitor.start(getRefreshRate());
+    }
+
+    /**
+     * 获取显示刷新率，API 17以下或者还没有依附到屏幕时按60Hz计算
+     */
+    private float getRefreshRate() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && getDisplay() != null) {
+            return getDisplay().getRefreshRate();
+        }
+        return 60f;
+    }
+
+    /**
+     * 从Context中找到控件所在的Activity的窗口
+     *
+     * @return 不是Activity中的控件时为空
+     */
+    private Window findWindow() {
+        Context context = getContext();
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return ((Activity) context).getWindow();
             }
-            initSlideBlockLocation();
-            mMovableSrcBitmap = Bitmap.createBitmap(mBackBitmap, (int) mTargetBlockX, (int) mTargetBlockY, mBlockWidth, mBlockHeight);
-            isReset = false;
+            context = ((ContextWrapper) context).getBaseContext();
         }
-        //这两步有顺序要求，先画target再画start,不然target会盖在start上面
-        canvas.drawBitmap(getTargetBitmap(), mTargetBlockX, mTargetBlockY, mViewPaint);
-        canvas.drawBitmap(getMovableBitmap(mMovableSrcBitmap), mStartBlockX, mStartBlockY, mViewPaint);
+        return null;
     }
 
-    private void initSlideBlockLocation() {
-        int totalWidth = mBackBitmap.getWidth();
-        int totalHeight = mBackBitmap.getHeight();
-        int validScrollDistance = totalWidth - mBlockWidth - mViewPadding * 2;
-        mRealScrollDistance = Math.min(mMaxHorizontalScrollDistance, validScrollDistance);
-        if (totalWidth < (mBlockWidth * 2 + mViewPadding * 2) || totalHeight < (mBlockHeight + mViewPadding * 2)) {
-            l.e(TAG, "滑块尺寸超过控件大小");
-            Toast.makeText(getContext(), "滑块尺寸超过控件大小", Toast.LENGTH_SHORT).show();
+    /**
+     * 结束帧耗时采集，把摘要交给监听器
+     */
+    private void finishDragFrameMetrics() {
+        if (mDragFrameCollector == null) {
             return;
-        } else {
-            switch (mScrollMode) {
-                case MODE_SCROLL_FREE:
-                    applyFreeMode(totalWidth, totalHeight);
-                    break;
-                case MODE_SCROLL_ONLY_HORIZONTAL:
-                    applyHorizontalMode(totalWidth, totalHeight);
-                    break;
-                case MODE_SCROLL_ONLY_VERTICAL:
-                    applyVerticalMode(totalWidth, totalHeight);
-                    break;
-                case MODE_SCROLL_FREE_HORIZONTAL:
-                    applyHorizontalMode(totalWidth, totalHeight);
-                    break;
-                case MODE_SCROLL_FREE_VERTICAL:
-                    applyVerticalMode(totalWidth, totalHeight);
-                    break;
+        }
+        FrameStats stats = mDragFrameCollector.stop();
+        if (stats != null && mDragFrameMetricsListener != null) {
+            if (l.isOpenLog()) {
+                l.d(TAG, "拖拽帧耗时:" + stats);
             }
-            l.d(TAG, "totalWidth:" + totalWidth + "  totalHeight:" + totalHeight);
-            l.d(TAG, "blockWidth:" + mBlockWidth + "  blockHeight:" + mBlockHeight);
-            l.d(TAG, "startX:" + mStartBlockX + "  startY:" + mStartBlockY);
-            l.d(TAG, "targetX:" + mTargetBlockX + "  targetY:" + mTargetBlockY);
-            mOriStartBlockX = mStartBlockX;
-            mOriStartBlockY = mStartBlockY;
+            mDragFrameMetricsListener.onDragFrameMetrics(stats);
+        }
+    }
 
-            float dx = mStartBlockX - mTargetBlockX;
-            float dy = mStartBlockY - mTargetBlockY;
-            mRealScrollDistance = (int) Math.sqrt(dx * dx + dy * dy);
+    private void stopFrameDropMonitor() {
+        if (mFrameDropMonitor != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mFrameDropMonitor.stop();
         }
     }
 
     /**
-     * 设置水平滑动模式
-     *
-     * @param totalHeight
-     * @param totalWidth
+     * 拖拽期间持续掉帧，降低一级绘制质量，直到最低质量
      */
-    private void applyHorizontalMode(int totalWidth, int totalHeight) {
-        l.e(TAG, "水平滑动模式启用");
-        int validStartXRangeStart = mViewPadding;
-        int validStartXRangeEnd = totalWidth - mBlockWidth * 2 - mViewPadding;
-        int validStartYRangeStart = mViewPadding;
-        int validStartYRangeEnd = totalHeight - mBlockHeight - mViewPadding;
-        if (isOpenRandomBlockLocation) {
-            l.e(TAG, "已开启随机滑块生成功能");
-            mStartBlockX = (float) (Math.random() * validStartXRangeEnd);
-            mStartBlockY = (float) (Math.random() * validStartYRangeEnd);
-        } else {
-            mStartBlockX = Math.min(mStartBlockX, validStartXRangeEnd);
-            mStartBlockY = Math.min(mStartBlockY, validStartYRangeEnd);
-        }
-        if (isAvoidGenerateTooClose) {
-            l.e(TAG, "已开启避免滑块生成过近的功能");
-            int suitableDistance = (totalWidth - mBlockWidth * 2 - mViewPadding * 2) / 5;
-            if (totalWidth - (mStartBlockX + mBlockWidth) <= mBlockWidth + mViewPadding + suitableDistance) {
-                mStartBlockX = totalWidth - (mBlockWidth + mViewPadding + suitableDistance) - mBlockWidth;
-            }
+    private void stepDownRenderQuality(int droppedFrames, int expectedFrames) {
+        if (l.isOpenLog()) {
+            l.d(TAG, "持续掉帧 dropped:" + droppedFrames + "  expected:" + expectedFrames);
         }
-        if (mStartBlockX < validStartXRangeStart) {
-            mStartBlockX = validStartXRangeStart;
+        applyRenderQuality(mRenderQuality + 1);
+        if (mRenderQuality >= RENDER_QUALITY_LOW) {
+            stopFrameDropMonitor();
         }
-        if (mStartBlockY < validStartYRangeStart) {
-            mStartBlockY = validStartYRangeStart;
+        if (mRenderQualityListener != null) {
+            mRenderQualityListener.onRenderQualityChanged(mRenderQuality, droppedFrames, expectedFrames);
         }
-        //横轴方向确定目标滑块没有超出范围
-        mTargetBlockX = mStartBlockX + mRealScrollDistance + mBlockWidth;
-        int validTargetRangeEnd = totalWidth - mBlockWidth - mViewPadding;
-        mTargetBlockX = Math.min(mTargetBlockX, validTargetRangeEnd);
-        //纵轴方向无需修改
-        mTargetBlockY = mStartBlockY;
     }
 
     /**
-     * 设置垂直滑动模式
+     * 应用绘制质量。画笔立即生效，滑块遮罩的平滑处理只影响之后重新生成的滑块
      */
-    private void applyVerticalMode(int totalWidth, int totalHeight) {
-        l.e(TAG, "垂直滑动模式启用");
-        int validStartXRangeStart = mViewPadding;
-        int validStartXRangeEnd = totalWidth - mBlockWidth - mViewPadding;
-        int validStartYRangeStart = mViewPadding;
-        int validStartYRangeEnd = totalHeight - mBlockHeight * 2 - mViewPadding;
-        if (isOpenRandomBlockLocation) {
-            l.e(TAG, "已开启随机滑块生成功能");
-            mStartBlockX = (float) (Math.random() * validStartXRangeEnd);
-            mStartBlockY = (float) (Math.random() * validStartYRangeEnd);
-        } else {
-            mStartBlockX = Math.min(mStartBlockX, validStartXRangeEnd);
-            mStartBlockY = Math.min(mStartBlockY, validStartYRangeEnd);
-        }
-        if (isAvoidGenerateTooClose) {
-            l.e(TAG, "已开启避免滑块生成过近的功能");
-            int suitableDistance = (totalHeight - mBlockHeight * 2 - mViewPadding * 2) / 5;
-            if (totalHeight - (mStartBlockY + mBlockHeight) <= mBlockHeight + mViewPadding + suitableDistance) {
-                mStartBlockY = totalHeight - (mBlockHeight + mViewPadding + suitableDistance) - mBlockHeight;
-            }
-        }
-        if (mStartBlockX < validStartXRangeStart) {
-            mStartBlockX = validStartXRangeStart;
-        }
-        if (mStartBlockY < validStartYRangeStart) {
-            mStartBlockY = validStartYRangeStart;
+    private void applyRenderQuality(int quality) {
+        quality = Math.max(RENDER_QUALITY_HIGH, Math.min(quality, RENDER_QUALITY_LOW));
+        if (quality == mRenderQuality) {
+            return;
         }
-        //横轴方向确定目标滑块没有超出范围
-        mTargetBlockY = mStartBlockY + mRealScrollDistance + mBlockHeight;
-        int validTargetRangeEnd = totalHeight - mBlockHeight - mViewPadding;
-        mTargetBlockY = Math.min(mTargetBlockY, validTargetRangeEnd);
-        //纵轴方向无需修改
-        mTargetBlockX = mStartBlockX;
+        mRenderQuality = quality;
+        boolean isHigh = quality == RENDER_QUALITY_HIGH;
+        mViewPaint.setAntiAlias(isHigh);
+        mViewPaint.setDither(isHigh);
+        mViewPaint.setFilterBitmap(quality < RENDER_QUALITY_LOW);
+        mSpriteCache.setSmooth(quality < RENDER_QUALITY_LOW);
+        //预生成的拼图按旧的质量生成，作废后按新的质量重新生成
+        mPreparer.cancel();
+        isBackgroundDirty = true;
+        invalidate();
     }
 
     /**
-     * 设置自由滑动模式
+     * 控件像素的尺寸换算为按渲染比例生成的位图尺寸
      */
-    private void applyFreeMode(int totalWidth, int totalHeight) {
-        l.e(TAG, "自由滑动模式启用");
-        int validStartXRangeStart = mViewPadding;
-        int validStartXRangeEnd = totalWidth - mBlockWidth - mViewPadding;
-        int validStartYRangeStart = mViewPadding;
-        int validStartYRangeEnd = totalHeight - mBlockHeight - mViewPadding;
-        if (isOpenRandomBlockLocation) {
-            l.e(TAG, "已开启随机滑块生成功能");
-            mStartBlockX = (float) (Math.random() * validStartXRangeEnd);
-            mStartBlockY = (float) (Math.random() * validStartYRangeEnd);
-        } else {
-            mStartBlockX = Math.min(mStartBlockX, validStartXRangeEnd);
-            mStartBlockY = Math.min(mStartBlockY, validStartYRangeEnd);
-        }
-        if (mStartBlockX < validStartXRangeStart) {
-            mStartBlockX = validStartXRangeStart;
-        }
-        if (mStartBlockY < validStartYRangeStart) {
-            mStartBlockY = validStartYRangeStart;
-        }
+    static int toRenderSize(int size, float renderScale) {
+        return renderScale == 1f ? size : Math.max(1, Math.round(size * renderScale));
+    }
 
-        //看人品的随机算法，其他模式都是一次生成，这个可能需要多次，不过即使多次影响几乎看不到
-        boolean isNeedGenerate = true;
-        int times = 0;
-        while (isNeedGenerate) {
-            l.d(TAG, "generateTimes:" + (times++));
-            //先保证目标滑块的初始位置是在父容器内部
-            mTargetBlockX = (float) (Math.random() * validStartXRangeEnd);
-            mTargetBlockY = (float) (Math.random() * validStartYRangeEnd);
+    static float clampRenderScale(float renderScale) {
+        return Math.max(MIN_RENDER_SCALE, Math.min(renderScale, 1f));
+    }
 
-            RectF startBlock = new RectF(mStartBlockX, mStartBlockY, mStartBlockX + mBlockWidth, mStartBlockY + mBlockHeight);
-            RectF targetBlock = new RectF(mTargetBlockX, mTargetBlockY, mTargetBlockX + mBlockWidth, mTargetBlockY + mBlockHeight);
+    /**
+     * 背景图使用的格式，原图是RGB_565时沿用以节省内存，其余情况使用ARGB_8888
+     */
+    static Bitmap.Config getBackConfig(Bitmap source) {
+        return source.getConfig() == Bitmap.Config.RGB_565 ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    }
 
-            if (startBlock.intersect(targetBlock)) {//起始模块和目标模块相交
-                isNeedGenerate = true;
-            } else {
-                if (isAvoidGenerateTooClose) {
-                    float x1 = startBlock.centerX();
-                    float y1 = startBlock.centerY();
-                    float x2 = targetBlock.centerX();
-                    float y2 = targetBlock.centerY();
-                    float dx = Math.abs(x2 - x1);
-                    float dy = Math.abs(y2 - y1);
-                    int suitableDx = mBackBitmap.getWidth() / 5;
-                    int suitableDy = mBackBitmap.getHeight() / 5;
-                    l.d(TAG, "dx:" + dx);
-                    l.d(TAG, "dy:" + dy);
-                    isNeedGenerate = !(dx >= suitableDx || dy >= suitableDy);
-                } else {
-                    isNeedGenerate = false;
-                }
-            }
+    /**
+     * 根据puzzleShape属性获取内置的矢量滑块形状
+     */
+    static PuzzleShape getBuiltInShape(int shape) {
+        switch (shape) {
+            case PUZZLE_SHAPE_JIGSAW:
+                return PuzzleShape.jigsaw();
+            case PUZZLE_SHAPE_CIRCLE:
+                return PuzzleShape.circle();
+            case PUZZLE_SHAPE_SHIELD:
+                return PuzzleShape.shield();
+            default:
+                return null;
         }
     }
 
+    /**
+     * 背景图片来源，设置了{@link PuzzleSource}时优先使用
+     */
+    private Object getBackSource() {
+        return mPuzzleSource != null ? mPuzzleSource : getDrawable();
+    }
+
     /**
      * 获取实际显示的图片
      *
-     * @return
+     * @return 设置了{@link PuzzleSource}时返回null，图片只在后台解码
      */
     private Bitmap getBaseBitmap() {
+        if (mPuzzleSource != null) {
+            return null;
+        }
         Bitmap b = GraphicTools.drawable2Bitmap(getDrawable());
-        if (b == null) {
+        if (b == null || getMeasuredWidth() <= 0 || getMeasuredHeight() <= 0) {
             return null;
         }
-        float scaleX = 1.0f;
-        float scaleY = 1.0f;
-        // 如果图片的宽或者高与view的宽高不匹配，计算出需要缩放的比例；缩放后的图片的宽高，一定要大于我们view的宽高；所以我们这里取大值；
-        //该方法会在onMeasure中调用，此时getWidth获取值是0，所以使用getMeasuredWidth
-        scaleX = getMeasuredWidth() * 1.0f / b.getWidth();
-        scaleY = getMeasuredHeight() * 1.0f / b.getHeight();
-        return GraphicTools.scaleSetBitmap(b, scaleX, scaleY);
-    }
-
-    /**
-     * 获取可移动滑块的bitmap
-     *
-     * @param srcBitmap 基于控件背景图和滑块同样大小的bitmap
-     * @return
-     */
-    private Bitmap getMovableBitmap(Bitmap srcBitmap) {
-        Bitmap b = GraphicTools.drawable2Bitmap(mMovableBlockDrawable);
-        b = GraphicTools.scalePostBitmap(b, ((float) mBlockWidth) / b.getWidth(), ((float) mBlockHeight) / b.getHeight());
-        //之前这样写，旋转角度后可能会导致滑块图像变形
-        if (isOpenRandomRotate) {
-            b = GraphicTools.rotatePostBitmap(b, mRotateDegree);
-            b = GraphicTools.scalePostBitmap(b, ((float) mBlockWidth) / b.getWidth(), ((float) mBlockHeight) / b.getHeight());
-        }
-        /*int blockWidth = b.getWidth();
-        int blockHeight = b.getHeight();*/
-        int blockWidth=mBlockWidth;
-        int blockHeight=mBlockHeight;
-        Bitmap resultBmp = Bitmap.createBitmap(blockWidth, blockHeight, Bitmap.Config.ARGB_8888);
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        Canvas canvas = new Canvas(resultBmp);
-        canvas.drawBitmap(b, new Rect(0, 0, blockWidth, blockHeight), new Rect(0, 0, blockWidth, blockHeight),
-                paint);
-        // 选择交集去上层图片
-        paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.MULTIPLY));
-        canvas.drawBitmap(srcBitmap, new Rect(0, 0, blockWidth, blockHeight), new Rect(0, 0, blockWidth, blockHeight), paint);
-        return resultBmp;
-    }
-
-    /**
-     * 获取目标滑块bmp
-     *
-     * @return
-     */
-    private Bitmap getTargetBitmap() {
-        Bitmap b = GraphicTools.drawable2Bitmap(mTargetBlockDrawable);
-        b = GraphicTools.scalePostBitmap(b, ((float) mBlockWidth) / b.getWidth(), ((float) mBlockHeight) / b.getHeight());
-        if (isOpenRandomRotate) {
-            b = GraphicTools.rotatePostBitmap(b, mRotateDegree);
-            b = GraphicTools.scalePostBitmap(b, ((float) mBlockWidth) / b.getWidth(), ((float) mBlockHeight) / b.getHeight());
+        //控件尺寸确定之前getWidth获取值是0，所以使用getMeasuredWidth。背景图拉伸到控件大小，同尺寸的位图从位图池中复用
+        TraceCompat.beginSection("ScrollVerify#scaleBackground");
+        try {
+            return GraphicTools.scaleBitmapInto(b, mPool.get(toRenderSize(getMeasuredWidth(), mRenderScale),
+                    toRenderSize(getMeasuredHeight(), mRenderScale), getBackConfig(b)));
+        } finally {
+            TraceCompat.endSection();
         }
-        return b;
     }
 
-    private float lastTouchX;
-    private float lastTouchY;
-    private float firstTouchX;
-    private float firstTouchY;
-    private boolean isMove;
-
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         float touchX = event.getX();
         float touchY = event.getY();
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                isMove = false;
                 l.e(TAG, "action down");
+                mTrajectory.clear();
+                mTrajectory.add(touchX, touchY, event.getEventTime());
+                mDragModel.onDown(touchX, touchY);
+                //只有真正开始拖拽滑块时才监测和采集，不可触摸时收不到抬起和取消，监测和采集会一直运行下去
+                if (isBlockTouchable && mDragModel.isTouchInsideBlock(touchX, touchY)) {
+                    startFrameDropMonitor();
+                    if (mDragFrameCollector != null) {
+                        mDragFrameCollector.start(getRefreshRate());
+                    }
+                } else {
+                    stopFrameDropMonitor();
+                    if (mDragFrameCollector != null) {
+                        //没有开始拖拽，不上报
+                        mDragFrameCollector.stop();
+                    }
+                }
                 if (isBlockTouchable) {
-                    lastTouchX = touchX;
-                    lastTouchY = touchY;
-                    firstTouchX = touchX;
-                    firstTouchY = touchY;
                     return true;
                 }
                 break;
+            case MotionEvent.ACTION_CANCEL:
+                stopFrameDropMonitor();
+                finishDragFrameMetrics();
+                break;
             case MotionEvent.ACTION_UP:
                 l.e(TAG, "action up");
-                if (isMove) {
+                stopFrameDropMonitor();
+                finishDragFrameMetrics();
+                recordTrajectory(event);
+                if (mDragModel.isMove()) {
                     if (verify()) {
-                        if (mScrollVerifyListener != null) {
-                            mScrollVerifyListener.onVerifyFinished(true);
-                        }
+                        dispatchVerifyFinished(true);
                         l.d(TAG, "verify success");
                     } else {
-                        if (mScrollVerifyListener != null) {
-                            mScrollVerifyListener.onVerifyFinished(false);
-                        }
+                        dispatchVerifyFinished(false);
                         l.d(TAG, "verify failed");
                     }
                     l.d(TAG, "verify finished");
-
-                    firstTouchX = touchX;
-                    firstTouchY = touchY;
+                    mDragModel.onUp(touchX, touchY);
                     return true;
                 }
                 break;
             case MotionEvent.ACTION_MOVE:
-                isMove = isValidDrag(touchX, touchY, lastTouchX, lastTouchY, 1)
-                        || isValidDrag(touchX, touchY, firstTouchX, firstTouchY, 1);
-                if (isMove && isTouchInsideMovableBlock(touchX, touchY)) {
+                recordTrajectory(event);
+                float oldBlockX = mDragModel.getBlockX();
+                float oldBlockY = mDragModel.getBlockY();
+                if (mDragModel.onMove(touchX, touchY)) {
                     l.e(TAG, "action move");
-                    switch (mScrollMode) {
-                        case MODE_SCROLL_FREE:
-                            mStartBlockX += touchX - lastTouchX;
-                            mStartBlockY += touchY - lastTouchY;
-                            break;
-                        case MODE_SCROLL_ONLY_HORIZONTAL:
-                            mStartBlockX += touchX - lastTouchX;
-                            break;
-                        case MODE_SCROLL_ONLY_VERTICAL:
-                            mStartBlockY += touchY - lastTouchY;
-                            break;
-                        case MODE_SCROLL_FREE_HORIZONTAL:
-                            mStartBlockX += touchX - lastTouchX;
-                            mStartBlockY += touchY - lastTouchY;
-                            break;
-                        case MODE_SCROLL_FREE_VERTICAL:
-                            mStartBlockX += touchX - lastTouchX;
-                            mStartBlockY += touchY - lastTouchY;
-                            break;
+                    if (isPieceLayerEnabled && mRenderNodes != null) {
+                        //滑块在独立节点中，只需要平移节点，背景不会重新录制
+                        mRenderNodes.setPiecePosition(mDragModel.getBlockX(), mDragModel.getBlockY());
+                        invalidate();
+                    } else {
+                        invalidateBlockMove(oldBlockX, oldBlockY, mDragModel.getBlockX(), mDragModel.getBlockY());
                     }
-                    makeBlockInsideParent();
-                    invalidate();
-                    lastTouchX = touchX;
-                    lastTouchY = touchY;
                 } else {
-                    l.e(TAG, "虽然是move操作，但位移不满足条件，视为单击");
+                    l.e(TAG, "虽然是move操作，但位移不满足条件或者滑块已在边界，无需重绘");
                 }
                 break;
         }
@@ -616,61 +1406,70 @@ public class ScrollVerifyView extends ImageView {
     }
 
     /**
-     * 确保滑块在指定范围里面滑动
+     * 记录事件中的全部采样。高采样率的屏幕上系统会把两帧之间的多个采样合并到一个MOVE事件里，
+     * 只取getX/getY会丢掉这些历史采样
      */
-    private void makeBlockInsideParent() {
-        int xStart = mViewPadding;
-        int xEnd = mBackBitmap.getWidth() - mViewPadding - mBlockWidth;
-        mStartBlockX = mStartBlockX > xEnd ? xEnd : mStartBlockX;
-        mStartBlockX = mStartBlockX < xStart ? xStart : mStartBlockX;
-        int yStart = mViewPadding;
-        int yEnd = mBackBitmap.getHeight() - mViewPadding - mBlockHeight;
-        mStartBlockY = mStartBlockY > yEnd ? yEnd : mStartBlockY;
-        mStartBlockY = mStartBlockY < yStart ? yStart : mStartBlockY;
+    private void recordTrajectory(MotionEvent event) {
+        int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            mTrajectory.add(event.getHistoricalX(i), event.getHistoricalY(i), event.getHistoricalEventTime(i));
+        }
+        mTrajectory.add(event.getX(), event.getY(), event.getEventTime());
+    }
+
+    private void dispatchVerifyFinished(boolean isSuccess) {
+        if (mScrollVerifyListener instanceof ScrollVerifyTrajectoryListener) {
+            ((ScrollVerifyTrajectoryListener) mScrollVerifyListener).onVerifyFinished(isSuccess, mTrajectory);
+        } else if (mScrollVerifyListener != null) {
+            mScrollVerifyListener.onVerifyFinished(isSuccess);
+        }
     }
 
     /**
-     * 手指触摸区域是否在可移动的滑块内部
+     * 获取最近一次拖拽的触摸轨迹。轨迹会在下一次按下时被清空，需要保留时调用{@link DragTrajectory#copy()}
      *
-     * @param touchX
-     * @param touchY
      * @return
      */
-    private boolean isTouchInsideMovableBlock(float touchX, float touchY) {
-        RectF rectF = new RectF(mStartBlockX, mStartBlockY, mStartBlockX + mBlockWidth, mStartBlockY + mBlockHeight);
-//        return touchX >= mStartBlockX && touchX <= mStartBlockX + mBlockWidth && touchY >= mStartBlockY && touchY <= mStartBlockY + mBlockHeight;
-        return rectF.contains(touchX, touchY);
+    public DragTrajectory getDragTrajectory() {
+        return mTrajectory;
     }
 
     /**
-     * 校验是否到达目标位置
+     * 把最近一次拖拽的轨迹连同当前拼图的滑动模式、滑块尺寸、起始和目标位置编码成紧凑的二进制格式，用于上传给服务端。
+     * 服务端可以用{@link com.cjs.widgets.scrollverifyengine.TrajectoryDecoder}解码
      *
-     * @return 如果起始滑块和目标滑块的中心点直线距离小于等于 {@link #mValidOffset}就视为成功，反之失败
+     * @param out 输出缓冲区，剩余空间不少于{@link TrajectoryEncoder#getMaxEncodedSize(int)}时一定能写下
+     * @return 写入的字节数
+     * @throws java.nio.BufferOverflowException 剩余空间不足，此时缓冲区的位置不变
+     */
+    public int encodeTrajectory(ByteBuffer out) {
+        mTrajectoryEncoder.setScrollMode(mScrollMode);
+        mTrajectoryEncoder.setBlockSize(mBlockWidth, mBlockHeight);
+        mTrajectoryEncoder.setStart(mOriStartBlockX, mOriStartBlockY);
+        mTrajectoryEncoder.setTarget(mTargetBlockX, mTargetBlockY);
+        return mTrajectoryEncoder.encode(mTrajectory, out);
+    }
+
+    /**
+     * 只重绘可移动滑块移动前后两个位置的并集区域
      */
-    private boolean verify() {
-        float centerStartX = (mStartBlockX + mBlockWidth) / 2;
-        float centerStartY = (mStartBlockY + mBlockHeight) / 2;
-        float centerTargetX = (mTargetBlockX + mBlockWidth) / 2;
-        float centerTargetY = (mTargetBlockY + mBlockHeight) / 2;
-        float dx = centerStartX - centerTargetX;
-        float dy = centerStartY - centerTargetY;
-        return Math.sqrt(dx * dx + dy * dy) <= mValidOffset;
+    private void invalidateBlockMove(float oldX, float oldY, float newX, float newY) {
+        //滑块坐标是浮点数，抗锯齿绘制时会影响到相邻像素，所以各边再向外扩一个像素
+        int left = (int) Math.floor(Math.min(oldX, newX)) - 1;
+        int top = (int) Math.floor(Math.min(oldY, newY)) - 1;
+        int right = (int) Math.ceil(Math.max(oldX, newX) + mBlockWidth) + 1;
+        int bottom = (int) Math.ceil(Math.max(oldY, newY) + mBlockHeight) + 1;
+        invalidate(left, top, right, bottom);
     }
 
     /**
-     * 是否是有效的拖拽
+     * 校验是否到达目标位置
      *
-     * @param x1
-     * @param y1
-     * @param x2
-     * @param y2
-     * @param offset
-     * @return
+     * @return 如果起始滑块和目标滑块左上角的直线距离小于等于2倍的{@link #mValidOffset}就视为成功，反之失败，
+     * 规则见{@link PuzzleDragModel#verify(float, float, float, float, int, int, int)}
      */
-    private boolean isValidDrag(float x1, float y1, float x2, float y2, int offset) {
-        float dx = x2 - x1;
-        float dy = y2 - y1;
-        return Math.sqrt(dx * dx + dy * dy) >= offset;
+    private boolean verify() {
+        return mDragModel.verify(mTargetBlockX, mTargetBlockY, mValidOffset);
     }
 
     /**
@@ -692,13 +1491,105 @@ public class ScrollVerifyView extends ImageView {
     }
 
     /**
-     * 重置
+     * 描述:带触摸轨迹的滑动验证控件监听器
+     * <p>
+     * 设置该监听器时只回调{@link #onVerifyFinished(boolean, DragTrajectory)}，不再回调{@link #onVerifyFinished(boolean)}。
+     * 轨迹可以交给服务端做人机识别
+     * <p>
+     * 创建时间:2026年10月18日 19:30
+     *
+     * @version 1.0
+     */
+    public interface ScrollVerifyTrajectoryListener extends ScrollVerifyListener {
+        /**
+         * 滑动验证结束
+         *
+         * @param isSuccess  true-验证成功  false-验证失败
+         * @param trajectory 本次拖拽的触摸轨迹，按下到抬起的全部采样。只在回调期间有效，需要保留时调用{@link DragTrajectory#copy()}
+         */
+        void onVerifyFinished(boolean isSuccess, DragTrajectory trajectory);
+    }
+
+    /**
+     * 重置。只重新生成滑块位置和滑块图片，图片和控件尺寸不变时缩放后的背景图会被复用。
+     * 如果后台已经预生成好了下一个拼图(见{@link #prepare()})，会直接换上该拼图
      */
     public void reset() {
         isReset = true;
-        mRotateDegree = isOpenRandomRotate ? (float) (Math.random() * 3 * 90) : mDefaultRotateDegree;
-        mStartBlockX = mOriStartBlockX;
-        mStartBlockY = mOriStartBlockY;
+        mSpriteCache.invalidate();
+        mRotateDegree = nextRotateDegree();
+        mDragModel.setBlockPosition(mOriStartBlockX, mOriStartBlockY);
+        invalidate();
+    }
+
+    /**
+     * 在后台线程预生成下一个拼图，下次{@link #reset()}时直接使用，主线程不再做位图缩放和滑块合成。
+     * 控件尺寸还没有确定时，会在尺寸确定后再开始预生成，首次绘制等待该拼图完成，不在主线程重复生成。
+     * 希望第一个拼图在控件显示之前就开始生成时使用{@link #prepare(int, int)}
+     */
+    public void prepare() {
+        schedulePrepare();
+    }
+
+    /**
+     * 按指定的控件尺寸立即在后台预生成拼图，适合在对话框显示之前、控件还没有测量时调用。
+     * 首次绘制时直接换上该拼图，还没有完成时等待它完成，主线程不再缩放背景图和生成拼图。
+     * 尺寸需要与控件最终的测量尺寸相同，否则该拼图会被丢弃，首次绘制时在主线程重新生成
+     *
+     * @param width  控件宽度(像素)
+     * @param height 控件高度(像素)
+     */
+    public void prepare(int width, int height) {
+        if (getBackSource() == null || width <= 0 || height <= 0) {
+            schedulePrepare();
+            return;
+        }
+        if (getMeasuredWidth() <= 0 || getMeasuredHeight() <= 0) {
+            //还没有测量过，先按指定的尺寸计算滑块大小，测量时得到同样的结果
+            measureBlock(width, height);
+        }
+        schedulePrepare(width, height);
+    }
+
+    public boolean isAsyncPrepare() {
+        return isAsyncPrepare;
+    }
+
+    /**
+     * 设置是否在每次生成拼图后自动在后台预生成下一个拼图
+     *
+     * @param asyncPrepare
+     */
+    public void setAsyncPrepare(boolean asyncPrepare) {
+        isAsyncPrepare = asyncPrepare;
+        if (asyncPrepare && !isReset && !mPreparer.hasPending()) {
+            schedulePrepare();
+        } else if (!asyncPrepare) {
+            mPreparer.cancel();
+        }
+    }
+
+    /**
+     * 获取背景图片来源
+     *
+     * @return 没有设置时返回null，此时使用ImageView自身的图片
+     */
+    public PuzzleSource getPuzzleSource() {
+        return mPuzzleSource;
+    }
+
+    /**
+     * 设置背景图片来源。图片按控件的测量尺寸解码，不会把原始分辨率的图片完整地读进内存，适合较大的网络或者本地图片。
+     * 设置后代替ImageView自身的图片绘制背景(拉伸到控件大小)，设置为null时恢复使用ImageView自身的图片。
+     * 没有ImageView自身的图片时控件无法根据图片测量，需要指定确定的宽高。
+     * 解码在后台进行，完成之前绘制ImageView自身的图片作为占位
+     *
+     * @param puzzleSource
+     */
+    public void setPuzzleSource(PuzzleSource puzzleSource) {
+        mPuzzleSource = puzzleSource;
+        mPreparer.cancel();
+        requestLayout();
         invalidate();
     }
 
@@ -709,14 +1600,115 @@ public class ScrollVerifyView extends ImageView {
 
     public void setScrollMode(@ScrollVerifyMode int scrollMode) {
         mScrollMode = scrollMode;
+        mDragModel.setScrollMode(scrollMode);
+        mPreparer.cancel();
     }
 
     public boolean isOpenLog() {
         return isOpenLog;
     }
 
+    /**
+     * 获取滑块位图缓存的命中次数，每次绘制时复用了已生成的滑块位图即算一次命中
+     *
+     * @return
+     */
+    public int getSpriteCacheHitCount() {
+        return mSpriteCache.getHitCount();
+    }
+
+    /**
+     * 获取滑块位图缓存的未命中次数，即重新生成滑块位图的次数
+     *
+     * @return
+     */
+    public int getSpriteCacheMissCount() {
+        return mSpriteCache.getMissCount();
+    }
+
+    /**
+     * 是否已经开启了目标滑块烘焙模式
+     *
+     * @return
+     */
+    public boolean isBakeTargetBlock() {
+        return isBakeTargetBlock;
+    }
+
+    /**
+     * 设置是否将目标滑块烘焙进背景图。开启后每次生成拼图时把背景和目标滑块合成为一张位图，
+     * 拖拽时每一帧只需绘制背景和可移动滑块两次。背景会按控件尺寸拉伸绘制(等同于fitXY)。
+     *
+     * @param bakeTargetBlock true-开启  false-关闭
+     */
+    public void setBakeTargetBlock(boolean bakeTargetBlock) {
+        isBakeTargetBlock = bakeTargetBlock;
+        if (!bakeTargetBlock) {
+            mPool.put(mBakedBackBitmap);
+            mBakedBackBitmap = null;
+        }
+        isBackgroundDirty = true;
+        invalidate();
+    }
+
+    /**
+     * 获取矢量滑块形状
+     *
+     * @return 为空时使用形状图片
+     */
+    public PuzzleShape getPuzzleShape() {
+        return mPuzzleShape;
+    }
+
+    /**
+     * 设置矢量滑块形状。设置后忽略movableBlockDrawable和targetBlockDrawable，可移动滑块直接用背景填充形状路径，
+     * 不再生成滑块位图，在任何密度下都保持清晰。设置为空时恢复使用形状图片。设置后会重新生成拼图
+     *
+     * @param puzzleShape 可以使用{@link PuzzleShape#jigsaw()}等内置形状，或者{@link PuzzleShape#fromPath}自定义
+     */
+    public void setPuzzleShape(PuzzleShape puzzleShape) {
+        mPuzzleShape = puzzleShape;
+        if (puzzleShape != null) {
+            mSpriteCache.release();
+        }
+        mPreparer.cancel();
+        reset();
+    }
+
+    /**
+     * 是否开启了可移动滑块独立绘制节点
+     *
+     * @return
+     */
+    public boolean isPieceLayerEnabled() {
+        return isPieceLayerEnabled;
+    }
+
+    /**
+     * 设置是否把可移动滑块放到独立的绘制节点中。开启后背景只在拼图变化时录制一次，拖拽时只平移滑块节点，
+     * 不再重新录制背景。仅在API 29及以上并且开启硬件加速时生效，其余情况按普通方式绘制。
+     * 注意该模式下背景录制后不会跟随ImageView自身的变化(如动画图片)刷新，直到下次重置。
+     *
+     * @param pieceLayerEnabled true-开启  false-关闭
+     */
+    public void setPieceLayerEnabled(boolean pieceLayerEnabled) {
+        isPieceLayerEnabled = pieceLayerEnabled;
+        if (!pieceLayerEnabled && mRenderNodes != null) {
+            mRenderNodes.release();
+            mRenderNodes = null;
+        }
+        isBackgroundDirty = true;
+        invalidate();
+    }
+
+    /**
+     * 设置是否打印日志，运行时随时生效
+     *
+     * @param openLog
+     */
     public void setOpenLog(boolean openLog) {
         isOpenLog = openLog;
+        l.setOpenLog(openLog);
     }
 
     public float getRotateDegree() {
@@ -734,6 +1726,112 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setOpenRandomRotate(boolean openRandomRotate) {
         isOpenRandomRotate = openRandomRotate;
+        mPreparer.cancel();
+    }
+
+    /**
+     * 获取当前的绘制质量
+     *
+     * @return {@link #RENDER_QUALITY_HIGH}、{@link #RENDER_QUALITY_MEDIUM}或者{@link #RENDER_QUALITY_LOW}
+     */
+    public int getRenderQuality() {
+        return mRenderQuality;
+    }
+
+    /**
+     * 直接设置绘制质量，例如按照收集到的机型数据预先降低质量。开启了自适应质量时仍然可能继续降低
+     *
+     * @param renderQuality {@link #RENDER_QUALITY_HIGH}、{@link #RENDER_QUALITY_MEDIUM}或者{@link #RENDER_QUALITY_LOW}
+     */
+    public void setRenderQuality(int renderQuality) {
+        applyRenderQuality(renderQuality);
+    }
+
+    public boolean isAdaptiveQuality() {
+        return isAdaptiveQuality;
+    }
+
+    /**
+     * 设置是否开启自适应绘制质量。开启后在拖拽期间通过{@link android.view.Choreographer}监测帧间隔，
+     * 持续掉帧时逐级降低绘制质量，降低后在控件的生命周期内不再恢复。需要API 16及以上，更低的版本上没有效果
+     *
+     * @param adaptiveQuality true-开启  false-关闭(默认)
+     */
+    public void setAdaptiveQuality(boolean adaptiveQuality) {
+        isAdaptiveQuality = adaptiveQuality;
+        if (!adaptiveQuality) {
+            stopFrameDropMonitor();
+        }
+    }
+
+    /**
+     * 设置绘制质量变化的监听器，自适应质量降低时回调，可以用来按机型收集数据
+     *
+     * @param renderQualityListener
+     */
+    public void setRenderQualityListener(RenderQualityListener renderQualityListener) {
+        mRenderQualityListener = renderQualityListener;
+    }
+
+    /**
+     * 设置拖拽帧耗时的监听器。设置后每次拖拽期间采集每一帧的耗时(API 24及以上使用FrameMetrics，更低版本使用Choreographer的帧间隔)，
+     * 手指抬起时回调一份摘要：帧数、卡顿帧数、p50/p90/p99帧耗时和onDraw的耗时。采集过程中每一帧不创建对象。
+     * 设置为空时停止采集
+     *
+     * @param dragFrameMetricsListener
+     */
+    public void setDragFrameMetricsListener(DragFrameMetricsListener dragFrameMetricsListener) {
+        mDragFrameMetricsListener = dragFrameMetricsListener;
+        if (dragFrameMetricsListener == null) {
+            if (mDragFrameCollector != null) {
+                mDragFrameCollector.detach();
+                mDragFrameCollector = null;
+            }
+        } else if (mDragFrameCollector == null) {
+            mDragFrameCollector = new DragFrameCollector();
+            if (getWindowToken() != null) {
+                mDragFrameCollector.attach(findWindow());
+            }
+        }
+    }
+
+    public float getRenderScale() {
+        return mRenderScale;
+    }
+
+    /**
+     * 设置内部位图的渲染比例，例如0.5或者0.75。背景图、背景块和滑块位图按该比例缩小生成，绘制时经过过滤拉伸到控件尺寸，
+     * 高密度屏幕上控件远小于屏幕分辨率时可以大幅减少内存和光栅化开销。触摸、滑块位置和验证容差仍然按控件像素计算。
+     * 当前拼图保持不变，只按新的比例重新生成位图
+     *
+     * @param renderScale 取值范围[0.25, 1]，超出时取边界值，默认为1
+     */
+    public void setRenderScale(float renderScale) {
+        renderScale = clampRenderScale(renderScale);
+        if (renderScale == mRenderScale) {
+            return;
+        }
+        mRenderScale = renderScale;
+        mPreparer.cancel();
+        releaseBitmaps();
+        invalidate();
+    }
+
+    public int getRotateSteps() {
+        return mRotateSteps;
+    }
+
+    /**
+     * 设置随机旋转角度的档数。大于0时旋转角度只取360/档数的整数倍，各档旋转后的遮罩第一次用到时生成并保留，
+     * 之后重置不再重新旋转缩放位图；档数越多角度越丰富，占用的内存也越多。0(默认)表示在[0, 270)之间连续取值
+     *
+     * @param rotateSteps 档数
+     */
+    public void setRotateSteps(int rotateSteps) {
+        mRotateSteps = Math.max(0, rotateSteps);
+        mRotationAtlas.setSteps(mRotateSteps);
+        mPreparer.cancel();
+        reset();
     }
 
     /**
@@ -743,6 +1841,7 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setRotateDegree(float rotateDegree) {
         mRotateDegree = rotateDegree;
+        mPreparer.cancel();
         reset();
     }
 
@@ -762,6 +1861,7 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setOpenRandomBlockLocation(boolean openRandomBlockLocation) {
         isOpenRandomBlockLocation = openRandomBlockLocation;
+        mPreparer.cancel();
     }
 
     /**
@@ -784,6 +1884,7 @@ public class ScrollVerifyView extends ImageView {
             throw new IllegalArgumentException("blockWidth系数要大于0");
         }
         mBlockWidthDivide = blockWidthDivide;
+        mPreparer.cancel();
         requestLayout();
     }
 
@@ -802,6 +1903,7 @@ public class ScrollVerifyView extends ImageView {
             throw new IllegalArgumentException("blockHeight系数要大于0");
         }
         mBlockHeightDivide = blockHeightDivide;
+        mPreparer.cancel();
         requestLayout();
     }
 
@@ -824,6 +1926,7 @@ public class ScrollVerifyView extends ImageView {
             throw new IllegalArgumentException("滑块宽度必须大于零");
         }
         mBlockWidth = blockWidth;
+        mPreparer.cancel();
         requestLayout();
     }
 
@@ -846,6 +1949,7 @@ public class ScrollVerifyView extends ImageView {
             throw new IllegalArgumentException("滑块高度必须大于零");
         }
         mBlockHeight = blockHeight;
+        mPreparer.cancel();
         requestLayout();
     }
 
@@ -867,6 +1971,7 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setMaxHorizontalScrollDistance(int maxHorizontalScrollDistance) {
         mMaxHorizontalScrollDistance = maxHorizontalScrollDistance;
+        mPreparer.cancel();
         requestLayout();
     }
 
@@ -907,7 +2012,7 @@ public class ScrollVerifyView extends ImageView {
     }
 
     /**
-     * 设置拖拽验证的偏差值
+     * 设置拖拽验证的偏差值。与最初版本的行为一致，实际允许的偏差是该值的2倍
      *
      * @param validOffset 像素
      */
@@ -931,6 +2036,7 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setAvoidGenerateTooClose(boolean avoidGenerateTooClose) {
         isAvoidGenerateTooClose = avoidGenerateTooClose;
+        mPreparer.cancel();
     }
 
     /**
@@ -949,6 +2055,8 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setMovableBlockDrawable(Drawable movableBlockDrawable) {
         mMovableBlockDrawable = movableBlockDrawable;
+        mMovableMaskBitmap = GraphicTools.drawable2Bitmap(movableBlockDrawable);
+        mPreparer.cancel();
         invalidate();
     }
 
@@ -968,6 +2076,123 @@ public class ScrollVerifyView extends ImageView {
      */
     public void setTargetBlockDrawable(Drawable targetBlockDrawable) {
         mTargetBlockDrawable = targetBlockDrawable;
+        mTargetMaskBitmap = GraphicTools.drawable2Bitmap(targetBlockDrawable);
+        mPreparer.cancel();
         invalidate();
     }
+
+    /**
+     * 描述:绘制质量变化的监听器
+     * <p>
+     * 创建时间:2026年10月18日 23:50
+     *
+     * @version 1.0
+     */
+    public interface RenderQualityListener {
+        /**
+         * 拖拽期间持续掉帧，自适应质量降低了一级
+         *
+         * @param renderQuality  降低后的绘制质量
+         * @param droppedFrames  触发降低的统计窗口内的掉帧数
+         * @param expectedFrames 触发降低的统计窗口内的垂直同步周期数
+         */
+        void onRenderQualityChanged(int renderQuality, int droppedFrames, int expectedFrames);
+    }
+
+    /**
+     * 描述:拖拽帧耗时的监听器
+     * <p>
+     * 创建时间:2026年10月19日 00:30
+     *
+     * @version 1.0
+     */
+    public interface DragFrameMetricsListener {
+        /**
+         * 一次拖拽结束，在主线程回调
+         *
+         * @param stats 本次拖拽的帧耗时摘要
+         */
+        void onDragFrameMetrics(FrameStats stats);
+    }
+
+    /**
+     * 保存的拼图状态。只保存几个基本类型的几何信息(几十个字节)，不保存任何位图，
+     * 恢复时按同样的图片和几何信息重新生成位图，不会超出Binder事务的大小限制
+     */
+    static class SavedState extends BaseSavedState {
+        boolean hasPuzzle;
+        /**
+         * 生成拼图时的背景尺寸，恢复时尺寸不同则按比例换算位置
+         */
+        int width;
+        int height;
+        int blockWidth;
+        int blockHeight;
+        int scrollMode;
+        float rotateDegree;
+        float oriStartX;
+        float oriStartY;
+        /**
+         * 可移动滑块当前的位置
+         */
+        float blockX;
+        float blockY;
+        float targetX;
+        float targetY;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            hasPuzzle = in.readByte() != 0;
+            if (hasPuzzle) {
+                width = in.readInt();
+                height = in.readInt();
+                blockWidth = in.readInt();
+                blockHeight = in.readInt();
+                scrollMode = in.readInt();
+                rotateDegree = in.readFloat();
+                oriStartX = in.readFloat();
+                oriStartY = in.readFloat();
+                blockX = in.readFloat();
+                blockY = in.readFloat();
+                targetX = in.readFloat();
+                targetY = in.readFloat();
+            }
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeByte((byte) (hasPuzzle ? 1 : 0));
+            if (hasPuzzle) {
+                out.writeInt(width);
+                out.writeInt(height);
+                out.writeInt(blockWidth);
+                out.writeInt(blockHeight);
+                out.writeInt(scrollMode);
+                out.writeFloat(rotateDegree);
+                out.writeFloat(oriStartX);
+                out.writeFloat(oriStartY);
+                out.writeFloat(blockX);
+                out.writeFloat(blockY);
+                out.writeFloat(targetX);
+                out.writeFloat(targetY);
+            }
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }